@@ -0,0 +1,158 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+import org.glassfish.gmbal.ManagedObject;
+import org.glassfish.gmbal.ManagedObjectManagerFactory;
+import org.glassfish.gmbal.ManagedOperation;
+import org.glassfish.gmbal.NameValue;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+
+/** Managed classes shared by the benchmarks.
+ */
+public final class Fixtures {
+    private Fixtures() {}
+
+    public static final String[] ATTRIBUTE_NAMES = {
+        "Count", "Label", "Position", "Samples", "Table" } ;
+
+    @ManagedData
+    @Description( "A point" )
+    public static class Point {
+        private final int x ;
+        private final int y ;
+
+        public Point( int x, int y ) {
+            this.x = x ;
+            this.y = y ;
+        }
+
+        @ManagedAttribute
+        @Description( "x coordinate" )
+        public int x() { return x ; }
+
+        @ManagedAttribute
+        @Description( "y coordinate" )
+        public int y() { return y ; }
+    }
+
+    @ManagedObject
+    @Description( "A managed object with attributes of several kinds" )
+    public static class Bean {
+        private final String name ;
+        private final Point position = new Point( 3, 4 ) ;
+        private final long[] samples = new long[32] ;
+        private final Map<String,Integer> table =
+            new HashMap<String,Integer>() ;
+        private volatile int count ;
+
+        public Bean( String name ) {
+            this.name = name ;
+            for (int ctr=0; ctr<16; ctr++) {
+                table.put( "key" + ctr, ctr ) ;
+            }
+        }
+
+        @NameValue
+        public String name() { return name ; }
+
+        @ManagedAttribute
+        @Description( "A simple attribute" )
+        public int getCount() { return count ; }
+
+        @ManagedAttribute
+        @Description( "A string attribute" )
+        public String getLabel() { return name ; }
+
+        @ManagedAttribute
+        @Description( "A @ManagedData attribute" )
+        public Point getPosition() { return position ; }
+
+        @ManagedAttribute
+        @Description( "An array attribute" )
+        public long[] getSamples() { return samples ; }
+
+        @ManagedAttribute
+        @Description( "A Map attribute" )
+        public Map<String,Integer> getTable() { return table ; }
+
+        @ManagedOperation
+        @Description( "Add two numbers" )
+        public int add( int a, int b ) { return a + b ; }
+    }
+
+    /** Declares one method for each type that the TypeConverter
+     * benchmarks convert, so that generic types can be evaluated.
+     */
+    public interface ConvertedTypes {
+        Integer simple() ;
+        long[] primitiveArray() ;
+        String[] objectArray() ;
+        Map<String,Integer> map() ;
+        Point managedData() ;
+    }
+
+    /** Create a ManagedObjectManager with a root, ready for registration.
+     * @return The new ManagedObjectManager.
+     */
+    public static ManagedObjectManagerInternal createMom() {
+        return createMom( "bench" ) ;
+    }
+
+    /** Create a ManagedObjectManager with a root in domain, ready for
+     * registration.
+     * @param domain The JMX domain of the new ManagedObjectManager.
+     * @return The new ManagedObjectManager.
+     */
+    public static ManagedObjectManagerInternal createMom( String domain ) {
+        ManagedObjectManagerInternal mom =
+            (ManagedObjectManagerInternal)ManagedObjectManagerFactory
+                .createStandalone( domain ) ;
+        mom.stripPackagePrefix() ;
+        mom.createRoot() ;
+        return mom ;
+    }
+}
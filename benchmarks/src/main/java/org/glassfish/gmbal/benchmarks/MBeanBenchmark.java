@@ -0,0 +1,123 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.io.IOException;
+import javax.management.AttributeList;
+import javax.management.JMException;
+import org.glassfish.gmbal.GmbalMBean;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Cost of the DynamicMBean operations that a JMX client drives:
+ * getAttribute, getAttributes and invoke, all of which go through
+ * MBeanSkeleton.  The MBean is called directly rather than through the
+ * MBeanServer, so that only gmbal is measured.
+ */
+@State( Scope.Benchmark )
+public class MBeanBenchmark extends GmbalBenchmark {
+    private static final Object[] ADD_ARGS = { 1, 2 } ;
+    private static final String[] ADD_SIG = {
+        Integer.class.getName(), Integer.class.getName() } ;
+
+    private ManagedObjectManagerInternal mom ;
+    private GmbalMBean mbean ;
+
+    @Setup
+    public void setup() {
+        mom = Fixtures.createMom() ;
+        mbean = mom.registerAtRoot( new Fixtures.Bean( "bean" ) ) ;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mom.close() ;
+    }
+
+    @Benchmark
+    public Object getSimpleAttribute() throws JMException {
+        return mbean.getAttribute( "Count" ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object getSimpleAttributeMT() throws JMException {
+        return mbean.getAttribute( "Count" ) ;
+    }
+
+    @Benchmark
+    public Object getManagedDataAttribute() throws JMException {
+        return mbean.getAttribute( "Position" ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object getManagedDataAttributeMT() throws JMException {
+        return mbean.getAttribute( "Position" ) ;
+    }
+
+    @Benchmark
+    public AttributeList getAttributes() {
+        return mbean.getAttributes( Fixtures.ATTRIBUTE_NAMES ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public AttributeList getAttributesMT() {
+        return mbean.getAttributes( Fixtures.ATTRIBUTE_NAMES ) ;
+    }
+
+    @Benchmark
+    public Object invoke() throws JMException {
+        return mbean.invoke( "add", ADD_ARGS, ADD_SIG ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object invokeMT() throws JMException {
+        return mbean.invoke( "add", ADD_ARGS, ADD_SIG ) ;
+    }
+}
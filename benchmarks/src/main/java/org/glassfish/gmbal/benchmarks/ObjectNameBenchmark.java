@@ -0,0 +1,108 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.io.IOException;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Registration cost in deep and in wide MBean trees.  Most of the
+ * per-registration cost outside of the MBeanServer is the construction of
+ * the ObjectName, whose pp key grows with the depth of the tree, so
+ * registerDeep compared to registerWide shows what the depth costs.
+ */
+@State( Scope.Benchmark )
+public class ObjectNameBenchmark extends GmbalBenchmark {
+    private static final int DEPTH = 200 ;
+    private static final int WIDTH = 20000 ;
+
+    private ManagedObjectManagerInternal mom ;
+    // The last node of a chain of DEPTH nodes, each the child of the
+    // previous one.
+    private Fixtures.Bean deepParent ;
+    // A node with WIDTH children.
+    private Fixtures.Bean wideParent ;
+    private int next ;
+
+    @Setup
+    public void setup() {
+        mom = Fixtures.createMom() ;
+
+        Object parent = mom.getRoot() ;
+        for (int ctr=0; ctr<DEPTH; ctr++) {
+            Fixtures.Bean node = new Fixtures.Bean( "deep" + ctr ) ;
+            mom.register( parent, node ) ;
+            parent = node ;
+        }
+        deepParent = (Fixtures.Bean)parent ;
+
+        wideParent = new Fixtures.Bean( "wide" ) ;
+        mom.registerAtRoot( wideParent ) ;
+        for (int ctr=0; ctr<WIDTH; ctr++) {
+            mom.register( wideParent, new Fixtures.Bean( "node" + ctr ) ) ;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mom.close() ;
+    }
+
+    private void registerAndUnregister( Fixtures.Bean parent ) {
+        Fixtures.Bean child = new Fixtures.Bean( "child" + next++ ) ;
+        mom.register( parent, child ) ;
+        mom.unregister( child ) ;
+    }
+
+    @Benchmark
+    public void registerDeep() {
+        registerAndUnregister( deepParent ) ;
+    }
+
+    @Benchmark
+    public void registerWide() {
+        registerAndUnregister( wideParent ) ;
+    }
+}
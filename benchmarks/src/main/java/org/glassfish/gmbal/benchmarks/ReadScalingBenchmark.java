@@ -0,0 +1,121 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import org.glassfish.gmbal.GmbalMBean;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/** How attribute reads scale with the number of reading threads when the
+ * threads read many different MBeans of one manager.  Reading the
+ * @ManagedData attribute goes through ManagedObjectManager.getFacetAccessor,
+ * so any manager-wide lock on the read path shows up as an MT score that
+ * is no better than the single-threaded one.  Other thread counts can be
+ * measured with the -t option.
+ */
+@State( Scope.Benchmark )
+public class ReadScalingBenchmark extends GmbalBenchmark {
+    private static final int NUM_BEANS = 1000 ;
+
+    private ManagedObjectManagerInternal mom ;
+    private final List<GmbalMBean> beans = new ArrayList<GmbalMBean>() ;
+
+    /** The next MBean that a thread reads.  Threads start at different
+     * MBeans.
+     */
+    @State( Scope.Thread )
+    public static class Cursor {
+        int next ;
+
+        @Setup
+        public void setup( ThreadParams params ) {
+            next = params.getThreadIndex() % NUM_BEANS ;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        mom = Fixtures.createMom() ;
+        for (int ctr=0; ctr<NUM_BEANS; ctr++) {
+            beans.add( mom.registerAtRoot(
+                new Fixtures.Bean( "bean" + ctr ) ) ) ;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mom.close() ;
+        beans.clear() ;
+    }
+
+    private void read( final Cursor cursor, final Blackhole bh )
+        throws JMException {
+
+        final GmbalMBean mb = beans.get( cursor.next ) ;
+        cursor.next = (cursor.next + 1) % NUM_BEANS ;
+        bh.consume( mb.getAttribute( "Count" ) ) ;
+        bh.consume( mb.getAttribute( "Position" ) ) ;
+    }
+
+    @Benchmark
+    public void readMany( Cursor cursor, Blackhole bh ) throws JMException {
+        read( cursor, bh ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public void readManyMT( Cursor cursor, Blackhole bh )
+        throws JMException {
+
+        read( cursor, bh ) ;
+    }
+}
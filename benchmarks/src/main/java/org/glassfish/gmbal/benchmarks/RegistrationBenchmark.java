@@ -0,0 +1,136 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Throughput of registering and then unregistering an MBean, including
+ * the MBeanServer work.  Each benchmark thread uses its own parent, as
+ * independent subsystems would.  The SeparateManagers variants give each
+ * thread its own ManagedObjectManager in its own domain, so that the
+ * threads only share the MBeanServer and the state that is global to the
+ * JVM.
+ */
+@State( Scope.Benchmark )
+public class RegistrationBenchmark extends GmbalBenchmark {
+    private ManagedObjectManagerInternal mom ;
+    private final AtomicInteger nextParent = new AtomicInteger() ;
+
+    @State( Scope.Thread )
+    public static class PerThread {
+        private Fixtures.Bean parent ;
+        private int next ;
+
+        @Setup
+        public void setup( RegistrationBenchmark bench ) {
+            parent = new Fixtures.Bean( "parent"
+                + bench.nextParent.getAndIncrement() ) ;
+            bench.mom.registerAtRoot( parent ) ;
+        }
+
+        Fixtures.Bean nextChild() {
+            return new Fixtures.Bean( "child" + next++ ) ;
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class OwnManager {
+        private ManagedObjectManagerInternal mom ;
+        private Fixtures.Bean parent ;
+        private int next ;
+
+        @Setup
+        public void setup( RegistrationBenchmark bench ) {
+            mom = Fixtures.createMom( "bench"
+                + bench.nextParent.getAndIncrement() ) ;
+            parent = new Fixtures.Bean( "parent" ) ;
+            mom.registerAtRoot( parent ) ;
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            mom.close() ;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        mom = Fixtures.createMom() ;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mom.close() ;
+    }
+
+    private void registerAndUnregister( PerThread state ) {
+        Fixtures.Bean child = state.nextChild() ;
+        mom.register( state.parent, child ) ;
+        mom.unregister( child ) ;
+    }
+
+    @Benchmark
+    public void registerUnregister( PerThread state ) {
+        registerAndUnregister( state ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public void registerUnregisterMT( PerThread state ) {
+        registerAndUnregister( state ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public void registerUnregisterSeparateManagersMT( OwnManager state ) {
+        Fixtures.Bean child = new Fixtures.Bean( "child" + state.next++ ) ;
+        state.mom.register( state.parent, child ) ;
+        state.mom.unregister( child ) ;
+    }
+}
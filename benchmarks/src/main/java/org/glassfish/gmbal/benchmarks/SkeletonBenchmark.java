@@ -0,0 +1,122 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.io.IOException;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedOperation;
+import org.glassfish.gmbal.NameValue;
+import org.glassfish.gmbal.impl.MBeanImpl;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+import org.glassfish.gmbal.typelib.EvaluatedClassAnalyzer;
+import org.glassfish.gmbal.typelib.EvaluatedClassDeclaration;
+import org.glassfish.gmbal.typelib.EvaluatedFieldDeclaration;
+import org.glassfish.gmbal.typelib.EvaluatedMethodDeclaration;
+import org.glassfish.gmbal.typelib.TypeEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Cost of building an MBean for an object.  The cached variants measure
+ * the usual case where the MBeanSkeleton for the class already exists.
+ * The cold variants first close the ManagedObjectManager, which clears the
+ * skeleton, type converter and annotation caches, so the skeleton is
+ * analyzed and built again on every call.  annotationScan measures only
+ * the annotation scans over the class hierarchy done during analysis.
+ */
+@State( Scope.Benchmark )
+public class SkeletonBenchmark extends GmbalBenchmark {
+    private ManagedObjectManagerInternal mom ;
+    private Fixtures.Bean bean ;
+    private EvaluatedClassAnalyzer ca ;
+
+    @Setup
+    public void setup() {
+        mom = Fixtures.createMom() ;
+        bean = new Fixtures.Bean( "bean" ) ;
+        ca = new EvaluatedClassAnalyzer( (EvaluatedClassDeclaration)
+            TypeEvaluator.getEvaluatedType( Fixtures.Bean.class ) ) ;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mom.close() ;
+    }
+
+    @Benchmark
+    public MBeanImpl cachedSkeleton() {
+        return mom.constructMBean( null, bean, "bean" ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public MBeanImpl cachedSkeletonMT() {
+        return mom.constructMBean( null, bean, "bean" ) ;
+    }
+
+    @Benchmark
+    public int annotationScan() {
+        return ca.findMethods( mom.forAnnotation( ManagedAttribute.class,
+                EvaluatedMethodDeclaration.class ) ).size()
+            + ca.findMethods( mom.forAnnotation( ManagedOperation.class,
+                EvaluatedMethodDeclaration.class ) ).size()
+            + ca.findMethods( mom.forAnnotation( NameValue.class,
+                EvaluatedMethodDeclaration.class ) ).size()
+            + ca.findFields( mom.forAnnotation( NameValue.class,
+                EvaluatedFieldDeclaration.class ) ).size() ;
+    }
+
+    @Benchmark
+    public MBeanImpl coldSkeleton() throws IOException {
+        mom.close() ;
+        return mom.constructMBean( null, bean, "bean" ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public MBeanImpl coldSkeletonMT() throws IOException {
+        mom.close() ;
+        return mom.constructMBean( null, bean, "bean" ) ;
+    }
+}
@@ -0,0 +1,190 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.glassfish.gmbal.impl.ManagedObjectManagerInternal;
+import org.glassfish.gmbal.impl.TypeConverter;
+import org.glassfish.gmbal.typelib.EvaluatedClassDeclaration;
+import org.glassfish.gmbal.typelib.EvaluatedMethodDeclaration;
+import org.glassfish.gmbal.typelib.EvaluatedType;
+import org.glassfish.gmbal.typelib.TypeEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Cost of TypeConverter.toManagedEntity for the kinds of values that
+ * attributes commonly return, and of looking up the TypeConverter for a
+ * type, as every attribute and operation does while a skeleton is built.
+ */
+@State( Scope.Benchmark )
+public class TypeConverterBenchmark extends GmbalBenchmark {
+    private ManagedObjectManagerInternal mom ;
+
+    private TypeConverter simple ;
+    private TypeConverter primitiveArray ;
+    private TypeConverter objectArray ;
+    private TypeConverter map ;
+    private TypeConverter managedData ;
+
+    private EvaluatedType mapType ;
+    private EvaluatedType managedDataType ;
+
+    private final Integer simpleValue = 42 ;
+    private final long[] primitiveArrayValue = new long[64] ;
+    private final String[] objectArrayValue = new String[64] ;
+    private final Map<String,Integer> mapValue =
+        new HashMap<String,Integer>() ;
+    private final Fixtures.Point managedDataValue = new Fixtures.Point( 1, 2 ) ;
+
+    private EvaluatedType type( String methodName ) {
+        EvaluatedClassDeclaration cdecl =
+            (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(
+                Fixtures.ConvertedTypes.class ) ;
+        for (EvaluatedMethodDeclaration m : cdecl.methods()) {
+            if (m.name().equals( methodName )) {
+                return m.returnType() ;
+            }
+        }
+
+        throw new IllegalArgumentException( "No method " + methodName ) ;
+    }
+
+    private TypeConverter converter( String methodName ) {
+        return mom.getTypeConverter( type( methodName ) ) ;
+    }
+
+    @Setup
+    public void setup() {
+        mom = Fixtures.createMom() ;
+        simple = converter( "simple" ) ;
+        primitiveArray = converter( "primitiveArray" ) ;
+        objectArray = converter( "objectArray" ) ;
+        map = converter( "map" ) ;
+        managedData = converter( "managedData" ) ;
+        mapType = type( "map" ) ;
+        managedDataType = type( "managedData" ) ;
+
+        for (int ctr=0; ctr<objectArrayValue.length; ctr++) {
+            primitiveArrayValue[ctr] = ctr ;
+            objectArrayValue[ctr] = "value" + ctr ;
+        }
+
+        for (int ctr=0; ctr<16; ctr++) {
+            mapValue.put( "key" + ctr, ctr ) ;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mom.close() ;
+    }
+
+    @Benchmark
+    public Object simple() {
+        return simple.toManagedEntity( simpleValue ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object simpleMT() {
+        return simple.toManagedEntity( simpleValue ) ;
+    }
+
+    @Benchmark
+    public Object primitiveArray() {
+        return primitiveArray.toManagedEntity( primitiveArrayValue ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object primitiveArrayMT() {
+        return primitiveArray.toManagedEntity( primitiveArrayValue ) ;
+    }
+
+    @Benchmark
+    public Object objectArray() {
+        return objectArray.toManagedEntity( objectArrayValue ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object objectArrayMT() {
+        return objectArray.toManagedEntity( objectArrayValue ) ;
+    }
+
+    @Benchmark
+    public Object map() {
+        return map.toManagedEntity( mapValue ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object mapMT() {
+        return map.toManagedEntity( mapValue ) ;
+    }
+
+    @Benchmark
+    public Object managedData() {
+        return managedData.toManagedEntity( managedDataValue ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public Object managedDataMT() {
+        return managedData.toManagedEntity( managedDataValue ) ;
+    }
+
+    @Benchmark
+    public TypeConverter lookupMap() {
+        return mom.getTypeConverter( mapType ) ;
+    }
+
+    @Benchmark
+    public TypeConverter lookupManagedData() {
+        return mom.getTypeConverter( managedDataType ) ;
+    }
+}
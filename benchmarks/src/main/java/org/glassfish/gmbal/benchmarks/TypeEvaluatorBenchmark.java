@@ -0,0 +1,84 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.benchmarks;
+
+import java.util.HashMap;
+import org.glassfish.gmbal.typelib.EvaluatedType;
+import org.glassfish.gmbal.typelib.TypeEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Cost of TypeEvaluator.getEvaluatedType for classes that have already
+ * been evaluated, which is what every registration pays.
+ */
+@State( Scope.Benchmark )
+public class TypeEvaluatorBenchmark extends GmbalBenchmark {
+    @Setup
+    public void setup() {
+        TypeEvaluator.getEvaluatedType( Fixtures.Bean.class ) ;
+        TypeEvaluator.getEvaluatedType( HashMap.class ) ;
+    }
+
+    @Benchmark
+    public EvaluatedType managedClass() {
+        return TypeEvaluator.getEvaluatedType( Fixtures.Bean.class ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public EvaluatedType managedClassMT() {
+        return TypeEvaluator.getEvaluatedType( Fixtures.Bean.class ) ;
+    }
+
+    @Benchmark
+    public EvaluatedType jdkClass() {
+        return TypeEvaluator.getEvaluatedType( HashMap.class ) ;
+    }
+
+    @Benchmark
+    @Threads( THREADS )
+    public EvaluatedType jdkClassMT() {
+        return TypeEvaluator.getEvaluatedType( HashMap.class ) ;
+    }
+}
@@ -0,0 +1,234 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/** Writes the binary names of all concrete classes in a compilation that
+ * are ManagedObjects to META-INF/gmbal/managed-objects, one per line.  As
+ * at runtime, a class is a ManagedObject if it or any of its superclasses
+ * or interfaces is annotated with ManagedObject, so the annotation may
+ * also come from a type in a library.  Abstract classes and interfaces are
+ * not listed, since they are never registered themselves.
+ * <p>
+ * ManagedObjectManager.prepareIndexed reads this index to build the MBean
+ * skeletons of the listed classes ahead of their registration.
+ * <p>
+ * An incremental build only compiles some of the classes, so the index is
+ * merged with the one already in the class output: an entry from the old
+ * index is kept unless its class was compiled again (in which case it is
+ * listed only if it is still a ManagedObject), or no longer exists.
+ */
+@SupportedAnnotationTypes( "*" )
+public class ManagedObjectIndexProcessor extends AbstractProcessor {
+    /** The location of the index in the class output.  Must match
+     * org.glassfish.gmbal.impl.ManagedObjectIndex.RESOURCE.
+     */
+    public static final String INDEX = "META-INF/gmbal/managed-objects" ;
+
+    private static final String MANAGED_OBJECT =
+        "org.glassfish.gmbal.ManagedObject" ;
+
+    private final SortedSet<String> names = new TreeSet<String>() ;
+    // The binary names of all classes of this compilation.
+    private final Set<String> compiled = new HashSet<String>() ;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported() ;
+    }
+
+    @Override
+    public boolean process( Set<? extends TypeElement> annotations,
+        RoundEnvironment roundEnv ) {
+
+        if (roundEnv.processingOver()) {
+            if (!compiled.isEmpty()) {
+                writeIndex() ;
+            }
+        } else {
+            for (Element elem : roundEnv.getRootElements()) {
+                scan( elem ) ;
+            }
+        }
+
+        // Other processors may also handle these annotations.
+        return false ;
+    }
+
+    private void scan( Element elem ) {
+        if (!elem.getKind().isClass() && !elem.getKind().isInterface()) {
+            return ;
+        }
+
+        final TypeElement type = (TypeElement)elem ;
+        compiled.add( processingEnv.getElementUtils().getBinaryName(
+            type ).toString() ) ;
+        if (type.getKind() == ElementKind.CLASS
+            && !type.getModifiers().contains( Modifier.ABSTRACT )
+            && isManagedObject( type.asType(), new HashSet<String>() )) {
+            names.add( processingEnv.getElementUtils().getBinaryName(
+                type ).toString() ) ;
+        }
+
+        for (Element member : type.getEnclosedElements()) {
+            scan( member ) ;
+        }
+    }
+
+    private boolean isManagedObject( TypeMirror type, Set<String> visited ) {
+        if (!(type instanceof DeclaredType)) {
+            return false ;
+        }
+
+        final TypeElement elem =
+            (TypeElement)((DeclaredType)type).asElement() ;
+        if (!visited.add( elem.getQualifiedName().toString() )) {
+            return false ;
+        }
+
+        for (AnnotationMirror mirror : elem.getAnnotationMirrors()) {
+            final TypeElement annotation =
+                (TypeElement)mirror.getAnnotationType().asElement() ;
+            if (annotation.getQualifiedName().contentEquals(
+                MANAGED_OBJECT )) {
+                return true ;
+            }
+        }
+
+        for (TypeMirror supertype :
+            processingEnv.getTypeUtils().directSupertypes( type )) {
+            if (isManagedObject( supertype, visited )) {
+                return true ;
+            }
+        }
+
+        return false ;
+    }
+
+    // Add the entries of the index in the class output that are still
+    // valid.  Returns false if there is no such index.
+    private boolean mergePreviousIndex() {
+        final Reader reader ;
+        try {
+            reader = processingEnv.getFiler().getResource(
+                StandardLocation.CLASS_OUTPUT, "", INDEX ).openReader( true ) ;
+        } catch (IOException exc) {
+            return false ;
+        }
+
+        try {
+            try {
+                final BufferedReader lines = new BufferedReader( reader ) ;
+                String line ;
+                while ((line = lines.readLine()) != null) {
+                    line = line.trim() ;
+                    if (line.length() > 0 && !line.startsWith( "#" )
+                        && !compiled.contains( line ) && exists( line )) {
+                        names.add( line ) ;
+                    }
+                }
+            } finally {
+                reader.close() ;
+            }
+        } catch (IOException exc) {
+            processingEnv.getMessager().printMessage( Diagnostic.Kind.WARNING,
+                "Could not read the previous " + INDEX + ": " + exc ) ;
+        }
+
+        return true ;
+    }
+
+    // Classes compiled earlier are on the class path of an incremental
+    // compilation, so a class that cannot be found has been deleted.
+    private boolean exists( String binaryName ) {
+        return processingEnv.getElementUtils().getTypeElement(
+            binaryName.replace( '$', '.' ) ) != null ;
+    }
+
+    private void writeIndex() {
+        // An existing index is rewritten even if it is now empty, so
+        // that it does not list classes that are no longer ManagedObjects.
+        if (!mergePreviousIndex() && names.isEmpty()) {
+            return ;
+        }
+
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT, "", INDEX ) ;
+            final Writer writer = file.openWriter() ;
+            try {
+                writer.write( "# ManagedObject classes, generated by "
+                    + getClass().getName() + "\n" ) ;
+                for (String name : names) {
+                    writer.write( name ) ;
+                    writer.write( '\n' ) ;
+                }
+            } finally {
+                writer.close() ;
+            }
+        } catch (IOException exc) {
+            processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR,
+                "Could not write " + INDEX + ": " + exc ) ;
+        }
+    }
+}
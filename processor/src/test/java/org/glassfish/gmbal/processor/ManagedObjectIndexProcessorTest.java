@@ -0,0 +1,209 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.processor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import junit.framework.TestCase;
+
+/** Compiles small sources with the processor and checks the index that it
+ * writes, including incremental compilations that only see some of the
+ * classes.
+ */
+public class ManagedObjectIndexProcessorTest extends TestCase {
+    private static final String ANNOTATION =
+        "package org.glassfish.gmbal ;\n"
+        + "@java.lang.annotation.Inherited\n"
+        + "@java.lang.annotation.Retention( "
+        + "java.lang.annotation.RetentionPolicy.RUNTIME )\n"
+        + "public @interface ManagedObject { }\n" ;
+
+    private File srcDir ;
+    private File classDir ;
+
+    @Override
+    protected void setUp() throws IOException {
+        srcDir = makeTempDir( "src" ) ;
+        classDir = makeTempDir( "classes" ) ;
+    }
+
+    @Override
+    protected void tearDown() {
+        delete( srcDir ) ;
+        delete( classDir ) ;
+    }
+
+    public void testFullCompile() throws IOException {
+        compile(
+            source( "org.glassfish.gmbal.ManagedObject", ANNOTATION ),
+            source( "test.A",
+                "package test ; @org.glassfish.gmbal.ManagedObject "
+                + "public class A { public static class Nested "
+                + "extends A { } }" ),
+            source( "test.B",
+                "package test ; public class B extends A { }" ),
+            source( "test.C",
+                "package test ; @org.glassfish.gmbal.ManagedObject "
+                + "public abstract class C { }" ),
+            source( "test.D",
+                "package test ; public class D { }" ) ) ;
+
+        assertEquals( Arrays.asList( "test.A", "test.A$Nested", "test.B" ),
+            readIndex() ) ;
+    }
+
+    public void testIncrementalCompileMerges() throws IOException {
+        compile(
+            source( "org.glassfish.gmbal.ManagedObject", ANNOTATION ),
+            source( "test.A",
+                "package test ; @org.glassfish.gmbal.ManagedObject "
+                + "public class A { }" ) ) ;
+        assertEquals( Arrays.asList( "test.A" ), readIndex() ) ;
+
+        compile( source( "test.B",
+            "package test ; @org.glassfish.gmbal.ManagedObject "
+            + "public class B { }" ) ) ;
+        assertEquals( Arrays.asList( "test.A", "test.B" ), readIndex() ) ;
+    }
+
+    public void testIncrementalCompileRemoves() throws IOException {
+        compile(
+            source( "org.glassfish.gmbal.ManagedObject", ANNOTATION ),
+            source( "test.A",
+                "package test ; @org.glassfish.gmbal.ManagedObject "
+                + "public class A { }" ),
+            source( "test.B",
+                "package test ; @org.glassfish.gmbal.ManagedObject "
+                + "public class B { }" ) ) ;
+        assertEquals( Arrays.asList( "test.A", "test.B" ), readIndex() ) ;
+
+        // A is no longer a ManagedObject, and B has been deleted.
+        delete( new File( classDir, "test/B.class" ) ) ;
+        delete( new File( srcDir, "test/B.java" ) ) ;
+        compile( source( "test.A", "package test ; public class A { }" ) ) ;
+        assertEquals( new ArrayList<String>(), readIndex() ) ;
+    }
+
+    private File source( String className, String text ) throws IOException {
+        final File file = new File( srcDir,
+            className.replace( '.', '/' ) + ".java" ) ;
+        file.getParentFile().mkdirs() ;
+        final OutputStream os = new FileOutputStream( file ) ;
+        try {
+            os.write( text.getBytes( "UTF-8" ) ) ;
+        } finally {
+            os.close() ;
+        }
+
+        return file ;
+    }
+
+    // Compile the given sources into classDir, with the classes compiled
+    // earlier on the class path.
+    private void compile( File... sources ) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler() ;
+        final List<String> args = new ArrayList<String>( Arrays.asList(
+            "-processor",
+            ManagedObjectIndexProcessor.class.getName(),
+            "-processorpath", System.getProperty( "java.class.path" ),
+            "-classpath", classDir.getPath(),
+            "-d", classDir.getPath() ) ) ;
+        for (File source : sources) {
+            args.add( source.getPath() ) ;
+        }
+
+        assertEquals( 0, compiler.run( null, null, null,
+            args.toArray( new String[args.size()] ) ) ) ;
+    }
+
+    private List<String> readIndex() throws IOException {
+        final List<String> result = new ArrayList<String>() ;
+        final File file = new File( classDir,
+            ManagedObjectIndexProcessor.INDEX ) ;
+        final InputStream is = new FileInputStream( file ) ;
+        try {
+            final byte[] buf = new byte[(int)file.length()] ;
+            int pos = 0 ;
+            while (pos < buf.length) {
+                pos += is.read( buf, pos, buf.length - pos ) ;
+            }
+
+            for (String line : new String( buf, "UTF-8" ).split( "\n" )) {
+                if (line.length() > 0 && !line.startsWith( "#" )) {
+                    result.add( line ) ;
+                }
+            }
+        } finally {
+            is.close() ;
+        }
+
+        return result ;
+    }
+
+    private static File makeTempDir( String prefix ) throws IOException {
+        final File dir = File.createTempFile( "gmbal-" + prefix, "" ) ;
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException( "Could not create " + dir ) ;
+        }
+
+        return dir ;
+    }
+
+    private static void delete( File file ) {
+        final File[] children = file.listFiles() ;
+        if (children != null) {
+            for (File child : children) {
+                delete( child ) ;
+            }
+        }
+
+        file.delete() ;
+    }
+}
@@ -0,0 +1,110 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal;
+
+import java.util.concurrent.Future;
+
+/** A ManagedObjectManager that can register and unregister MBeans without
+ * waiting for the MBeanServer.  Instances are obtained from
+ * ManagedObjectManagerFactory.createStandaloneAsync or
+ * createFederatedAsync.
+ * <p>
+ * The asynchronous methods build the MBean and update the MBean tree
+ * before returning, so getObjectName and getObject reflect the change
+ * immediately, and errors such as a duplicate registration are still
+ * thrown directly.  Only the MBeanServer registration is queued: it is
+ * performed by a background pipeline on the executor passed to the factory,
+ * one request at a time and in request order.  Failures reported by the
+ * MBeanServer are delivered through the returned Future.
+ * <p>
+ * The synchronous register and unregister methods inherited from
+ * ManagedObjectManager also go through the pipeline, and wait for it.
+ */
+public interface AsyncManagedObjectManager extends ManagedObjectManager {
+    /** Asynchronous version of register( parent, obj, name ).
+     * @param parent The parent object that contains obj.
+     * @param obj The managed object we are registering.
+     * @param name The name to use for registering this object.
+     * @return A Future that completes with the MBean constructed from obj once
+     * it has been registered with the MBeanServer.
+     * @exception IllegalStateException if called before a createRoot method is
+     * called successfully.
+     */
+    Future<GmbalMBean> registerAsync( Object parent, Object obj, String name ) ;
+
+    /** Asynchronous version of register( parent, obj ).
+     * @param parent The parent object that contains obj.
+     * @param obj The managed object we are registering.
+     * @return A Future that completes with the MBean constructed from obj once
+     * it has been registered with the MBeanServer.
+     * @exception IllegalStateException if called before a createRoot method is
+     * called successfully.
+     */
+    Future<GmbalMBean> registerAsync( Object parent, Object obj ) ;
+
+    /** Asynchronous version of registerAtRoot( obj, name ).
+     * @param obj The managed object we are registering.
+     * @param name The name of the MBean.
+     * @return A Future that completes with the MBean constructed from obj once
+     * it has been registered with the MBeanServer.
+     * @exception IllegalStateException if called before a createRoot method is
+     * called successfully.
+     */
+    Future<GmbalMBean> registerAtRootAsync( Object obj, String name ) ;
+
+    /** Asynchronous version of registerAtRoot( obj ).
+     * @param obj The managed object we are registering.
+     * @return A Future that completes with the MBean constructed from obj once
+     * it has been registered with the MBeanServer.
+     * @exception IllegalStateException if called before a createRoot method is
+     * called successfully.
+     */
+    Future<GmbalMBean> registerAtRootAsync( Object obj ) ;
+
+    /** Asynchronous version of unregister( obj ).
+     * @param obj The object originally passed to a register method.
+     * @return A Future that completes once the MBeans for obj and all of
+     * its descendants have been unregistered from the MBeanServer.
+     * @exception IllegalStateException if called before a createRoot method is
+     * called successfully.
+     */
+    Future<Void> unregisterAsync( Object obj ) ;
+}
@@ -0,0 +1,81 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal;
+
+/** The number of reads of an MBean's cached attributes that were served
+ * from its attribute cache (hits), and the number that called the getter
+ * (misses).  A read is a hit if it used a cached value, or shared the
+ * result of another read of the same attribute that was in progress.  An
+ * attribute is cached if the descriptor of its getter has a
+ * currencyTimeLimit field that is not negative, for example through
+ * {@code @DescriptorFields("currencyTimeLimit=5")}, or a coalesceReads
+ * field that is true.  Reads of other attributes are not counted.
+ */
+public final class AttributeCacheStatistics {
+    private final long hits ;
+    private final long misses ;
+
+    public AttributeCacheStatistics( long hits, long misses ) {
+        this.hits = hits ;
+        this.misses = misses ;
+    }
+
+    /** The number of reads that used a cached value, or waited for a
+     * read that was already in progress.
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits ;
+    }
+
+    /** The number of reads that called the attribute's getter.
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses ;
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeCacheStatistics[hits=" + hits + ",misses="
+            + misses + "]" ;
+    }
+}
@@ -40,7 +40,10 @@
 
 package org.glassfish.gmbal ;
 
+import java.util.Collection ;
+import java.util.List ;
 import java.util.ResourceBundle ;
+import java.util.concurrent.Executor ;
 
 import java.io.Closeable ;
 
@@ -63,8 +66,8 @@ import org.glassfish.pfl.tf.timer.spi.ObjectRegistrationManager ;
  * <li> All calls to addAnnotation, stripPrefix, and
  * stripPackageName must occur before any call to a createRoot method.
  * <li>All of the register and registerAtRoot methods and unregister, getObject,
- * getObjectName, and dumpSkeleton may only be called after
- * a createRoot method is called.
+ * getObjectName, dumpSkeleton, getAttributeCacheStatistics, prepare, and
+ * prepareIndexed may only be called after a createRoot method is called.
  * <li>Only one call to a createRoot method is permitted on any 
  * ManagedObjectManager.
  * <li>A call to close returns the MOM to the pre-createRoot state.
@@ -206,6 +209,26 @@ public interface ManagedObjectManager extends Closeable {
      * called successfully.
      */
     GmbalMBean registerAtRoot( Object obj ) ;
+
+    /** Register every object in objs under parent, in iteration order.
+     * Each object is named as in register( parent, obj ).  This is
+     * equivalent to calling register( parent, obj ) on each element,
+     * but the MBean skeleton is resolved only once per class, the
+     * MBeanTree is updated under a single lock on the parent, and the JMX
+     * registrations are handed to the MBeanServer as a single batch.
+     * <p>
+     * A failure to register one object does not prevent the registration
+     * of the others.  An object that fails is not left in the MBean tree.
+     * <p>
+     * Must be called after a successful createRoot call.
+     * @param parent The parent object that contains all of the objs.
+     * @param objs The managed objects to register.
+     * @return One RegistrationResult for each element of objs, in the same
+     * order.
+     * @exception IllegalStateException if called before a createRoot method is
+     * called successfully.
+     */
+    List<RegistrationResult> registerAll( Object parent, Collection<?> objs ) ;
     
 
     /** Unregister the Open MBean corresponding to obj from the
@@ -374,6 +397,20 @@ public interface ManagedObjectManager extends Closeable {
      */
     void setJMXRegistrationDebug( boolean flag ) ;
 
+    /** Set an executor used to register MBeans with the MBeanServer in
+     * parallel.  It is used when resumeJMXRegistration releases the MBeans
+     * that were created while registration was suspended, and when the
+     * root parent becomes available and the whole tree is registered.
+     * Independent subtrees are registered concurrently, but a parent is
+     * always registered before its children.
+     * <p>
+     * May be called at any time.
+     *
+     * @param executor The executor to use (for example a ForkJoinPool), or
+     * null to register serially on the calling thread, which is the default.
+     */
+    void setJMXRegistrationExecutor( Executor executor ) ;
+
     /** Dump the skeleton used in the implementation of the MBean for obj.
      * Obj must be currently registered.
      * <p>
@@ -384,6 +421,54 @@ public interface ManagedObjectManager extends Closeable {
      */
     String dumpSkeleton( Object obj ) ;
 
+    /** Return the hit and miss counts of the attribute value cache of the
+     * MBean for obj.  An attribute is read through the cache if its getter
+     * has a currencyTimeLimit descriptor field with a value that is not
+     * negative.  As in a ModelMBean, this is the number of seconds for
+     * which a value may be reused, or 0 for a value that is only replaced
+     * when the attribute is set.  Concurrent reads of such an
+     * attribute share a single call to its getter.  An attribute that is
+     * expensive to read, but whose value must not be reused, can share
+     * concurrent reads without caching through the gmbal descriptor field
+     * coalesceReads, for example with
+     * {@code @DescriptorFields("coalesceReads=true")}.  A mutable value,
+     * such as an array or a TabularData, is copied for each reader.
+     * <p>
+     * Must be called after a successful call to a createRoot method.
+     *
+     * @param obj The registered object.
+     * @return The statistics, or null if obj is not registered or has no
+     * cached attributes.
+     */
+    AttributeCacheStatistics getAttributeCacheStatistics( Object obj ) ;
+
+    /** Build the MBean skeletons and TypeConverters for the given
+     * ManagedObject classes ahead of their first registration, so that
+     * registering an instance later finds everything already built.
+     * Several classes are analyzed in parallel, using up to one thread per
+     * available processor.  Intended for application startup.
+     * <p>
+     * Must be called after a successful call to a createRoot method.
+     *
+     * @param classes The classes to prepare.  Each must be annotated with
+     * ManagedObject (directly or through a superclass or interface).
+     * @throws IllegalArgumentException if a class is not a ManagedObject.
+     */
+    void prepare( Class<?>... classes ) ;
+
+    /** Prepare all ManagedObject classes listed in the index files
+     * (META-INF/gmbal/managed-objects) visible from loader, as in prepare.
+     * The index files are written at compile time by the gmbal-processor
+     * annotation processor.  Listed classes that cannot be loaded are
+     * logged and skipped.
+     * <p>
+     * Must be called after a successful call to a createRoot method.
+     *
+     * @param loader The ClassLoader used to find the index files and to load
+     * the classes they list.
+     */
+    void prepareIndexed( ClassLoader loader ) ;
+
     /** Suppress reporting of a duplicate root name.  If this option is enabled,
      * createRoot( Object ) and createRoot( Object, String ) will return null
      * for a duplicate root name, otherwise a Gmbal error will be reported.
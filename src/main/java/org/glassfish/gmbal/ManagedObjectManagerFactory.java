@@ -45,6 +45,7 @@ import java.lang.reflect.Method ;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.gmbal.util.GenericConstructor ;
@@ -134,6 +135,59 @@ public final class ManagedObjectManagerFactory {
 	}
     }
 
+    private static GenericConstructor<AsyncManagedObjectManager>
+        asyncObjectNameCons =
+        new GenericConstructor<AsyncManagedObjectManager>( 
+            AsyncManagedObjectManager.class, 
+            "org.glassfish.gmbal.impl.ManagedObjectManagerImpl",
+                ObjectName.class, Executor.class ) ;
+
+    private static GenericConstructor<AsyncManagedObjectManager>
+        asyncStringCons =
+        new GenericConstructor<AsyncManagedObjectManager>( 
+            AsyncManagedObjectManager.class, 
+            "org.glassfish.gmbal.impl.ManagedObjectManagerImpl",
+                String.class, Executor.class ) ;
+
+    /** Same as createStandalone( domain ), but the result registers MBeans
+     * with the MBeanServer in the background on executor.  See
+     * AsyncManagedObjectManager.
+     * @param domain The domain to use for all ObjectNames created when
+     * MBeans are registered.
+     * @param executor The executor on which JMX registrations are performed.
+     * @return A new AsyncManagedObjectManager.
+     */
+    public static AsyncManagedObjectManager createStandaloneAsync(
+        final String domain, final Executor executor ) {
+
+        AsyncManagedObjectManager result =
+            asyncStringCons.create( domain, executor ) ;
+	if (result == null) {
+	    return ManagedObjectManagerNOPImpl.self ;
+	} else {
+	    return result ;
+	}
+    }
+
+    /** Same as createFederated( rootParentName ), but the result registers
+     * MBeans with the MBeanServer in the background on executor.  See
+     * AsyncManagedObjectManager.
+     * @param rootParentName The JMX ObjectName of the parent of the root.
+     * @param executor The executor on which JMX registrations are performed.
+     * @return A new AsyncManagedObjectManager.
+     */
+    public static AsyncManagedObjectManager createFederatedAsync(
+        final ObjectName rootParentName, final Executor executor ) {
+
+        AsyncManagedObjectManager result =
+            asyncObjectNameCons.create( rootParentName, executor ) ;
+	if (result == null) {
+	    return ManagedObjectManagerNOPImpl.self ;
+	} else {
+	    return result ;
+	}
+    }
+
     /** Return a ManagedObjectManager that performs no operations.  Useful to
      * allow the same code to run with or without creating MBeans through 
      * gmbal.
@@ -47,7 +47,13 @@ package org.glassfish.gmbal;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 import org.glassfish.pfl.tf.timer.spi.ObjectRegistrationManager;
@@ -59,8 +65,8 @@ import org.glassfish.pfl.tf.timer.spi.ObjectRegistrationManager;
  *
  * @author ken_admin
  */
-class ManagedObjectManagerNOPImpl implements ManagedObjectManager {
-    static final ManagedObjectManager self =
+class ManagedObjectManagerNOPImpl implements AsyncManagedObjectManager {
+    static final AsyncManagedObjectManager self =
         new ManagedObjectManagerNOPImpl() ;
     private static final GmbalMBean gmb = 
         new GmbalMBeanNOPImpl() ;
@@ -111,10 +117,51 @@ class ManagedObjectManagerNOPImpl implements ManagedObjectManager {
         return gmb ;
     }
 
+    public List<RegistrationResult> registerAll(Object parent,
+        Collection<?> objs) {
+        List<RegistrationResult> result =
+            new ArrayList<RegistrationResult>( objs.size() ) ;
+        for (Object obj : objs) {
+            result.add( RegistrationResult.success( obj, gmb ) ) ;
+        }
+        return result ;
+    }
+
     public void unregister(Object obj) {
         // NOP
     }
 
+    private static <T> Future<T> completed( T value ) {
+        FutureTask<T> result = new FutureTask<T>( new Runnable() {
+            public void run() {
+                // NOP
+            }
+        }, value ) ;
+        result.run() ;
+        return result ;
+    }
+
+    public Future<GmbalMBean> registerAsync(Object parent, Object obj,
+        String name) {
+        return completed( gmb ) ;
+    }
+
+    public Future<GmbalMBean> registerAsync(Object parent, Object obj) {
+        return completed( gmb ) ;
+    }
+
+    public Future<GmbalMBean> registerAtRootAsync(Object obj, String name) {
+        return completed( gmb ) ;
+    }
+
+    public Future<GmbalMBean> registerAtRootAsync(Object obj) {
+        return completed( gmb ) ;
+    }
+
+    public Future<Void> unregisterAsync(Object obj) {
+        return completed( null ) ;
+    }
+
     public ObjectName getObjectName(Object obj) {
         return null ;
     }
@@ -163,6 +210,18 @@ class ManagedObjectManagerNOPImpl implements ManagedObjectManager {
         return "" ;
     }
 
+    public AttributeCacheStatistics getAttributeCacheStatistics(Object obj) {
+        return null ;
+    }
+
+    public void prepare(Class<?>... classes) {
+        // NOP
+    }
+
+    public void prepareIndexed(ClassLoader loader) {
+        // NOP
+    }
+
     public void close() throws IOException {
         // NOP
     }
@@ -187,6 +246,10 @@ class ManagedObjectManagerNOPImpl implements ManagedObjectManager {
         // NOP
     }
 
+    public void setJMXRegistrationExecutor(Executor executor) {
+        // NOP
+    }
+
     public void addInheritedAnnotations(Class<?> cls) {
         // NOP
     }
@@ -0,0 +1,79 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal ;
+
+import java.lang.annotation.Documented ;
+import java.lang.annotation.Target ;
+import java.lang.annotation.ElementType ;
+import java.lang.annotation.Retention ;
+import java.lang.annotation.RetentionPolicy ;
+
+/** This annotation is applied to the getter (or field) of a @ManagedAttribute
+ * in a ManagedObject whose type is a Map, Dictionary, Iterable, Iterator,
+ * or Enumeration, and which may be too large to fetch as a whole.
+ * For such an attribute with id X, the open MBean has two extra
+ * operations:
+ * <ul>
+ * <li>XPage(int offset, int limit), which returns the elements (or map
+ * entries) from offset up to offset+limit in iteration order, as a
+ * value of the same open type as the attribute.  At most maxPageSize()
+ * elements are returned, whatever the limit.
+ * <li>XSize(), which returns the number of elements in the attribute.
+ * </ul>
+ * Only the elements of the requested page are converted to open data.
+ * Unless attribute() is true, X is not itself an attribute of the MBean,
+ * so that a client that polls all attributes does not fetch the whole
+ * collection.  This annotation is ignored in a ManagedData class.
+ */
+@Documented 
+@Target({ElementType.METHOD,ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Paged {
+    /** The largest number of elements returned by a single page.
+     * @return The maximum page size (default 1000).
+     */
+    int maxPageSize() default 1000 ;
+
+    /** Whether the whole collection is also available as an attribute.
+     * @return true if the attribute is kept (default false).
+     */
+    boolean attribute() default false ;
+}
@@ -0,0 +1,120 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal;
+
+/** The outcome of registering a single object in a
+ * ManagedObjectManager.registerAll call.  Exactly one of getMBean and
+ * getException is non-null.
+ */
+public final class RegistrationResult {
+    private final Object object ;
+    private final GmbalMBean mbean ;
+    private final RuntimeException exception ;
+
+    private RegistrationResult( Object object, GmbalMBean mbean,
+        RuntimeException exception ) {
+
+        this.object = object ;
+        this.mbean = mbean ;
+        this.exception = exception ;
+    }
+
+    /** Create the result for an object that was registered.
+     * @param object The object passed to registerAll.
+     * @param mbean The MBean constructed from object.
+     * @return The result.
+     */
+    public static RegistrationResult success( Object object,
+        GmbalMBean mbean ) {
+
+        return new RegistrationResult( object, mbean, null ) ;
+    }
+
+    /** Create the result for an object that could not be registered.
+     * @param object The object passed to registerAll.
+     * @param exception The exception that register would have thrown.
+     * @return The result.
+     */
+    public static RegistrationResult failure( Object object,
+        RuntimeException exception ) {
+
+        return new RegistrationResult( object, null, exception ) ;
+    }
+
+    /** The object that was passed to registerAll.
+     * @return The object.
+     */
+    public Object getObject() {
+        return object ;
+    }
+
+    /** The MBean constructed for the object.
+     * @return The MBean, or null if registration failed.
+     */
+    public GmbalMBean getMBean() {
+        return mbean ;
+    }
+
+    /** The reason the object could not be registered.
+     * @return The exception, or null if registration succeeded.
+     */
+    public RuntimeException getException() {
+        return exception ;
+    }
+
+    /** Return true if the object was registered.
+     * @return true iff getException() is null.
+     */
+    public boolean isSuccess() {
+        return exception == null ;
+    }
+
+    @Override
+    public String toString() {
+        if (isSuccess()) {
+            return "RegistrationResult[" + object + " registered as "
+                + mbean + "]" ;
+        } else {
+            return "RegistrationResult[" + object + " failed: "
+                + exception + "]" ;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.DescriptorFields;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedOperation;
+import org.glassfish.gmbal.NameValue;
+import org.glassfish.gmbal.Paged;
+import org.glassfish.gmbal.ParameterNames;
+
+/** The gmbal annotations present on the declared methods and fields of
+ * one class, computed in a single pass.  Each member that carries any of
+ * the INDEXED annotations, either directly or through
+ * ManagedObjectManager.addAnnotation, gets a bitset of the annotation
+ * types present and the annotations themselves.  Members without any
+ * indexed annotation are not stored, so the common negative lookup during
+ * skeleton analysis is a single map miss.
+ * <p>
+ * Declared annotations never change, so the index of a class without added
+ * annotations is shared by all ManagedObjectManagers through declared().
+ */
+class AnnotationIndex {
+    /** The annotation types that gmbal looks up on methods and fields.
+     * The position in this array is the bit used in the bitset.
+     */
+    private static final Class<?>[] INDEXED = {
+        ManagedAttribute.class, ManagedOperation.class, NameValue.class,
+        Description.class, ParameterNames.class, DescriptorFields.class,
+        Paged.class } ;
+
+    private static final Map<Class<?>,Integer> BITS =
+        new HashMap<Class<?>,Integer>() ;
+
+    static {
+        for (int ctr=0; ctr<INDEXED.length; ctr++) {
+            BITS.put( INDEXED[ctr], ctr ) ;
+        }
+    }
+
+    private static final class Entry {
+        private int bits ;
+        private final Annotation[] annotations =
+            new Annotation[INDEXED.length] ;
+
+        // Declared annotations are added first, so that they take
+        // precedence over added annotations, just as in getAnnotation.
+        private void add( final Annotation ann ) {
+            final Integer bit = BITS.get( ann.annotationType() ) ;
+            if (bit != null && annotations[bit] == null) {
+                annotations[bit] = ann ;
+                bits |= 1 << bit ;
+            }
+        }
+    }
+
+    private static final ClassValue<AnnotationIndex> DECLARED =
+        new ClassValue<AnnotationIndex>() {
+            @Override
+            protected AnnotationIndex computeValue( Class<?> cls ) {
+                return new AnnotationIndex( cls,
+                    Collections.<AnnotatedElement,Map<Class,Annotation>>emptyMap() ) ;
+            }
+        } ;
+
+    /** Return the index of the declared annotations only of cls.
+     */
+    static AnnotationIndex declared( final Class<?> cls ) {
+        return DECLARED.get( cls ) ;
+    }
+
+    private final Map<AnnotatedElement,Entry> entries =
+        new HashMap<AnnotatedElement,Entry>() ;
+
+    /** Return the bit for type, or -1 if type is not indexed.
+     */
+    static int bit( final Class<? extends Annotation> type ) {
+        final Integer result = BITS.get( type ) ;
+        return result == null ? -1 : result ;
+    }
+
+    AnnotationIndex( final Class<?> cls,
+        final Map<AnnotatedElement,Map<Class,Annotation>> added ) {
+
+        final Method[] methods = AccessController.doPrivileged(
+            new PrivilegedAction<Method[]>() {
+                public Method[] run() {
+                    return cls.getDeclaredMethods() ;
+                }
+            } ) ;
+        for (Method m : methods) {
+            index( m, added ) ;
+        }
+
+        final Field[] fields = AccessController.doPrivileged(
+            new PrivilegedAction<Field[]>() {
+                public Field[] run() {
+                    return cls.getDeclaredFields() ;
+                }
+            } ) ;
+        for (Field f : fields) {
+            index( f, added ) ;
+        }
+    }
+
+    private void index( final AnnotatedElement elem,
+        final Map<AnnotatedElement,Map<Class,Annotation>> added ) {
+
+        final Entry entry = new Entry() ;
+        for (Annotation ann : elem.getDeclaredAnnotations()) {
+            entry.add( ann ) ;
+        }
+
+        final Map<Class,Annotation> emap = added.get( elem ) ;
+        if (emap != null) {
+            for (Annotation ann : emap.values()) {
+                entry.add( ann ) ;
+            }
+        }
+
+        if (entry.bits != 0) {
+            entries.put( elem, entry ) ;
+        }
+    }
+
+    /** Return true if elem, which must be declared by the indexed class,
+     * has the annotation with the given bit.
+     */
+    boolean has( final AnnotatedElement elem, final int bit ) {
+        final Entry entry = entries.get( elem ) ;
+        return entry != null && (entry.bits & (1 << bit)) != 0 ;
+    }
+
+    /** Return the annotation with the given bit on elem, or null if none.
+     */
+    Annotation get( final AnnotatedElement elem, final int bit ) {
+        final Entry entry = entries.get( elem ) ;
+        return entry == null ? null : entry.annotations[bit] ;
+    }
+}
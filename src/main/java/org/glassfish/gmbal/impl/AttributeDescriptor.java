@@ -41,7 +41,9 @@
 package org.glassfish.gmbal.impl ;
 
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
 import java.lang.reflect.ReflectPermission;
 
 import java.security.AccessController;
@@ -57,9 +59,11 @@ import org.glassfish.gmbal.typelib.EvaluatedFieldDeclaration;
 import org.glassfish.gmbal.typelib.EvaluatedMethodDeclaration;
 import org.glassfish.gmbal.typelib.EvaluatedType;
 import org.glassfish.gmbal.impl.trace.TraceRuntime;
+import org.glassfish.pfl.basic.algorithm.DumpIgnore;
 import org.glassfish.pfl.basic.algorithm.DumpToString;
 import org.glassfish.pfl.basic.contain.Pair;
 import org.glassfish.pfl.basic.facet.FacetAccessor;
+import org.glassfish.pfl.basic.facet.FacetAccessorImpl;
     
 public class AttributeDescriptor {
     public enum AttributeType { SETTER, GETTER } ;
@@ -72,6 +76,13 @@ public class AttributeDescriptor {
     @DumpToString
     private EvaluatedType _type ;
     private TypeConverter _tc ;
+    @DumpIgnore
+    private Class<?> _declaringClass ;
+    // Compiled form of the getter or setter: (Object)Object for a getter,
+    // (Object,Object)void for a setter.  Null if the accessor could not be
+    // compiled, in which case we fall back to the FacetAccessor.
+    @DumpIgnore
+    private MethodHandle _handle ;
 
     private static final Permission accessControlPermission =
         new ReflectPermission( "suppressAccessChecks" ) ;
@@ -95,6 +106,36 @@ public class AttributeDescriptor {
         this._atype = atype ;
         this._type = type ;
         this._tc = mom.getTypeConverter( type ) ;
+        this._declaringClass = declaringClass( decl ) ;
+        this._handle = compileAccessor( decl, atype ) ;
+    }
+
+    private static Class<?> declaringClass( EvaluatedAccessibleDeclaration decl ) {
+        if (decl instanceof EvaluatedMethodDeclaration) {
+            return ((EvaluatedMethodDeclaration)decl).method().getDeclaringClass() ;
+        } else if (decl instanceof EvaluatedFieldDeclaration) {
+            return ((EvaluatedFieldDeclaration)decl).field().getDeclaringClass() ;
+        } else {
+            throw Exceptions.self.unknownDeclarationType( decl ) ;
+        }
+    }
+
+    // Turn the accessor into a MethodHandle once, when the skeleton is
+    // built, so that get and set do not need to use reflection on each call.
+    private static MethodHandle compileAccessor(
+        final EvaluatedAccessibleDeclaration decl, final AttributeType atype ) {
+
+        if (decl instanceof EvaluatedMethodDeclaration) {
+            final Method method = ((EvaluatedMethodDeclaration)decl).method() ;
+            return atype == AttributeType.GETTER
+                ? MethodHandleUtility.getter( method )
+                : MethodHandleUtility.setter( method ) ;
+        } else if (atype == AttributeType.GETTER) {
+            return MethodHandleUtility.getter(
+                ((EvaluatedFieldDeclaration)decl).field() ) ;
+        } else {
+            return null ;
+        }
     }
 
     public final AccessibleObject accessible() { return _decl.accessible() ; }
@@ -110,15 +151,11 @@ public class AttributeDescriptor {
     public final TypeConverter tc() { return _tc ; }
     
     public boolean isApplicable( Object obj ) {
-        if (_decl instanceof EvaluatedMethodDeclaration) {
-            EvaluatedMethodDeclaration em = (EvaluatedMethodDeclaration)_decl ;
-            return em.method().getDeclaringClass().isInstance( obj ) ;
-        } else if (_decl instanceof EvaluatedFieldDeclaration) {
-            EvaluatedFieldDeclaration ef = (EvaluatedFieldDeclaration)_decl ;
-            return ef.field().getDeclaringClass().isInstance( obj ) ;
-        }
+        return _declaringClass.isInstance( obj ) ;
+    }
 
-        return false ;
+    boolean isApplicableToClass( Class<?> cls ) {
+        return _declaringClass.isAssignableFrom( cls ) ;
     }
 
     private void checkType( AttributeType at ) {
@@ -132,15 +169,36 @@ public class AttributeDescriptor {
         throws MBeanException, ReflectionException {
         
         checkType( AttributeType.GETTER ) ;
-                
+
+        return _tc.toManagedEntity( getValue( fa ) ) ;
+    }
+
+    /** Read the attribute from fa without converting it to its managed
+     * type.
+     */
+    Object getValue( FacetAccessor fa )
+        throws MBeanException, ReflectionException {
+
+        checkType( AttributeType.GETTER ) ;
+
         Object result = null;
         
-        if (_decl instanceof EvaluatedMethodDeclaration) {
+        if (_handle != null) {
+            final Object facet = MethodHandleUtility.facet( fa,
+                _declaringClass, _decl ) ;
+            try {
+                result = (Object)_handle.invokeExact( facet ) ;
+            } catch (Error err) {
+                throw err ;
+            } catch (Throwable thr) {
+                throw MethodHandleUtility.wrap( thr ) ;
+            }
+        } else if (_decl instanceof EvaluatedMethodDeclaration) {
             EvaluatedMethodDeclaration em = (EvaluatedMethodDeclaration)_decl ;
-            result = _tc.toManagedEntity( fa.invoke( em.method()));
+            result = fa.invoke( em.method() ) ;
         } else if (_decl instanceof EvaluatedFieldDeclaration) {
             EvaluatedFieldDeclaration ef = (EvaluatedFieldDeclaration)_decl ;
-            result = _tc.toManagedEntity( fa.get( ef.field())) ;
+            result = fa.get( ef.field() ) ;
         } else {
             Exceptions.self.unknownDeclarationType(_decl) ;
         }
@@ -148,13 +206,50 @@ public class AttributeDescriptor {
         return result ;
     }
 
+    /** Read the attribute directly from target, which must be an instance
+     * of the declaring class.  This avoids looking up a FacetAccessor, and
+     * is used by the @ManagedData converters, whose attributes are always
+     * read from the data object itself.
+     */
+    Object getDirect( Object target )
+        throws MBeanException, ReflectionException {
+
+        checkType( AttributeType.GETTER ) ;
+
+        if (_handle == null) {
+            return get( new FacetAccessorImpl( target ) ) ;
+        }
+
+        Object value ;
+        try {
+            value = (Object)_handle.invokeExact( target ) ;
+        } catch (Error err) {
+            throw err ;
+        } catch (Throwable thr) {
+            throw MethodHandleUtility.wrap( thr ) ;
+        }
+
+        return _tc.toManagedEntity( value ) ;
+    }
+
     @TraceRuntime
     public void set( FacetAccessor target, Object value )
         throws MBeanException, ReflectionException {
         
         checkType( AttributeType.SETTER ) ;
         
-        if (_decl instanceof EvaluatedMethodDeclaration) {
+        if (_handle != null) {
+            final Object facet = MethodHandleUtility.facet( target,
+                _declaringClass, _decl ) ;
+            final Object arg = _tc.fromManagedEntity( value ) ;
+            try {
+                _handle.invokeExact( facet, arg ) ;
+            } catch (Error err) {
+                throw err ;
+            } catch (Throwable thr) {
+                throw MethodHandleUtility.wrap( thr ) ;
+            }
+        } else if (_decl instanceof EvaluatedMethodDeclaration) {
             EvaluatedMethodDeclaration em =
                 (EvaluatedMethodDeclaration)_decl ;
             target.invoke( em.method(), _tc.fromManagedEntity(value)) ;
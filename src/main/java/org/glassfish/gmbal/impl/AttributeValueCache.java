@@ -0,0 +1,283 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.lang.reflect.Array;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.management.MBeanException;
+import javax.management.ReflectionException;
+import javax.management.openmbean.TabularDataSupport;
+import org.glassfish.gmbal.AttributeCacheStatistics;
+import org.glassfish.pfl.basic.facet.FacetAccessor;
+
+/** The converted attribute values of one MBean, one slot per attribute
+ * that is cached by its currencyTimeLimit, or that has a coalesceReads
+ * descriptor field (the
+ * slots are assigned by the MBeanSkeleton, which reads other attributes
+ * without a cache).  Only one thread at a time reads a cached attribute:
+ * any other thread that needs the same attribute while the read is in
+ * progress waits for it and shares its result.  After the read completes,
+ * its value is kept for the time given by the currencyTimeLimit, or not
+ * at all (NOT_KEPT) for an attribute that only coalesces its reads, so
+ * that the next read calls the getter again.  A read that fails is not
+ * kept.
+ * <p>
+ * Every caller gets its own copy of a mutable value (an array, Date, or
+ * TabularData), so that a caller that changes its result cannot change
+ * the value seen by the others.
+ * <p>
+ * A read that nobody else waits for costs two CAS operations on its slot
+ * and one small allocation, which is why only the attributes that ask for
+ * it are read through the cache.
+ */
+class AttributeValueCache {
+    /** Time to live that keeps a value until it is invalidated.
+     */
+    static final long FOREVER = -1 ;
+
+    /** Time to live that only shares a value with the reads that waited
+     * for it.
+     */
+    static final long NOT_KEPT = 0 ;
+
+    private static final int LOADING = 0 ;
+    private static final int LOADED = 1 ;
+    private static final int FAILED = 2 ;
+
+    private static final class Entry {
+        private final long ttl ;
+        private final Thread loader ;
+        // value, failure, and loadedAt are written before state, and only
+        // read after state is seen to be other than LOADING.
+        private Object value ;
+        private Throwable failure ;
+        private long loadedAt ;
+        private volatile int state = LOADING ;
+        private volatile boolean waiting = false ;
+
+        Entry( final long ttl ) {
+            this.ttl = ttl ;
+            this.loader = Thread.currentThread() ;
+        }
+
+        boolean isCurrent() {
+            switch (state) {
+                case LOADING :
+                    return true ;
+                case LOADED :
+                    return ttl == FOREVER
+                        || (ttl != NOT_KEPT
+                            && System.nanoTime() - loadedAt < ttl) ;
+                default :
+                    return false ;
+            }
+        }
+
+        void loaded( final Object value ) {
+            this.value = value ;
+            if (ttl != FOREVER && ttl != NOT_KEPT) {
+                loadedAt = System.nanoTime() ;
+            }
+            complete( LOADED ) ;
+        }
+
+        void failed( final Throwable failure ) {
+            this.failure = failure ;
+            complete( FAILED ) ;
+        }
+
+        // state and waiting are both volatile, so either the waiter sees
+        // the new state, or we see that there is a waiter to notify.
+        private void complete( final int newState ) {
+            state = newState ;
+            if (waiting) {
+                synchronized (this) {
+                    notifyAll() ;
+                }
+            }
+        }
+
+        Object await() throws MBeanException, ReflectionException {
+            if (state == LOADING) {
+                boolean interrupted = false ;
+                synchronized (this) {
+                    waiting = true ;
+                    while (state == LOADING) {
+                        try {
+                            wait() ;
+                        } catch (InterruptedException exc) {
+                            interrupted = true ;
+                        }
+                    }
+                }
+
+                if (interrupted) {
+                    Thread.currentThread().interrupt() ;
+                }
+            }
+
+            if (state == LOADED) {
+                return copy( value ) ;
+            } else if (failure instanceof MBeanException) {
+                throw (MBeanException)failure ;
+            } else if (failure instanceof ReflectionException) {
+                throw (ReflectionException)failure ;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException)failure ;
+            } else {
+                throw (Error)failure ;
+            }
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> entries ;
+    private final AtomicLong hits = new AtomicLong() ;
+    private final AtomicLong misses = new AtomicLong() ;
+
+    AttributeValueCache( final int size ) {
+        entries = new AtomicReferenceArray<Entry>( size ) ;
+    }
+
+    /** Return the value of the attribute in slot read by getter from fa,
+     * reading it only if there is no value younger than ttl nanoseconds
+     * (or FOREVER, or NOT_KEPT), and no read of it in progress.
+     */
+    Object get( final int slot, final long ttl,
+        final AttributeDescriptor getter, final FacetAccessor fa )
+        throws MBeanException, ReflectionException {
+
+        for (;;) {
+            final Entry entry = entries.get( slot ) ;
+            if (entry != null && entry.isCurrent()) {
+                if (entry.loader == Thread.currentThread()
+                    && entry.state == LOADING) {
+                    // The getter reads its own attribute: waiting would
+                    // deadlock.
+                    return getter.get( fa ) ;
+                }
+
+                hits.incrementAndGet() ;
+                return entry.await() ;
+            }
+
+            final Entry next = new Entry( ttl ) ;
+            if (entries.compareAndSet( slot, entry, next )) {
+                misses.incrementAndGet() ;
+                return load( slot, next, getter, fa ) ;
+            }
+        }
+    }
+
+    private Object load( final int slot, final Entry entry,
+        final AttributeDescriptor getter, final FacetAccessor fa )
+        throws MBeanException, ReflectionException {
+
+        try {
+            final Object result = getter.get( fa ) ;
+            entry.loaded( result ) ;
+            if (entry.ttl == NOT_KEPT) {
+                entries.compareAndSet( slot, entry, null ) ;
+            }
+            return copy( result ) ;
+        } catch (MBeanException exc) {
+            fail( slot, entry, exc ) ;
+            throw exc ;
+        } catch (ReflectionException exc) {
+            fail( slot, entry, exc ) ;
+            throw exc ;
+        } catch (RuntimeException exc) {
+            fail( slot, entry, exc ) ;
+            throw exc ;
+        } catch (Error err) {
+            fail( slot, entry, err ) ;
+            throw err ;
+        }
+    }
+
+    private void fail( final int slot, final Entry entry,
+        final Throwable thr ) {
+
+        entry.failed( thr ) ;
+        entries.compareAndSet( slot, entry, null ) ;
+    }
+
+    /** Return a copy of value if it is mutable, otherwise value.  The open
+     * types are immutable except for arrays, Date, and TabularData (the
+     * CompositeData made by the TypeConverters are immutable).
+     */
+    static Object copy( final Object value ) {
+        if (value == null) {
+            return null ;
+        } else if (value.getClass().isArray()) {
+            final int length = Array.getLength( value ) ;
+            final Object result = Array.newInstance(
+                value.getClass().getComponentType(), length ) ;
+            System.arraycopy( value, 0, result, 0, length ) ;
+            if (result instanceof Object[]) {
+                final Object[] elements = (Object[])result ;
+                for (int ctr=0; ctr<length; ctr++) {
+                    elements[ctr] = copy( elements[ctr] ) ;
+                }
+            }
+            return result ;
+        } else if (value instanceof Date) {
+            return ((Date)value).clone() ;
+        } else if (value instanceof TabularDataImpl) {
+            return ((TabularDataImpl)value).copy() ;
+        } else if (value instanceof TabularDataSupport) {
+            return ((TabularDataSupport)value).clone() ;
+        }
+
+        return value ;
+    }
+
+    /** Discard the cached value in slot, if any.
+     */
+    void invalidate( final int slot ) {
+        entries.set( slot, null ) ;
+    }
+
+    AttributeCacheStatistics statistics() {
+        return new AttributeCacheStatistics( hits.get(), misses.get() ) ;
+    }
+}
@@ -0,0 +1,253 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.InvalidKeyException;
+import javax.management.openmbean.OpenDataException;
+
+/** An immutable CompositeData whose values are held in an array in the
+ * (sorted) key order of its CompositeType.  Unlike CompositeDataSupport,
+ * the values are not checked against the CompositeType on construction:
+ * this is only used for values produced by our own TypeConverters, whose
+ * managed types were checked when the converter was built.
+ * <p>
+ * equals, hashCode, and toString follow CompositeDataSupport, so instances
+ * compare equal to a CompositeDataSupport with the same contents.  An
+ * instance is serialized as a CompositeDataSupport, so that a remote
+ * client never needs this class.
+ */
+final class CompositeDataImpl implements CompositeData, Serializable {
+    private static final long serialVersionUID = -6429407263924307312L;
+
+    private final CompositeType type ;
+    // Shared between all instances of the same type; never modified.
+    private final String[] keys ;
+    private final Object[] values ;
+
+    /** Return the keys of type in the order expected by the constructor.
+     */
+    static String[] keys( CompositeType type ) {
+        final Set<String> keySet = type.keySet() ;
+        return keySet.toArray( new String[keySet.size()] ) ;
+    }
+
+    /** Create a CompositeData of the given type.  keys must be the result
+     * of keys(type), and values[i] is the value of keys[i].  Neither array
+     * may be modified afterwards.
+     */
+    CompositeDataImpl( final CompositeType type, final String[] keys,
+        final Object[] values ) {
+
+        this.type = type ;
+        this.keys = keys ;
+        this.values = values ;
+    }
+
+    private int index( final String key ) {
+        if (key == null || key.length() == 0) {
+            throw new IllegalArgumentException(
+                "Argument key cannot be a null or empty String." ) ;
+        }
+
+        final int result = Arrays.binarySearch( keys, key ) ;
+        if (result < 0) {
+            throw new InvalidKeyException( "Argument key=\"" + key
+                + "\" is not an existing item name for this CompositeData"
+                + " instance." ) ;
+        }
+
+        return result ;
+    }
+
+    public CompositeType getCompositeType() {
+        return type ;
+    }
+
+    public Object get( final String key ) {
+        return values[index( key )] ;
+    }
+
+    public Object[] getAll( final String[] keys ) {
+        if (keys == null || keys.length == 0) {
+            return new Object[0] ;
+        }
+
+        final Object[] result = new Object[keys.length] ;
+        for (int ctr=0; ctr<keys.length; ctr++) {
+            result[ctr] = get( keys[ctr] ) ;
+        }
+
+        return result ;
+    }
+
+    public boolean containsKey( final String key ) {
+        if (key == null || key.length() == 0) {
+            return false ;
+        }
+
+        return Arrays.binarySearch( keys, key ) >= 0 ;
+    }
+
+    public boolean containsValue( final Object value ) {
+        for (Object obj : values) {
+            if (value == null ? obj == null : value.equals( obj )) {
+                return true ;
+            }
+        }
+
+        return false ;
+    }
+
+    public Collection<?> values() {
+        return Collections.unmodifiableList( Arrays.asList( values ) ) ;
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        if (this == obj) {
+            return true ;
+        }
+
+        if (!(obj instanceof CompositeData)) {
+            return false ;
+        }
+
+        final CompositeData other = (CompositeData)obj ;
+        if (!type.equals( other.getCompositeType() )) {
+            return false ;
+        }
+
+        if (values.length != other.values().size()) {
+            return false ;
+        }
+
+        for (int ctr=0; ctr<keys.length; ctr++) {
+            final Object e1 = values[ctr] ;
+            final Object e2 = other.get( keys[ctr] ) ;
+            if (e1 == e2) {
+                continue ;
+            }
+
+            if (e1 == null) {
+                return false ;
+            }
+
+            final boolean eq = e1.getClass().isArray()
+                ? Arrays.deepEquals( new Object[] { e1 }, new Object[] { e2 } )
+                : e1.equals( e2 ) ;
+            if (!eq) {
+                return false ;
+            }
+        }
+
+        return true ;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type.hashCode() ;
+        for (Object obj : values) {
+            if (obj == null) {
+                continue ;
+            }
+
+            if (obj.getClass().isArray()) {
+                // deepHashCode of a one element array is 31 plus the hash
+                // of the element, computed the way CompositeDataSupport does.
+                result += Arrays.deepHashCode( new Object[] { obj } ) - 31 ;
+            } else {
+                result += obj.hashCode() ;
+            }
+        }
+
+        return result ;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder() ;
+        sb.append( getClass().getName() ) ;
+        sb.append( "(compositeType=" ) ;
+        sb.append( type ) ;
+        sb.append( ",contents={" ) ;
+        for (int ctr=0; ctr<keys.length; ctr++) {
+            if (ctr > 0) {
+                sb.append( ", " ) ;
+            }
+
+            sb.append( keys[ctr] ) ;
+            sb.append( '=' ) ;
+            final Object value = values[ctr] ;
+            if (value != null && value.getClass().isArray()) {
+                final String str = Arrays.deepToString( new Object[] { value } ) ;
+                sb.append( str, 1, str.length() - 1 ) ;
+            } else {
+                sb.append( value ) ;
+            }
+        }
+        sb.append( "})" ) ;
+        return sb.toString() ;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        final Map<String,Object> items = new HashMap<String,Object>() ;
+        for (int ctr=0; ctr<keys.length; ctr++) {
+            items.put( keys[ctr], values[ctr] ) ;
+        }
+
+        try {
+            return new CompositeDataSupport( type, items ) ;
+        } catch (OpenDataException exc) {
+            throw Exceptions.self.exceptionInHandleManagedData( exc ) ;
+        }
+    }
+}
@@ -40,6 +40,7 @@
 
 package org.glassfish.gmbal.impl;
 
+import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
@@ -297,6 +298,38 @@ public interface Exceptions {
     public RuntimeException annotationMethodException(Method m,
         @Chain Exception exc);
 
+    @Message( "Attribute {0} is annotated @Paged, but its type {1} is not "
+        + "a Map, Dictionary, Iterable, Iterator, or Enumeration" )
+    @Log( id = MBEAN_SKELETON_START + 12 )
+    IllegalArgumentException pagedAttributeNotCollection( String name,
+        EvaluatedType type ) ;
+
+    @Message( "Page offset {0} and limit {1} must be non-negative Integers" )
+    @Log( id = MBEAN_SKELETON_START + 13 )
+    IllegalArgumentException badPageArguments( Object offset, Object limit ) ;
+
+    @Message( "Could not get the value of attribute {0}" )
+    @Log( id = MBEAN_SKELETON_START + 14 )
+    IllegalArgumentException pagedAttributeGetError( @Chain Exception ex,
+        String name ) ;
+
+    @Message( "Attribute {0} has currencyTimeLimit {1}, which is not a "
+        + "number of seconds, so its value is not cached" )
+    @Log( id = MBEAN_SKELETON_START + 15, level=LogLevel.WARNING )
+    void badCurrencyTimeLimit( String name, Object value ) ;
+
+    @Message( "Returns at most limit elements of {0}, starting at offset" )
+    String pageOperationDescription( String name ) ;
+
+    @Message( "Returns the number of elements in {0}" )
+    String sizeOperationDescription( String name ) ;
+
+    @Message( "Index of the first element to return" )
+    String pageOffsetDescription() ;
+
+    @Message( "Maximum number of elements to return" )
+    String pageLimitDescription() ;
+
 // MBeanTree
     static final int MBEAN_TREE_START =
         MBEAN_SKELETON_START + EXCEPTIONS_PER_CLASS ;
@@ -438,6 +471,15 @@ public interface Exceptions {
     @Log( id=MANAGED_OBJECT_MANAGER_IMPL_START + 14 )
     public IllegalArgumentException annotationsNotSupported(AnnotatedElement elem);
 
+    @Message( "Could not read the ManagedObject index {0}")
+    @Log( id=MANAGED_OBJECT_MANAGER_IMPL_START + 15 )
+    public GmbalException managedObjectIndexError( @Chain IOException exc,
+        String resource ) ;
+
+    @Message( "Could not load class {0} listed in the ManagedObject index")
+    @Log( id=MANAGED_OBJECT_MANAGER_IMPL_START + 16, level=LogLevel.WARNING )
+    public void indexedClassNotFound( @Chain Throwable thr, String cname ) ;
+
 // TypeConverterImpl
     static final int TYPE_CONVERTER_IMPL_START =
         MANAGED_OBJECT_MANAGER_IMPL_START + EXCEPTIONS_PER_CLASS ;
@@ -44,8 +44,20 @@
 
 package org.glassfish.gmbal.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.JMException;
@@ -54,12 +66,25 @@ import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 import org.glassfish.external.amx.MBeanListener;
 import org.glassfish.gmbal.GmbalException;
+import org.glassfish.gmbal.GmbalMBean;
+import org.glassfish.pfl.basic.func.UnaryFunction;
 import org.glassfish.pfl.basic.func.UnaryVoidFunction;
 
 /** A simple class that implements deferred registration.
  * When registration is suspended, mbean registrations are
  * queued until registration is resumed, at which time the
  * registration are processed in order.
+ * <p>
+ * If a registration executor is set, deferred registrations (and the
+ * registration of the whole tree once the root parent appears) are instead
+ * processed in parallel on the executor.  Independent subtrees proceed
+ * concurrently, but an MBean is always registered before its children.
+ * <p>
+ * If an asynchronous executor is passed to the constructor, every
+ * registration and unregistration is instead queued to a
+ * RegistrationPipeline, which performs them one at a time in request order.
+ * The registerAsync and unregisterAsync methods return as soon as the work
+ * is queued, while the other methods wait for it.
  *
  * @author ken
  */
@@ -82,9 +107,33 @@ public class JMXRegistrationManager {
     private RootParentListener callback ;
     private MBeanListener rpListener ;
 
+    // If not null, used to register deferred MBeans in parallel.
+    private volatile Executor executor ;
+
+    // If not null, all JMX registrations and unregistrations are done in
+    // order by this pipeline, instead of on the calling thread.
+    private final RegistrationPipeline pipeline ;
+
     public JMXRegistrationManager(ManagedObjectManagerInternal mom,
         ObjectName rootParentName) {
 
+        this( mom, rootParentName, null ) ;
+    }
+
+    /** Create a JMXRegistrationManager that performs all JMX registrations
+     * and unregistrations in the background on asyncExecutor, in the order
+     * in which they were requested.
+     *
+     * @param mom The ManagedObjectManager that owns the MBeans.
+     * @param rootParentName The ObjectName of the root's parent, or null.
+     * @param asyncExecutor The executor on which to register MBeans, or null
+     * to register them on the calling thread.
+     */
+    public JMXRegistrationManager(ManagedObjectManagerInternal mom,
+        ObjectName rootParentName, Executor asyncExecutor ) {
+
+        this.pipeline = asyncExecutor == null
+            ? null : new RegistrationPipeline( asyncExecutor ) ;
         this.suspendCount = 0 ;
         this.mom = mom ;
         this.rootParentName = rootParentName ;
@@ -93,6 +142,17 @@ public class JMXRegistrationManager {
         this.isJMXRegistrationEnabled = false ;
         this.callback = null ;
         this.rpListener = null ;
+        this.executor = null ;
+    }
+
+    /** Set the executor used to register MBeans in parallel when
+     * registration is resumed, or when the root parent is registered.
+     *
+     * @param executor The executor to use, or null to register serially
+     * on the calling thread (the default).
+     */
+    public void setRegistrationExecutor( Executor executor ) {
+        this.executor = executor ;
     }
 
     /** Set the MBeanImpl that is the root of this MBean tree.
@@ -109,7 +169,7 @@ public class JMXRegistrationManager {
             this.root = root ;
             if (rootParentName == null) {
                 isJMXRegistrationEnabled = true ;
-                register( root ) ;
+                registerNow( root ) ;
             } else {
                 // Need to handle the suspended case here.  The non-suspended
                 // case is handled in the Listener below.
@@ -161,29 +221,200 @@ public class JMXRegistrationManager {
      * root is available.
      */
     public void resumeRegistration() {
+        final Executor exec = executor ;
+        List<MBeanImpl> parallel = null ;
+
         synchronized (lock) {
             suspendCount-- ;
             if (suspendCount == 0) {
-                for (MBeanImpl mb : deferredRegistrations) {
-                    try {
-                        if (isJMXRegistrationEnabled) {
-                            mb.register();
+                if (exec != null && isJMXRegistrationEnabled
+                    && deferredRegistrations.size() > 1) {
+
+                    parallel = new ArrayList<MBeanImpl>(
+                        deferredRegistrations ) ;
+                    deferredRegistrations.clear() ;
+                } else {
+                    registerDeferred() ;
+                }
+            }
+        }
+
+        // The workers of the parallel registration need the monitors of the
+        // MBeans, so do not hold the lock while waiting for them.
+        if (parallel != null) {
+            registerDeferredInParallel( exec, parallel ) ;
+        }
+    }
+
+    // Called with lock held.
+    private void registerDeferred() {
+        for (MBeanImpl mb : deferredRegistrations) {
+            try {
+                if (isJMXRegistrationEnabled) {
+                    mb.register();
+                }
+                mb.suspended( false ) ;
+            } catch (JMException ex) {
+                Exceptions.self.deferredRegistrationException( ex, mb ) ;
+            }
+        }
+
+        deferredRegistrations.clear() ;
+    }
+
+    // Called without holding lock, with the deferred MBeans that were
+    // removed from deferredRegistrations, or with the MBeans of the tree
+    // once the root parent is registered.  They stay marked as suspended
+    // until they are registered, so an unregister in the meantime only
+    // clears the mark, and the MBean is then skipped here.  The check and
+    // the registration are done while holding the monitor of the MBean,
+    // which unregisterNow also holds.
+    //
+    // The deferred MBeans form a forest once each one is attached to its
+    // nearest deferred ancestor: MBeans whose ancestors are all already
+    // registered are the roots of the forest.
+    private void registerDeferredInParallel( Executor exec,
+        List<MBeanImpl> deferred ) {
+
+        final Map<MBeanImpl,List<MBeanImpl>> deferredChildren =
+            new IdentityHashMap<MBeanImpl,List<MBeanImpl>>() ;
+        for (MBeanImpl mb : deferred) {
+            deferredChildren.put( mb, new ArrayList<MBeanImpl>() ) ;
+        }
+
+        final List<MBeanImpl> roots = new ArrayList<MBeanImpl>() ;
+        for (MBeanImpl mb : deferred) {
+            MBeanImpl ancestor = mb.parent() ;
+            while (ancestor != null && !deferredChildren.containsKey(ancestor)) {
+                ancestor = ancestor.parent() ;
+            }
+
+            if (ancestor == null) {
+                roots.add( mb ) ;
+            } else {
+                deferredChildren.get( ancestor ).add( mb ) ;
+            }
+        }
+
+        traverseInParallel( exec, roots,
+            new UnaryFunction<MBeanImpl,Collection<MBeanImpl>>() {
+                public Collection<MBeanImpl> evaluate( MBeanImpl mb ) {
+                    return deferredChildren.get( mb ) ;
+                }
+            },
+            new UnaryVoidFunction<MBeanImpl>() {
+                public void evaluate( MBeanImpl mb ) {
+                    synchronized (mb) {
+                        if (!mb.suspended()) {
+                            return ;
+                        }
+
+                        try {
+                            mb.register() ;
+                        } catch (JMException ex) {
+                            Exceptions.self.deferredRegistrationException( ex, mb ) ;
+                        } finally {
+                            mb.suspended( false ) ;
                         }
-                        mb.suspended( false ) ;
-                    } catch (JMException ex) {
-                        Exceptions.self.deferredRegistrationException( ex, mb ) ;
                     }
                 }
+            } ) ;
+    }
+
+    /** Apply action to every MBean in the forest given by roots and
+     * children, using exec.  The action is applied to an MBean before any
+     * of its children are submitted, so parents always precede their
+     * children, while separate subtrees run concurrently.  Returns once
+     * every MBean has been visited.  If any action throws a
+     * RuntimeException, the remaining MBeans are still visited, and the
+     * first exception is then rethrown.
+     */
+    private static void traverseInParallel( final Executor exec,
+        final Collection<MBeanImpl> roots,
+        final UnaryFunction<MBeanImpl,Collection<MBeanImpl>> children,
+        final UnaryVoidFunction<MBeanImpl> action ) {
+
+        final AtomicInteger pending = new AtomicInteger( 1 ) ;
+        final CountDownLatch done = new CountDownLatch( 1 ) ;
+        final AtomicReference<RuntimeException> error =
+            new AtomicReference<RuntimeException>() ;
+
+        final class Visit implements Runnable {
+            private final MBeanImpl mb ;
+
+            Visit( MBeanImpl mb ) {
+                this.mb = mb ;
+            }
+
+            public void run() {
+                try {
+                    action.evaluate( mb ) ;
+                } catch (RuntimeException exc) {
+                    error.compareAndSet( null, exc ) ;
+                }
+
+                try {
+                    submitAll( children.evaluate( mb ) ) ;
+                } finally {
+                    finish() ;
+                }
+            }
+
+            void submitAll( Collection<MBeanImpl> mbs ) {
+                for (MBeanImpl child : mbs) {
+                    pending.incrementAndGet() ;
+                    Visit visit = new Visit( child ) ;
+                    try {
+                        exec.execute( visit ) ;
+                    } catch (RejectedExecutionException exc) {
+                        visit.run() ;
+                    }
+                }
+            }
+
+            void finish() {
+                if (pending.decrementAndGet() == 0) {
+                    done.countDown() ;
+                }
+            }
+        }
+
+        // The extra count held by this thread keeps done from firing before
+        // all of the roots have been submitted.
+        final Visit start = new Visit( null ) ;
+        try {
+            start.submitAll( roots ) ;
+        } finally {
+            start.finish() ;
+        }
 
-                deferredRegistrations.clear() ;
+        boolean interrupted = false ;
+        while (true) {
+            try {
+                done.await() ;
+                break ;
+            } catch (InterruptedException exc) {
+                interrupted = true ;
             }
         }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt() ;
+        }
+
+        if (error.get() != null) {
+            throw error.get() ;
+        }
     }
 
     /** Handle registration of this MBean.  If we are suspended, 
      * simply add to the deferredRegistrationList and mark the MBean as
      * suspended.  If we are not suspended, then register if JMX
      * registration is enabled.
+     * <p>
+     * Must not be called while holding the monitor of any MBeanImpl: with
+     * an asynchronous executor this waits for the pipeline, which needs
+     * that monitor to register the MBeans queued before mb.
      * 
      * @param mb The MBeanImpl to register
      * @throws InstanceAlreadyExistsException
@@ -194,6 +425,80 @@ public class JMXRegistrationManager {
         throws InstanceAlreadyExistsException, MBeanRegistrationException,
         NotCompliantMBeanException {
 
+        if (usePipeline()) {
+            try {
+                RegistrationPipeline.await( registerAsync( mb ) ) ;
+            } catch (InstanceAlreadyExistsException exc) {
+                throw exc ;
+            } catch (MBeanRegistrationException exc) {
+                throw exc ;
+            } catch (NotCompliantMBeanException exc) {
+                throw exc ;
+            } catch (JMException exc) {
+                throw Exceptions.self.exceptionInRegister( exc ) ;
+            }
+        } else {
+            registerNow( mb ) ;
+        }
+    }
+
+    // Synchronous registration must go through the pipeline (if any), so
+    // that it stays ordered with respect to queued work.  Code running in
+    // the pipeline must not wait for it.
+    private boolean usePipeline() {
+        return pipeline != null && !pipeline.isPipelineThread() ;
+    }
+
+    /** Same as register( MBeanImpl ), except that if this
+     * JMXRegistrationManager was created with an asynchronous executor, the
+     * registration is done in the background and this method returns
+     * immediately.
+     *
+     * @param mb The MBeanImpl to register
+     * @return A Future that completes with mb once it has been registered
+     * (or deferred, if registration is suspended), or with the registration
+     * exception.
+     */
+    public Future<GmbalMBean> registerAsync( final MBeanImpl mb ) {
+        return submit( new Callable<GmbalMBean>() {
+            public GmbalMBean call() throws JMException {
+                registerNow( mb ) ;
+                return mb ;
+            }
+        } ) ;
+    }
+
+    /** Same as unregister( MBeanImpl ), except that if this
+     * JMXRegistrationManager was created with an asynchronous executor, the
+     * unregistration is done in the background and this method returns
+     * immediately.
+     *
+     * @param mb The MBean to unregister.
+     * @return A Future that completes once mb has been unregistered.
+     */
+    public Future<Void> unregisterAsync( final MBeanImpl mb ) {
+        return submit( new Callable<Void>() {
+            public Void call() throws JMException {
+                unregisterNow( mb ) ;
+                return null ;
+            }
+        } ) ;
+    }
+
+    private <T> Future<T> submit( Callable<T> task ) {
+        if (pipeline == null) {
+            FutureTask<T> result = new FutureTask<T>( task ) ;
+            result.run() ;
+            return result ;
+        } else {
+            return pipeline.submit( task ) ;
+        }
+    }
+
+    private void registerNow( MBeanImpl mb )
+        throws InstanceAlreadyExistsException, MBeanRegistrationException,
+        NotCompliantMBeanException {
+
         synchronized (lock) {
             if (suspendCount>0) {
                 deferredRegistrations.add( mb ) ;
@@ -206,6 +511,65 @@ public class JMXRegistrationManager {
         }
     }
 
+    /** Handle registration of a batch of MBeans, in order, under a single
+     * acquisition of the lock.  Each MBean is handled exactly as in
+     * register( MBeanImpl ), except that a failure for one MBean, whether
+     * a JMException or a RuntimeException, does not stop the registration
+     * of the rest of the batch.  Like register( MBeanImpl ), this must not
+     * be called while holding the monitor of any MBeanImpl.
+     *
+     * @param mbs The MBeanImpls to register
+     * @return The MBeans that could not be registered, mapped to the
+     * exception from the MBeanServer.  Empty if all registrations succeeded
+     * or were deferred.
+     */
+    public Map<MBeanImpl,Exception> registerAll(
+        final List<MBeanImpl> mbs ) {
+
+        if (usePipeline()) {
+            try {
+                return RegistrationPipeline.await( pipeline.submit(
+                    new Callable<Map<MBeanImpl,Exception>>() {
+                        public Map<MBeanImpl,Exception> call() {
+                            return registerAllNow( mbs ) ;
+                        }
+                    } ) ) ;
+            } catch (JMException exc) {
+                throw Exceptions.self.exceptionInRegister( exc ) ;
+            }
+        } else {
+            return registerAllNow( mbs ) ;
+        }
+    }
+
+    private Map<MBeanImpl,Exception> registerAllNow( List<MBeanImpl> mbs ) {
+        final Map<MBeanImpl,Exception> failures =
+            new IdentityHashMap<MBeanImpl,Exception>() ;
+
+        synchronized (lock) {
+            if (suspendCount>0) {
+                for (MBeanImpl mb : mbs) {
+                    deferredRegistrations.add( mb ) ;
+                    mb.suspended( true ) ;
+                }
+            } else {
+                if (isJMXRegistrationEnabled) {
+                    for (MBeanImpl mb : mbs) {
+                        try {
+                            mb.register() ;
+                        } catch (JMException ex) {
+                            failures.put( mb, ex ) ;
+                        } catch (RuntimeException ex) {
+                            failures.put( mb, ex ) ;
+                        }
+                    }
+                }
+            }
+        }
+
+        return failures ;
+    }
+
     /** Unregister the MBean.  If we are suspended, remove from the
      * deferredRegistrations list and mark suspended false.  In any case,
      * we unregister from JMX if JMX registration is enabled.
@@ -219,15 +583,37 @@ public class JMXRegistrationManager {
     public void unregister( MBeanImpl mb )
         throws InstanceNotFoundException, MBeanRegistrationException {
 
-        synchronized (lock) {
-            boolean wasSuspended = mb.suspended() ;
+        if (usePipeline()) {
+            try {
+                RegistrationPipeline.await( unregisterAsync( mb ) ) ;
+            } catch (InstanceNotFoundException exc) {
+                throw exc ;
+            } catch (MBeanRegistrationException exc) {
+                throw exc ;
+            } catch (JMException exc) {
+                throw Exceptions.self.exceptionInUnregister( exc ) ;
+            }
+        } else {
+            unregisterNow( mb ) ;
+        }
+    }
 
-            if (wasSuspended) {
-                deferredRegistrations.remove(mb) ;
-                mb.suspended( false ) ;
-            } else {
-                if (isJMXRegistrationEnabled) {
-                    mb.unregister() ;
+    private void unregisterNow( MBeanImpl mb )
+        throws InstanceNotFoundException, MBeanRegistrationException {
+
+        // The monitor of mb keeps the check of suspended atomic with
+        // respect to a parallel registration of mb on resume.
+        synchronized (lock) {
+            synchronized (mb) {
+                boolean wasSuspended = mb.suspended() ;
+
+                if (wasSuspended) {
+                    deferredRegistrations.remove(mb) ;
+                    mb.suspended( false ) ;
+                } else {
+                    if (isJMXRegistrationEnabled) {
+                        mb.unregister() ;
+                    }
                 }
             }
         }
@@ -268,15 +654,40 @@ public class JMXRegistrationManager {
             } ;
 
         public void mbeanRegistered(ObjectName arg0, MBeanListener arg1) {
+            final Executor exec = executor ;
+            final List<MBeanImpl> parallel = new ArrayList<MBeanImpl>() ;
+
             synchronized (lock) {
                 if (!isJMXRegistrationEnabled) {
                     isJMXRegistrationEnabled = true ;
 
                     if (root != null) {
-                        traverse( root, REGISTER_FUNC, null );
+                        if (exec == null) {
+                            traverse( root, REGISTER_FUNC, null );
+                        } else {
+                            // Mark the MBeans as deferred, so that an
+                            // unregister before the parallel registration
+                            // reaches them is handled as in
+                            // resumeRegistration.  MBeans that are already
+                            // suspended are registered on resume.
+                            traverse( root, new UnaryVoidFunction<MBeanImpl>() {
+                                public void evaluate( MBeanImpl arg ) {
+                                    if (!arg.suspended()) {
+                                        arg.suspended( true ) ;
+                                        parallel.add( arg ) ;
+                                    }
+                                }
+                            }, null ) ;
+                        }
                     }
                 }
             }
+
+            // As in resumeRegistration, do not hold the lock while waiting
+            // for the workers.
+            if (!parallel.isEmpty()) {
+                registerDeferredInParallel( exec, parallel ) ;
+            }
         }
 
         private final UnaryVoidFunction<MBeanImpl> UNREGISTER_FUNC =
@@ -45,6 +45,7 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import javax.management.Attribute ;
 import javax.management.AttributeList ;
 import javax.management.InstanceAlreadyExistsException;
@@ -68,7 +69,13 @@ import java.util.Map ;
 import java.util.HashMap ;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
 import org.glassfish.external.amx.AMX;
+import org.glassfish.gmbal.AttributeCacheStatistics;
 import org.glassfish.gmbal.GmbalMBean;
 import org.glassfish.pfl.basic.facet.FacetAccessor;
 import org.glassfish.pfl.basic.facet.FacetAccessorImpl;
@@ -76,13 +83,21 @@ import org.glassfish.pfl.basic.logex.OperationTracer;
 
 public class MBeanImpl extends NotificationBroadcasterSupport 
     implements FacetAccessor, GmbalMBean {
-    
+
     private boolean registered ;
+    // One entry per listener registration, so that attribute changes can
+    // skip building notifications that nobody receives.
+    private final List<NotificationListener> listeners =
+        new CopyOnWriteArrayList<NotificationListener>() ;
     private final MBeanSkeleton skel ;
+    // Null unless skel has attributes that are read through the cache.
+    private final AttributeValueCache attributeCache ;
     private final String type ;
-    private String name ;
-    private ObjectName oname ;
-    private MBeanImpl parent ;
+    // name, oname, and parent are volatile so that equals, hashCode, and
+    // the MBeanTree lookups can read them without taking this lock.
+    private volatile String name ;
+    private volatile ObjectName oname ;
+    private volatile MBeanImpl parent ;
     private final Set<String> subTypes ; // Null if not used: don't create empty
 					 // sets if not used.
 
@@ -91,15 +106,22 @@ public class MBeanImpl extends NotificationBroadcasterSupport
 
     private Object target ;
     private MBeanServer server ;
-    private String parentPathForObjectName;
+    private volatile String restName;
+    private String objectNamePrefix;
     private boolean suspended;
     
+    /** Create an MBean whose notifications are delivered by
+     * notificationExecutor, which is usually the executor of the
+     * ManagedObjectManager (see ManagedObjectManagerImpl).
+     */
     public MBeanImpl( final MBeanSkeleton skel, 
         final Object obj, final MBeanServer server,
-        final String type ) {
+        final String type, final Executor notificationExecutor ) {
 
+        super( notificationExecutor ) ;
         this.registered = false ;
         this.skel = skel ;
+        this.attributeCache = skel.makeAttributeValueCache() ;
         this.type = type ;
         this.name = "" ;
         this.oname = null ;
@@ -121,12 +143,13 @@ public class MBeanImpl extends NotificationBroadcasterSupport
         // two places (here and call to new MBeanSkeleton( skel, skel )).
         // This will also be important for dealing with multiple upper bounds.
         this.server = server ;
-        this.parentPathForObjectName = null ;
+        this.restName = null ;
+        this.objectNamePrefix = null ;
         this.suspended = false ;
     }
         
     @Override
-    public synchronized boolean equals( Object obj ) {
+    public boolean equals( Object obj ) {
         if (this == obj) {
             return true ;
         }
@@ -143,7 +166,7 @@ public class MBeanImpl extends NotificationBroadcasterSupport
     }
     
     @Override
-    public synchronized int hashCode() {
+    public int hashCode() {
         if (parent == null) {
             return name.hashCode() ^ type.hashCode() ;
         } else {
@@ -170,7 +193,7 @@ public class MBeanImpl extends NotificationBroadcasterSupport
         return target ;
     }
     
-    public synchronized String name() {
+    public String name() {
         return name ;
     }
 
@@ -178,7 +201,7 @@ public class MBeanImpl extends NotificationBroadcasterSupport
         name = str ;
     }
     
-    public synchronized ObjectName objectName() {
+    public ObjectName objectName() {
         return oname ;
     }
     
@@ -186,7 +209,7 @@ public class MBeanImpl extends NotificationBroadcasterSupport
         this.oname = oname ;
     }
 
-    public synchronized MBeanImpl parent() {
+    public MBeanImpl parent() {
         return parent ;
     }
    
@@ -248,32 +271,45 @@ public class MBeanImpl extends NotificationBroadcasterSupport
         }
     }
  
-    private void restNameHelper( StringBuilder sb ) {
-        if (parent() != null) {
-            parent().restNameHelper( sb ) ;
-            sb.append( '/' ) ;
-        } 
-
-        sb.append( type() ) ;
-	if (!name.equals("")) {
-            sb.append( '[' ) ;
-	    sb.append( name ) ;
-            sb.append( ']' ) ;
-	}
-    }
+    // The path from the root to this MBean, for example Root/Foo[bar].
+    // Computed from the parent's value, so the parent chain is only
+    // walked once per MBean.
+    private String restName() {
+        String result = restName ;
+        if (result == null) {
+            StringBuilder sb = new StringBuilder( 60 ) ;
+            final MBeanImpl p = parent() ;
+            if (p != null) {
+                sb.append( p.restName() ) ;
+                sb.append( '/' ) ;
+            } 
+
+            sb.append( type() ) ;
+            if (!name.equals("")) {
+                sb.append( '[' ) ;
+                sb.append( name ) ;
+                sb.append( ']' ) ;
+            }
+
+            result = sb.toString() ;
+            restName = result ;
+        }
 
-    private synchronized String restName() {
-        StringBuilder sb = new StringBuilder( 60 ) ;
-        restNameHelper( sb ) ;
-        return sb.toString() ;
+        return result ;
     }
 
-    public synchronized String getParentPathPart( String rootParentPrefix ) {
-        if (parentPathForObjectName == null) {
-            StringBuilder result = new StringBuilder() ;
-            result.append( AMX.PARENT_PATH_KEY ) ;
-            result.append( "=" ) ;
+    /** Return the part of the ObjectName that is shared by all of the
+     * children of this MBean: the domain and the pp key, ending in a comma.
+     * The result is computed once and cached.
+     *
+     * @param domain The domain of the ObjectName.
+     * @param rootParentPrefix The parent path of the root parent, or null.
+     * @return The prefix "domain:pp=...,".
+     */
+    public synchronized String getObjectNamePrefix( String domain,
+        String rootParentPrefix ) {
 
+        if (objectNamePrefix == null) {
             String qname ;
             if (rootParentPrefix == null) {
                 qname = "/" + restName() ;
@@ -281,16 +317,22 @@ public class MBeanImpl extends NotificationBroadcasterSupport
                 qname = rootParentPrefix + "/" + restName() ;
             }
 
-            result.append( MBeanTree.getQuotedName( qname ) ) ;
+            StringBuilder result = new StringBuilder( domain.length()
+                + qname.length() + 8 ) ;
+            result.append( domain ) ;
+            result.append( ':' ) ;
+            result.append( AMX.PARENT_PATH_KEY ) ;
+            result.append( "=" ) ;
 
             // Note that the "/" MUST be passed to getQuotedName, or we
             // can get things like /"...", which is wrong.
+            result.append( MBeanTree.getQuotedName( qname ) ) ;
             result.append( ',' ) ;
 
-            parentPathForObjectName = result.toString() ;
+            objectNamePrefix = result.toString() ;
         }
 
-        return parentPathForObjectName ;
+        return objectNamePrefix ;
     }
  
     public synchronized boolean suspended() {
@@ -378,23 +420,39 @@ public class MBeanImpl extends NotificationBroadcasterSupport
     public Object getAttribute(String attribute) 
         throws AttributeNotFoundException, MBeanException, ReflectionException {
         OperationTracer.clear() ;
-	return skel.getAttribute( this, attribute ) ;
+	return skel.getAttribute( this, attributeCache, attribute ) ;
     }
     
     public void setAttribute(Attribute attribute) throws AttributeNotFoundException,
 	InvalidAttributeValueException, MBeanException, ReflectionException  {
         OperationTracer.clear() ;
-	skel.setAttribute( this, this, attribute ) ;
+	skel.setAttribute( this, hasNotificationListeners(), this,
+            attribute ) ;
+        skel.invalidate( attributeCache, attribute.getName() ) ;
     }
         
     public AttributeList getAttributes(String[] attributes) {
         OperationTracer.clear() ;
-	return skel.getAttributes( this, attributes ) ;
+	return skel.getAttributes( this, attributeCache, attributes ) ;
     }
         
     public AttributeList setAttributes(AttributeList attributes) {
         OperationTracer.clear() ;
-	return skel.setAttributes( this, this, attributes ) ;
+	final AttributeList result = skel.setAttributes( this,
+            hasNotificationListeners(), this, attributes ) ;
+        for (Object elem : result) {
+            skel.invalidate( attributeCache, ((Attribute)elem).getName() ) ;
+        }
+
+        return result ;
+    }
+
+    /** The hit and miss counts of the attribute cache of this MBean.
+     * @return The statistics, or null if no attribute of this MBean is read
+     * through the cache.
+     */
+    public AttributeCacheStatistics getAttributeCacheStatistics() {
+        return attributeCache == null ? null : attributeCache.statistics() ;
     }
     
     public Object invoke(String actionName, Object params[], String signature[])
@@ -415,6 +473,32 @@ public class MBeanImpl extends NotificationBroadcasterSupport
         return ATTRIBUTE_CHANGE_NOTIFICATION_INFO.clone() ;
     }
 
+    @Override
+    public void addNotificationListener( NotificationListener listener,
+        NotificationFilter filter, Object handback ) {
+        super.addNotificationListener( listener, filter, handback ) ;
+        listeners.add( listener ) ;
+    }
+
+    @Override
+    public void removeNotificationListener( NotificationListener listener )
+        throws ListenerNotFoundException {
+        super.removeNotificationListener( listener ) ;
+        listeners.removeAll( Collections.singleton( listener ) ) ;
+    }
+
+    @Override
+    public void removeNotificationListener( NotificationListener listener,
+        NotificationFilter filter, Object handback )
+        throws ListenerNotFoundException {
+        super.removeNotificationListener( listener, filter, handback ) ;
+        listeners.remove( listener ) ;
+    }
+
+    boolean hasNotificationListeners() {
+        return !listeners.isEmpty() ;
+    }
+
     public MBeanInfo getMBeanInfo() {
         return skel.getMBeanInfo();
     }
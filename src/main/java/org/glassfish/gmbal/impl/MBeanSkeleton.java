@@ -48,8 +48,12 @@ import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.ReflectPermission;
 
@@ -63,20 +67,26 @@ import javax.management.InvalidAttributeValueException;
 import javax.management.AttributeNotFoundException;
 import javax.management.ReflectionException;
 import javax.management.MBeanParameterInfo;
+import javax.management.MBeanOperationInfo;
 
 import javax.management.NotificationBroadcasterSupport;
 import javax.management.AttributeChangeNotification;
 
 import org.glassfish.gmbal.NameValue;
 import org.glassfish.gmbal.ManagedOperation;
+import org.glassfish.gmbal.Paged;
 import org.glassfish.gmbal.ParameterNames;
 
 import javax.management.Descriptor;
 import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
 import javax.management.modelmbean.ModelMBeanAttributeInfo;
 import javax.management.modelmbean.ModelMBeanInfoSupport;
 import javax.management.modelmbean.ModelMBeanOperationInfo;
 import javax.management.openmbean.OpenMBeanParameterInfoSupport;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import org.glassfish.gmbal.impl.TypeConverterImpl.PagedTypeConverter;
 import org.glassfish.gmbal.impl.trace.TraceRegistration;
 import org.glassfish.gmbal.impl.trace.TraceRegistrationFine;
 import org.glassfish.gmbal.impl.trace.TraceRuntime;
@@ -103,8 +113,173 @@ public class MBeanSkeleton {
     @TraceRuntime
     public interface Operation
 	extends BinaryFunction<FacetAccessor, List<Object>, Object> {
+        /** Same as evaluate, but takes the arguments in the form passed to
+         * DynamicMBean.invoke, so that no List wrapper is needed.
+         */
+        Object invoke( FacetAccessor target, Object[] args ) ;
     };
 
+    // Flat open addressing table of all operations, keyed by name and
+    // signature.  This is built once when the skeleton is constructed, and
+    // hashes the name and signature array in place on lookup, so that invoke
+    // does not need to construct any key objects.
+    private static final class OperationIndex {
+        private final String[] names ;
+        private final String[][] signatures ;
+        private final Operation[] ops ;
+        private final int mask ;
+
+        OperationIndex( Map<String, Map<List<String>, Operation>> operations ) {
+            int count = 0 ;
+            for (Map<List<String>, Operation> map : operations.values()) {
+                count += map.size() ;
+            }
+
+            // Keep the table at most half full, so that probe sequences
+            // stay short.
+            int size = 2 ;
+            while (size < 2 * count) {
+                size <<= 1 ;
+            }
+
+            names = new String[size] ;
+            signatures = new String[size][] ;
+            ops = new Operation[size] ;
+            mask = size - 1 ;
+
+            for (Map.Entry<String, Map<List<String>, Operation>> entry
+                : operations.entrySet()) {
+
+                final String name = entry.getKey() ;
+                for (Map.Entry<List<String>, Operation> opEntry
+                    : entry.getValue().entrySet()) {
+
+                    final String[] sig = opEntry.getKey().toArray(
+                        new String[opEntry.getKey().size()] ) ;
+                    int index = hash( name, sig ) & mask ;
+                    while (names[index] != null) {
+                        index = (index + 1) & mask ;
+                    }
+
+                    names[index] = name ;
+                    signatures[index] = sig ;
+                    ops[index] = opEntry.getValue() ;
+                }
+            }
+        }
+
+        private static int hash( String name, String[] sig ) {
+            int result = name.hashCode() ;
+            for (String str : sig) {
+                result = 31 * result + (str == null ? 0 : str.hashCode()) ;
+            }
+
+            return result ^ (result >>> 16) ;
+        }
+
+        Operation get( String name, String[] sig ) {
+            if (name == null) {
+                return null ;
+            }
+
+            int index = hash( name, sig ) & mask ;
+            String current ;
+            while ((current = names[index]) != null) {
+                if (current.equals( name )
+                    && Arrays.equals( signatures[index], sig )) {
+                    return ops[index] ;
+                }
+
+                index = (index + 1) & mask ;
+            }
+
+            return null ;
+        }
+    }
+
+    // Cache of resolved getters for the name arrays passed to getAttributes.
+    // Monitoring clients usually ask for the same list of names on every
+    // call (often all of the attributes, in MBeanInfo order), but build a
+    // new array each time, so arrays are compared by content.  Like
+    // OperationIndex, lookups hash the array in place and allocate nothing.
+    // The table has a fixed size and is never more than half full: once it
+    // is, further name arrays are simply resolved on every call.
+    private static final class AttributeIndex {
+        private static final int SIZE = 64 ;
+        private static final int MASK = SIZE - 1 ;
+        private static final int MAX_ENTRIES = SIZE / 2 ;
+
+        private static final class Entry {
+            final int hash ;
+            final String[] names ;
+            final AttributeDescriptor[] getters ;
+
+            Entry( int hash, String[] names, AttributeDescriptor[] getters ) {
+                this.hash = hash ;
+                this.names = names ;
+                this.getters = getters ;
+            }
+        }
+
+        private final AtomicReferenceArray<Entry> table =
+            new AtomicReferenceArray<Entry>( SIZE ) ;
+        private final AtomicInteger count = new AtomicInteger() ;
+        private final Map<String, AttributeDescriptor> getters ;
+
+        AttributeIndex( Map<String, AttributeDescriptor> getters,
+            String[] allNames ) {
+
+            this.getters = getters ;
+            get( allNames ) ;
+        }
+
+        private static int hash( String[] names ) {
+            int result = Arrays.hashCode( names ) ;
+            return result ^ (result >>> 16) ;
+        }
+
+        private AttributeDescriptor[] resolve( String[] names ) {
+            final AttributeDescriptor[] result =
+                new AttributeDescriptor[names.length] ;
+            for (int ctr=0; ctr<names.length; ctr++) {
+                result[ctr] = getters.get( names[ctr] ) ;
+            }
+
+            return result ;
+        }
+
+        /** Return the getters for names, in the same order.  An element
+         * is null if there is no readable attribute of that name.
+         */
+        AttributeDescriptor[] get( String[] names ) {
+            final int hash = hash( names ) ;
+            int index = hash & MASK ;
+            Entry entry ;
+            while ((entry = table.get( index )) != null) {
+                if (entry.hash == hash && Arrays.equals( entry.names, names )) {
+                    return entry.getters ;
+                }
+
+                index = (index + 1) & MASK ;
+            }
+
+            final AttributeDescriptor[] result = resolve( names ) ;
+            if (count.get() < MAX_ENTRIES
+                && count.incrementAndGet() <= MAX_ENTRIES) {
+                // Copy names, since the caller may modify its array later.
+                entry = new Entry( hash, names.clone(), result ) ;
+                while (!table.compareAndSet( index, null, entry )) {
+                    index = (index + 1) & MASK ;
+                }
+            }
+
+            return result ;
+        }
+    }
+
+    private static final String[] NO_STRINGS = new String[0] ;
+    private static final Object[] NO_OBJECTS = new Object[0] ;
+
     private AMXMetadata mbeanType;
     private final String type;
     private Descriptor descriptor;
@@ -116,7 +291,18 @@ public class MBeanSkeleton {
     private final Map<String, AttributeDescriptor> setters;
     private final Map<String, AttributeDescriptor> getters;
     private AttributeDescriptor nameAttributeDescriptor;
+    // Time to live in nanoseconds (or AttributeValueCache.FOREVER or
+    // NOT_KEPT) of each attribute that is read through the
+    // AttributeValueCache: those whose getter has a currencyTimeLimit or
+    // a coalesceReads descriptor field.
+    private final Map<String, Long> cacheTimes;
+    @DumpIgnore
+    private final Map<String, CachePolicy> cachePolicies;
     private final Map<String, Map<List<String>, Operation>> operations;
+    @DumpIgnore
+    private final OperationIndex operationIndex;
+    @DumpIgnore
+    private final AttributeIndex attributeIndex;
     private final List<ModelMBeanAttributeInfo> mbeanAttributeInfoList;
     private final List<ModelMBeanOperationInfo> mbeanOperationInfoList;
     private final ModelMBeanInfoSupport mbInfo;
@@ -169,6 +355,7 @@ public class MBeanSkeleton {
 
 	setters = new HashMap<String, AttributeDescriptor>();
 	getters = new HashMap<String, AttributeDescriptor>();
+	cacheTimes = new HashMap<String, Long>();
 	operations = new HashMap<String, Map<List<String>, Operation>>();
 	mbeanAttributeInfoList = new ArrayList<ModelMBeanAttributeInfo>();
 	mbeanOperationInfoList = new ArrayList<ModelMBeanOperationInfo>();
@@ -177,7 +364,11 @@ public class MBeanSkeleton {
 	analyzeOperations(ca);
 	analyzeObjectNameKeys(ca);
 
+	operationIndex = new OperationIndex(operations);
+
 	mbInfo = makeMbInfo(mom.getDescription(annotatedClass));
+	attributeIndex = new AttributeIndex(getters, readableAttributeNames());
+	cachePolicies = makeCachePolicies(getters, cacheTimes);
     }
 
     // In case of conflicts, always prefer second over first.
@@ -201,11 +392,16 @@ public class MBeanSkeleton {
 	getters.putAll(first.getters);
 	getters.putAll(second.getters);
 
+	cacheTimes = new HashMap<String, Long>();
+	cacheTimes.putAll(first.cacheTimes);
+	cacheTimes.putAll(second.cacheTimes);
+
 	nameAttributeDescriptor = second.nameAttributeDescriptor;
 
 	operations = new HashMap<String, Map<List<String>, Operation>>();
 	addToCompoundMap(first.operations, operations);
 	addToCompoundMap(second.operations, operations);
+	operationIndex = new OperationIndex(operations);
 
 	mbeanAttributeInfoList = new ArrayList<ModelMBeanAttributeInfo>();
 	mbeanAttributeInfoList.addAll(first.mbeanAttributeInfoList);
@@ -218,6 +414,21 @@ public class MBeanSkeleton {
 	// This must go last, because it depends on some of the
 	// preceding initializations.
 	mbInfo = makeMbInfo(second.mbInfo.getDescription());
+	attributeIndex = new AttributeIndex(getters, readableAttributeNames());
+	cachePolicies = makeCachePolicies(getters, cacheTimes);
+    }
+
+    // The names of the readable attributes in MBeanInfo order: this is
+    // what a client that fetches all attributes passes to getAttributes.
+    private String[] readableAttributeNames() {
+        final List<String> result = new ArrayList<String>() ;
+        for (MBeanAttributeInfo info : mbInfo.getAttributes()) {
+            if (info.isReadable()) {
+                result.add( info.getName() ) ;
+            }
+        }
+
+        return result.toArray( new String[result.size()] ) ;
     }
 
     private ModelMBeanInfoSupport makeMbInfo(String description) {
@@ -316,6 +527,19 @@ public class MBeanSkeleton {
 
         descriptorContents( name, description, desc ) ;
 
+        if (getter != null) {
+            final Object limit = desc.getFieldValue( CURRENCY_TIME_LIMIT ) ;
+            Long ttl = limit == null ? null : cacheTime( name, limit ) ;
+            if (ttl == null && Boolean.parseBoolean( String.valueOf(
+                desc.getFieldValue( COALESCE_READS ) ) )) {
+                ttl = AttributeValueCache.NOT_KEPT ;
+            }
+
+            if (ttl != null) {
+                cacheTimes.put( name, ttl ) ;
+            }
+        }
+
         TypeConverter tc = mom.getTypeConverter(nonNullDescriptor.type());
 
         ModelMBeanAttributeInfo ainfo = new ModelMBeanAttributeInfo(name,
@@ -327,6 +551,34 @@ public class MBeanSkeleton {
         mbeanAttributeInfoList.add(ainfo);
     }
 
+    private static final String CURRENCY_TIME_LIMIT = "currencyTimeLimit" ;
+
+    // A gmbal descriptor field: if true, concurrent reads of the attribute
+    // share one call to its getter.
+    private static final String COALESCE_READS = "coalesceReads" ;
+
+    // Interpret the currencyTimeLimit descriptor field as in a ModelMBean:
+    // the number of seconds for which a value is valid, 0 for a value that
+    // is valid until the attribute is set, or a negative number for no
+    // caching.  Returns null if the value is not cached.
+    private static Long cacheTime( final String name, final Object value ) {
+        final long seconds ;
+        try {
+            seconds = Long.parseLong( value.toString().trim() ) ;
+        } catch (NumberFormatException exc) {
+            Exceptions.self.badCurrencyTimeLimit( name, value ) ;
+            return null ;
+        }
+
+        if (seconds < 0) {
+            return null ;
+        } else if (seconds == 0) {
+            return AttributeValueCache.FOREVER ;
+        }
+
+        return TimeUnit.SECONDS.toNanos( seconds ) ;
+    }
+
     @InfoMethod
     private void attributes( 
         Pair<Map<String, AttributeDescriptor>,
@@ -346,6 +598,8 @@ public class MBeanSkeleton {
 
         attributes( amap ) ;
 
+        analyzePagedAttributes() ;
+
         final Set<String> setterNames = new HashSet<String>(setters.keySet());
         setterNames( "before removing getters", setterNames ) ;
 
@@ -408,6 +662,72 @@ public class MBeanSkeleton {
     @InfoMethod
     private void describe( String msg, Object data ) { }
 
+    // An Operation that converts its arguments through an array of
+    // TypeConverters, and calls the method through a MethodHandle that
+    // is created once for the skeleton.
+    private class CompiledOperation implements Operation {
+        private final EvaluatedMethodDeclaration m ;
+        private final TypeConverter[] atcs ;
+        private final TypeConverter rtc ;
+        @DumpIgnore
+        private final Class<?> declaringClass ;
+        @DumpIgnore
+        private final MethodHandle handle ;
+
+        CompiledOperation( final EvaluatedMethodDeclaration m,
+            final List<TypeConverter> atcs, final TypeConverter rtc ) {
+
+            this.m = m ;
+            this.atcs = atcs.toArray( new TypeConverter[atcs.size()] ) ;
+            this.rtc = rtc ;
+            this.declaringClass = m.method().getDeclaringClass() ;
+            this.handle = MethodHandleUtility.spreader( m.method() ) ;
+        }
+
+        @TraceRuntime
+        public Object evaluate(FacetAccessor target, List<Object> args) {
+            return invoke( target, args.toArray() ) ;
+        }
+
+        @TraceRuntime
+        public Object invoke(FacetAccessor target, Object[] args) {
+            if (args.length != atcs.length) {
+                throw MethodHandleUtility.wrongArgumentCount( m.method(),
+                    args.length ) ;
+            }
+
+            final Object[] margs = new Object[atcs.length] ;
+            for (int ctr=0; ctr<margs.length; ctr++) {
+                margs[ctr] = atcs[ctr].fromManagedEntity( args[ctr] ) ;
+            }
+
+            describe( "margs before invoke", margs ) ;
+
+            Object result ;
+            if (handle == null) {
+                result = target.invoke(m.method(), margs);
+            } else {
+                final Object facet = MethodHandleUtility.facet( target,
+                    declaringClass, m.method() ) ;
+                try {
+                    result = (Object)handle.invokeExact( facet, margs ) ;
+                } catch (Error err) {
+                    throw err ;
+                } catch (Throwable thr) {
+                    throw MethodHandleUtility.wrap( thr ) ;
+                }
+            }
+
+            describe( "result after invoke", result ) ;
+
+            if (rtc == null) {
+                return null;
+            } else {
+                return rtc.toManagedEntity(result);
+            }
+        }
+    }
+
     @TraceRegistrationFine
     private Pair<Operation, ModelMBeanOperationInfo> makeOperation(
 	    final EvaluatedMethodDeclaration m) {
@@ -443,32 +763,7 @@ public class MBeanSkeleton {
         describe( "atypes", atypes );
         describe( "descriptor", descriptor );
 
-        final Operation oper = new Operation() {
-            @TraceRuntime
-            public Object evaluate(FacetAccessor target, List<Object> args) {
-                Object[] margs = new Object[args.size()];
-                Iterator<Object> argsIterator = args.iterator();
-                Iterator<TypeConverter> tcIterator = atcs.iterator();
-                int ctr = 0;
-                while (argsIterator.hasNext() && tcIterator.hasNext()) {
-                    final Object arg = argsIterator.next();
-                    final TypeConverter tc = tcIterator.next();
-                    margs[ctr++] = tc.fromManagedEntity(arg);
-                }
-
-                describe( "margs before invoke", margs ) ;
-
-                Object result = target.invoke(m.method(), margs);
-
-                describe( "result after invoke", result ) ;
-
-                if (rtc == null) {
-                    return null;
-                } else {
-                    return rtc.toManagedEntity(result);
-                }
-            }
-        };
+        final Operation oper = new CompiledOperation( m, atcs, rtc ) ;
 
         final ParameterNames pna = mom.getAnnotation( m.element(),
             ParameterNames.class);
@@ -504,6 +799,28 @@ public class MBeanSkeleton {
         return new Pair<Operation, ModelMBeanOperationInfo>(oper, operInfo);
     }
 
+    private void addOperation( final Operation oper,
+        final ModelMBeanOperationInfo info ) {
+
+        final List<String> dataTypes = new ArrayList<String>();
+        for (MBeanParameterInfo pi : info.getSignature()) {
+            // Replace recursion marker with the constructed implementation
+            dataTypes.add(pi.getType());
+        }
+
+        Map<List<String>, Operation> map = operations.get(info.getName());
+        if (map == null) {
+            map = new HashMap<List<String>, Operation>();
+            operations.put(info.getName(), map);
+        }
+
+        // Note that the first occurrence of any method will be the most
+        // derived, so if there is already an entry, don't overwrite it.
+        mom.putIfNotPresent(map, dataTypes, oper);
+
+        mbeanOperationInfoList.add(info);
+    }
+
     @TraceRegistrationFine
     private void analyzeOperations(EvaluatedClassAnalyzer ca) {
         // Scan for all methods annotation with @ManagedOperation,
@@ -513,25 +830,136 @@ public class MBeanSkeleton {
         for (EvaluatedMethodDeclaration m : ops) {
             final Pair<Operation, ModelMBeanOperationInfo> data =
                 makeOperation(m);
-            final ModelMBeanOperationInfo info = data.second();
+            addOperation(data.first(), data.second());
+        }
+    }
+
+    // Read the unconverted value of a @Paged attribute for one of its
+    // operations.
+    private static Object pagedValue( final AttributeDescriptor getter,
+        final FacetAccessor fa ) {
+
+        try {
+            return getter.getValue( fa ) ;
+        } catch (JMException exc) {
+            throw Exceptions.self.pagedAttributeGetError( exc, getter.id() ) ;
+        }
+    }
+
+    // The XPage(offset,limit) operation of a @Paged attribute X.
+    private static class PageOperation implements Operation {
+        private final AttributeDescriptor getter ;
+        private final PagedTypeConverter ptc ;
+        private final int maxPageSize ;
 
-            final List<String> dataTypes = new ArrayList<String>();
-            for (MBeanParameterInfo pi : info.getSignature()) {
-                // Replace recursion marker with the constructed implementation
-                dataTypes.add(pi.getType());
+        PageOperation( final AttributeDescriptor getter,
+            final PagedTypeConverter ptc, final int maxPageSize ) {
+
+            this.getter = getter ;
+            this.ptc = ptc ;
+            this.maxPageSize = maxPageSize ;
+        }
+
+        public Object evaluate(FacetAccessor target, List<Object> args) {
+            return invoke( target, args.toArray() ) ;
+        }
+
+        public Object invoke(FacetAccessor target, Object[] args) {
+            if (args.length != 2) {
+                throw MethodHandleUtility.wrongArgumentCount( 2,
+                    args.length ) ;
             }
 
-            Map<List<String>, Operation> map = operations.get(m.name());
-            if (map == null) {
-                map = new HashMap<List<String>, Operation>();
-                operations.put(m.name(), map);
+            if (!(args[0] instanceof Integer) || !(args[1] instanceof Integer)
+                || (Integer)args[0] < 0 || (Integer)args[1] < 0) {
+                throw Exceptions.self.badPageArguments( args[0], args[1] ) ;
             }
 
-            // Note that the first occurrence of any method will be the most
-            // derived, so if there is already an entry, don't overwrite it.
-            mom.putIfNotPresent(map, dataTypes, data.first());
+            final int offset = (Integer)args[0] ;
+            final int limit = (Integer)args[1] ;
+            return ptc.toManagedEntity( pagedValue( getter, target ), offset,
+                Math.min( limit, maxPageSize ) ) ;
+        }
+    }
+
+    // The XSize() operation of a @Paged attribute X.
+    private static class SizeOperation implements Operation {
+        private final AttributeDescriptor getter ;
+        private final PagedTypeConverter ptc ;
+
+        SizeOperation( final AttributeDescriptor getter,
+            final PagedTypeConverter ptc ) {
 
-            mbeanOperationInfoList.add(info);
+            this.getter = getter ;
+            this.ptc = ptc ;
+        }
+
+        public Object evaluate(FacetAccessor target, List<Object> args) {
+            return invoke( target, args.toArray() ) ;
+        }
+
+        public Object invoke(FacetAccessor target, Object[] args) {
+            return ptc.size( pagedValue( getter, target ) ) ;
+        }
+    }
+
+    private ModelMBeanOperationInfo makeInfoOperationInfo( final String name,
+        final String description, final MBeanParameterInfo[] params,
+        final OpenType<?> rtype ) {
+
+        return new ModelMBeanOperationInfo( name, description, params,
+            rtype.getClassName(), MBeanOperationInfo.INFO,
+            makeValidDescriptor( DescriptorUtility.EMPTY_DESCRIPTOR,
+                DescriptorType.operation, name ) ) ;
+    }
+
+    // Add the page and size operations for each @Paged getter, and drop
+    // the getter itself unless the annotation asks to keep it.
+    @TraceRegistrationFine
+    private void analyzePagedAttributes() {
+        final Iterator<AttributeDescriptor> iter = getters.values().iterator() ;
+        while (iter.hasNext()) {
+            final AttributeDescriptor getter = iter.next() ;
+            final Paged paged = mom.getAnnotation( getter.accessible(),
+                Paged.class ) ;
+            if (paged == null) {
+                continue ;
+            }
+
+            final String name = getter.id() ;
+            if (!(getter.tc() instanceof PagedTypeConverter)) {
+                throw Exceptions.self.pagedAttributeNotCollection( name,
+                    getter.type() ) ;
+            }
+
+            final PagedTypeConverter ptc = (PagedTypeConverter)getter.tc() ;
+            describe( "paged attribute", name ) ;
+
+            final MBeanParameterInfo[] pageParams = new MBeanParameterInfo[] {
+                new OpenMBeanParameterInfoSupport( "offset",
+                    Exceptions.self.pageOffsetDescription(),
+                    SimpleType.INTEGER ),
+                new OpenMBeanParameterInfoSupport( "limit",
+                    Exceptions.self.pageLimitDescription(),
+                    SimpleType.INTEGER )
+            } ;
+
+            addOperation( new PageOperation( getter, ptc, paged.maxPageSize() ),
+                makeInfoOperationInfo( name + "Page",
+                    Exceptions.self.pageOperationDescription( name ),
+                    pageParams, ptc.getManagedType() ) ) ;
+
+            addOperation( new SizeOperation( getter, ptc ),
+                makeInfoOperationInfo( name + "Size",
+                    Exceptions.self.sizeOperationDescription( name ),
+                    new MBeanParameterInfo[0], SimpleType.INTEGER ) ) ;
+
+            if (!paged.attribute()) {
+                // Without the getter, a setter would be published as a
+                // write-only attribute.
+                iter.remove() ;
+                setters.remove( name ) ;
+            }
         }
     }
 
@@ -544,15 +972,87 @@ public class MBeanSkeleton {
 	return mbeanType;
     }
 
+    // The slot of a cached attribute in each MBean's AttributeValueCache,
+    // and the time for which its value is kept there.
+    private static final class CachePolicy {
+        final int slot ;
+        final long ttl ;
+
+        CachePolicy( final int slot, final long ttl ) {
+            this.slot = slot ;
+            this.ttl = ttl ;
+        }
+    }
+
+    private static Map<String, CachePolicy> makeCachePolicies(
+        final Map<String, AttributeDescriptor> getters,
+        final Map<String, Long> cacheTimes ) {
+
+        final Map<String, CachePolicy> result =
+            new HashMap<String, CachePolicy>() ;
+        for (Map.Entry<String, Long> entry : cacheTimes.entrySet()) {
+            if (getters.containsKey( entry.getKey() )) {
+                result.put( entry.getKey(), new CachePolicy( result.size(),
+                    entry.getValue() ) ) ;
+            }
+        }
+
+        return result ;
+    }
+
+    /** Create the AttributeValueCache for an MBean with this skeleton, or
+     * return null if no attribute is read through the cache.
+     */
+    AttributeValueCache makeAttributeValueCache() {
+        return cachePolicies.isEmpty()
+            ? null : new AttributeValueCache( cachePolicies.size() ) ;
+    }
+
+    /** Discard any value of attribute name in cache, which may be null.
+     */
+    void invalidate(final AttributeValueCache cache, final String name) {
+        final CachePolicy policy = cache == null
+            ? null : cachePolicies.get(name);
+        if (policy != null) {
+            cache.invalidate(policy.slot);
+        }
+    }
+
+    // Read through the MBean's cache if the attribute has a
+    // currencyTimeLimit or coalesceReads, so that concurrent reads of it
+    // are coalesced into one call of its getter.  Any other attribute
+    // calls its getter directly.
+    private Object read(final AttributeDescriptor getter, final FacetAccessor fa,
+        final AttributeValueCache cache)
+        throws MBeanException, ReflectionException {
+
+        if (cache != null) {
+            final CachePolicy policy = cachePolicies.get(getter.id());
+            if (policy != null) {
+                return cache.get(policy.slot, policy.ttl, getter, fa);
+            }
+        }
+
+        return getter.get(fa);
+    }
+
     @TraceRuntime
     public Object getAttribute(FacetAccessor fa, String name)
 	throws AttributeNotFoundException, MBeanException, ReflectionException {
 
+        return getAttribute(fa, null, name);
+    }
+
+    @TraceRuntime
+    Object getAttribute(FacetAccessor fa, AttributeValueCache cache,
+        String name)
+	throws AttributeNotFoundException, MBeanException, ReflectionException {
+
         AttributeDescriptor getter = getters.get(name);
         if (getter == null) {
             throw Exceptions.self.couldNotFindAttribute(name);
         }
-        Object result = getter.get(fa);
+        Object result = read(getter, fa, cache);
 
 	return result;
     }
@@ -563,19 +1063,38 @@ public class MBeanSkeleton {
 	throws AttributeNotFoundException, InvalidAttributeValueException,
 	MBeanException, ReflectionException {
 
+        setAttribute(emitter, true, fa, attribute);
+    }
+
+    /** Set attribute, and send an AttributeChangeNotification from emitter
+     * only if notify is true.  Without a notification, the old value is
+     * not read.
+     */
+    @TraceRuntime
+    void setAttribute(final NotificationBroadcasterSupport emitter,
+        final boolean notify, final FacetAccessor fa,
+        final Attribute attribute)
+	throws AttributeNotFoundException, InvalidAttributeValueException,
+	MBeanException, ReflectionException {
+
         final String name = attribute.getName();
         final Object value = attribute.getValue();
+        final AttributeDescriptor setter = setters.get(name);
+        if (setter == null) {
+            throw Exceptions.self.couldNotFindWritableAttribute(name);
+        }
+
+        if (!notify) {
+            setter.set(fa, value);
+            return;
+        }
+
         final AttributeDescriptor getter = getters.get(name);
         final Object oldValue = (getter == null)
             ? null : getter.get(fa);
 
         describe( "oldValue", oldValue ) ;
 
-        final AttributeDescriptor setter = setters.get(name);
-        if (setter == null) {
-            throw Exceptions.self.couldNotFindWritableAttribute(name);
-        }
-
         setter.set(fa, value ) ;
 
         AttributeChangeNotification notification =
@@ -593,12 +1112,26 @@ public class MBeanSkeleton {
 
     @TraceRuntime
     public AttributeList getAttributes(FacetAccessor fa, String[] attributes) {
-        AttributeList result = new AttributeList();
-        for (String str : attributes) {
+        return getAttributes(fa, null, attributes);
+    }
+
+    @TraceRuntime
+    AttributeList getAttributes(FacetAccessor fa, AttributeValueCache cache,
+        String[] attributes) {
+
+        final AttributeDescriptor[] descs = attributeIndex.get( attributes ) ;
+        final AttributeList result = new AttributeList( descs.length );
+        for (int ctr=0; ctr<descs.length; ctr++) {
+            final AttributeDescriptor getter = descs[ctr] ;
+            final String str = attributes[ctr] ;
             Object value = null;
 
             try {
-                value = getAttribute(fa, str);
+                if (getter == null) {
+                    throw Exceptions.self.couldNotFindAttribute(str);
+                }
+
+                value = read(getter, fa, cache);
             } catch (JMException ex) {
                 Exceptions.self.attributeGettingError(ex, str);
             }
@@ -622,13 +1155,21 @@ public class MBeanSkeleton {
 	final NotificationBroadcasterSupport emitter,
 	final FacetAccessor fa, final AttributeList attributes) {
 
+        return setAttributes(emitter, true, fa, attributes);
+    }
+
+    @TraceRuntime
+    AttributeList setAttributes(final NotificationBroadcasterSupport emitter,
+        final boolean notify, final FacetAccessor fa,
+        final AttributeList attributes) {
+
 	AttributeList result = new AttributeList();
 
         for (Object elem : attributes) {
             Attribute attr = (Attribute) elem;
 
             try {
-                setAttribute(emitter, fa, attr);
+                setAttribute(emitter, notify, fa, attr);
                 result.add(attr);
             } catch (JMException ex) {
                 Exceptions.self.attributeSettingError(ex, attr.getName());
@@ -642,22 +1183,20 @@ public class MBeanSkeleton {
     public Object invoke(FacetAccessor fa, String actionName, Object params[],
 	String sig[]) throws MBeanException, ReflectionException {
 
-	final List<String> signature = Arrays.asList(sig);
-	final List<Object> parameters = Arrays.asList(params);
-
-        final Map<List<String>, Operation> opMap = operations.get(
-            actionName);
-        if (opMap == null) {
-            throw Exceptions.self.couldNotFindOperation(actionName);
-        }
+        final String[] signature = (sig == null) ? NO_STRINGS : sig ;
+        final Object[] parameters = (params == null) ? NO_OBJECTS : params ;
 
-        final Operation op = opMap.get(signature);
+        final Operation op = operationIndex.get(actionName, signature);
         if (op == null) {
+            if (!operations.containsKey(actionName)) {
+                throw Exceptions.self.couldNotFindOperation(actionName);
+            }
+
             throw Exceptions.self.couldNotFindOperationAndSignature(
-                actionName, signature);
+                actionName, Arrays.asList(signature));
         }
 
-        Object result = op.evaluate(fa, parameters);
+        Object result = op.invoke(fa, parameters);
 
 	return result;
     }
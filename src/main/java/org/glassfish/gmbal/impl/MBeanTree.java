@@ -40,11 +40,17 @@
 
 package org.glassfish.gmbal.impl;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
 import javax.management.MBeanRegistrationException;
 import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
@@ -61,24 +67,31 @@ import org.glassfish.pfl.tf.spi.annotation.InfoMethod;
 
 /** Represents the collection of DynamicMBeanImpls that we have registered with
  * a ManagedObjectManager.
+ * <p>
+ * The object and ObjectName indexes are concurrent maps, so lookups never
+ * block.  Registration and unregistration only lock the MBeanImpl of the
+ * parent whose children are changing, so that changes in unrelated subtrees
+ * can proceed at the same time.  setRoot and clear are still serialized on
+ * the tree.
  *
  * @author ken
  */
 @TraceRegistration
 public class MBeanTree {
-    private Object root = null ;
-    private MBeanImpl rootEntity = null ;
-    private Map<Object,MBeanImpl> objectMap ;
-    private Map<ObjectName,Object> objectNameMap ;
+    private volatile Object root = null ;
+    private volatile MBeanImpl rootEntity = null ;
+    private final ConcurrentMap<Object,MBeanImpl> objectMap ;
+    private final ConcurrentMap<ObjectName,Object> objectNameMap ;
     private String domain ;
     private ObjectName rootParentName ;
     private String rootParentPrefix ;
     private String nullParentsParentPath ;
+    private String rootObjectNamePrefix ; // domain:nullParentsParentPath
     private String typeString ; // What string is used for the type of the 
                                 // type name/value pair?
     private ManagedObjectManagerInternal mom ;
     private JMXRegistrationManager jrm ;
-    private boolean suppressReport = false ;
+    private volatile boolean suppressReport = false ;
     
     private void addToObjectMaps( MBeanImpl mbean ) {
         ObjectName oname = mbean.objectName() ;
@@ -91,10 +104,31 @@ public class MBeanTree {
     private void removeFromObjectMaps( MBeanImpl mbean ) {
         ObjectName oname = mbean.objectName() ;
         for (Object obj : mbean.facets() ) {
-            objectMap.remove( obj ) ;
+            objectMap.remove( obj, mbean ) ;
         }
         
-        objectNameMap.remove( oname ) ;
+        objectNameMap.remove( oname, mbean.target() ) ;
+    }
+
+    // Atomically claim both the target object and the ObjectName for mbean,
+    // or fail without changing either map.
+    private void reserveInObjectMaps( MBeanImpl mbean ) {
+        final Object obj = mbean.target() ;
+        final ObjectName oname = mbean.objectName() ;
+
+        MBeanImpl oldMB = objectMap.putIfAbsent( obj, mbean ) ;
+        if (oldMB != null) {
+            throw Exceptions.self.objectAlreadyRegistered(obj, oldMB) ;
+        }
+
+        Object oldObj = objectNameMap.putIfAbsent( oname, obj ) ;
+        if (oldObj != null) {
+            objectMap.remove( obj, mbean ) ;
+            throw Exceptions.self.objectAlreadyRegistered( obj,
+                objectMap.get( oldObj ) ) ;
+        }
+
+        addToObjectMaps( mbean ) ;
     }
 
     public synchronized GmbalMBean setRoot( Object root, String rootName ) {
@@ -146,7 +180,7 @@ public class MBeanTree {
 
         return rootMB ;
     }
-    public synchronized Object getRoot() {
+    public Object getRoot() {
         return root ;
     }
 
@@ -185,6 +219,15 @@ public class MBeanTree {
         final String domain, 
         final ObjectName rootParentName,
         final String typeString ) {
+
+        this( mom, domain, rootParentName, typeString, null ) ;
+    }
+
+    public MBeanTree( final ManagedObjectManagerInternal mom,
+        final String domain, 
+        final ObjectName rootParentName,
+        final String typeString,
+        final Executor asyncExecutor ) {
         
         this.mom = mom ;
         this.domain = domain ;
@@ -197,22 +240,28 @@ public class MBeanTree {
             nullParentsParentPath = AMX.PARENT_PATH_KEY + "="
                 + rootParentPrefix + "," ;
         }
+        rootObjectNamePrefix = domain + ":" + nullParentsParentPath ;
 
         this.typeString = typeString ;
-        objectMap = new HashMap<Object,MBeanImpl>() ;
-        objectNameMap = new HashMap<ObjectName,Object>() ;
-        jrm = new JMXRegistrationManager( mom, rootParentName ) ;
+        objectMap = new ConcurrentHashMap<Object,MBeanImpl>() ;
+        objectNameMap = new ConcurrentHashMap<ObjectName,Object>() ;
+        jrm = new JMXRegistrationManager( mom, rootParentName,
+            asyncExecutor ) ;
     }
 
-    synchronized void suspendRegistration() {
+    void suspendRegistration() {
         jrm.suspendRegistration();
     }
 
-    synchronized void resumeRegistration() {
+    void resumeRegistration() {
         jrm.resumeRegistration() ;
     }
 
-    public synchronized FacetAccessor getFacetAccessor(Object obj) {
+    void setRegistrationExecutor( Executor executor ) {
+        jrm.setRegistrationExecutor( executor ) ;
+    }
+
+    public FacetAccessor getFacetAccessor(Object obj) {
         return objectMap.get( obj ) ;
     }
     
@@ -229,11 +278,36 @@ public class MBeanTree {
         throw Exceptions.self.notPartOfThisTree(entity) ;
     }
 
+    private static boolean needsQuoting( String name ) {
+        final int len = name.length();
+        for (int i = 0; i < len; i++) {
+            switch (name.charAt(i)) {
+                case '\n':
+                case '\\':
+                case '\"':
+                case '*':
+                case '?':
+                case ':' :
+                case '=' :
+                case ',' :
+                    return true ;
+            }
+        }
+
+        return false ;
+    }
+
     static String getQuotedName( String name ) {
         // Adapted from the ObjectName.quote method.
         // Here we only quote if needed, and save a lot of
         // extra processing for String.equals or regex.
 
+        // Most names need no quoting, so check for that first without
+        // allocating anything.
+        if (!needsQuoting( name )) {
+            return name ;
+        }
+
         // Allow a little extra space for quoting.  buf will re-size
         // if necessary.
         final StringBuilder buf = new StringBuilder( name.length() + 10 );
@@ -274,9 +348,10 @@ public class MBeanTree {
         }
     }
 
-    private Map<String,String> typePartMap = new WeakHashMap<String,String>() ;
+    private final ConcurrentMap<String,String> typePartMap =
+        new ConcurrentHashMap<String,String>() ;
 
-    private synchronized String getTypePart( String type ) {
+    private String getTypePart( String type ) {
         String result = typePartMap.get( type ) ;
         if (result == null) {
             StringBuilder sb = new StringBuilder() ;
@@ -285,6 +360,7 @@ public class MBeanTree {
             sb.append( getQuotedName( type ) ) ;
             result = sb.toString() ;
 
+            // Racing threads compute the same string, so either may win.
             typePartMap.put( type, result ) ;
         }
 
@@ -295,7 +371,7 @@ public class MBeanTree {
     private void describe( String msg, Object data ) {}
 
     @TraceRegistration
-    public synchronized ObjectName objectName( MBeanImpl parent,
+    public ObjectName objectName( MBeanImpl parent,
         String type, String name ) 
         throws MalformedObjectNameException {
         ObjectName oname = null ;
@@ -304,36 +380,36 @@ public class MBeanTree {
             checkCorrectRoot( parent ) ;
         }
 
-        StringBuilder result = new StringBuilder() ;
-
-        result.append( domain ) ;
-        result.append( ":" ) ;
-
-        // pp
-        String ppPart ;
+        // domain and pp are cached per parent, and type is cached per type.
+        String prefix ;
         if (parent == null) {
-            ppPart = nullParentsParentPath ;
+            prefix = rootObjectNamePrefix ;
         } else {
-            ppPart = parent.getParentPathPart( rootParentPrefix ) ;
+            prefix = parent.getObjectNamePrefix( domain, rootParentPrefix ) ;
         }
 
-        describe( "ppPart", ppPart ) ;
-        result.append( ppPart ) ;
+        describe( "prefix", prefix ) ;
 
-        // type
         String typePart = getTypePart( type ) ;
         describe( "typePart", typePart ) ;
-        result.append( typePart ) ;
 
+        String on ;
         // name: this is not a good candidate for caching
         if (name.length() > 0) {
+            final String qname = getQuotedName( name ) ;
+            StringBuilder result = new StringBuilder( prefix.length()
+                + typePart.length() + qname.length() + 6 ) ;
+            result.append( prefix ) ;
+            result.append( typePart ) ;
             result.append( ',') ;
             result.append( AMX.NAME_KEY ) ;
             result.append( "=" ) ;
-            result.append( getQuotedName( name ) ) ;
+            result.append( qname ) ;
+            on = result.toString() ;
+        } else {
+            on = prefix.concat( typePart ) ;
         }
 
-        String on = result.toString() ;
         try {
             oname = new ObjectName( on ) ;
         } catch (MalformedObjectNameException exc) {
@@ -359,12 +435,43 @@ public class MBeanTree {
     }
 
     @TraceRegistration
-    public synchronized GmbalMBean register(
+    public GmbalMBean register(
         final MBeanImpl parentEntity,
         final Object obj, 
         final MBeanImpl mb ) throws InstanceAlreadyExistsException, 
         MBeanRegistrationException, NotCompliantMBeanException, 
         MalformedObjectNameException {
+
+        addToTree( parentEntity, obj, mb, false ) ;
+        return mb ;
+    }
+
+    /** Same as register, except that the JMX registration is only queued:
+     * the tree is updated before this method returns, but the MBean is
+     * registered with the MBeanServer later.
+     *
+     * @return A Future that completes with mb once it is registered with
+     * the MBeanServer.
+     */
+    @TraceRegistration
+    public Future<GmbalMBean> registerAsync(
+        final MBeanImpl parentEntity,
+        final Object obj, 
+        final MBeanImpl mb ) throws InstanceAlreadyExistsException, 
+        MBeanRegistrationException, NotCompliantMBeanException, 
+        MalformedObjectNameException {
+
+        return addToTree( parentEntity, obj, mb, true ) ;
+    }
+
+    // Returns null unless async is true.
+    private Future<GmbalMBean> addToTree(
+        final MBeanImpl parentEntity,
+        final Object obj, 
+        final MBeanImpl mb,
+        final boolean async ) throws InstanceAlreadyExistsException, 
+        MBeanRegistrationException, NotCompliantMBeanException, 
+        MalformedObjectNameException {
         
         MBeanImpl oldMB = objectMap.get( obj ) ;
         if (oldMB != null) {
@@ -375,49 +482,212 @@ public class MBeanTree {
             mb.name() ) ;
         mb.objectName( oname ) ;
 
-        Object oldObj = objectNameMap.get( oname ) ;
-        if (oldObj != null) {
-            throw Exceptions.self.objectAlreadyRegistered( obj,
-                objectMap.get( oldObj ) ) ;
+        // Only the parent is locked here: this keeps a concurrent
+        // unregister of the parent from missing the new child, while
+        // registrations under other parents proceed in parallel.  The
+        // JMXRegistrationManager is only called once the lock is released:
+        // it calls back into synchronized MBeanImpl methods while holding
+        // its own lock, and it may wait for the registration pipeline.
+        synchronized (parentEntity) {
+            if (objectMap.get( parentEntity.target() ) != parentEntity) {
+                throw Exceptions.self.parentNotFound( parentEntity.target() ) ;
+            }
+
+            reserveInObjectMaps( mb ) ;
+
+            boolean success = false ;
+            try {
+                parentEntity.addChild( mb ) ;
+                success = true ;
+            } finally {
+                if (!success) {
+                    removeFromObjectMaps( mb ) ;
+                }
+            }
         }
 
-        addToObjectMaps( mb ) ;
+        Future<GmbalMBean> result = null ;
+        if (async) {
+            result = jrm.registerAsync( mb ) ;
+        } else {
+            jrm.register( mb ) ;
+        }
 
-        parentEntity.addChild( mb ) ;
+        unregisterIfRemoved( mb, async ) ;
+        return result ;
+    }
 
-        jrm.register( mb ) ;
+    // Called after the JMX registration of mb was requested.  If mb was
+    // removed from the tree in the meantime, its JMX unregistration may
+    // have been requested before its registration, so request it again.
+    // Otherwise any later removal also unregisters it after it was
+    // registered.
+    private void unregisterIfRemoved( final MBeanImpl mb,
+        final boolean async ) {
 
-        return mb ;
+        if (objectMap.get( mb.target() ) != mb) {
+            try {
+                if (async) {
+                    jrm.unregisterAsync( mb ) ;
+                } else {
+                    jrm.unregister( mb ) ;
+                }
+            } catch (JMException exc) {
+                Exceptions.self.shouldNotHappen( exc ) ;
+            }
+        }
     }
 
+    /** Register a batch of MBeans that all have the same parent.
+     * ObjectNames are computed for the whole batch first, then the tree is
+     * updated while holding the parent lock once, and finally, after the
+     * lock is released, the JMX registrations are passed to the
+     * JMXRegistrationManager as a single batch.  An MBean that fails at any
+     * stage is removed from the tree again, and does not affect the rest of
+     * the batch.
+     *
+     * @param parentEntity The parent of all of the MBeans.
+     * @param mbs The MBeans to register.
+     * @return The MBeans that could not be registered, mapped to the reason.
+     */
     @TraceRegistration
-    public synchronized void unregister( Object obj ) 
-        throws InstanceNotFoundException, MBeanRegistrationException {
-        if (obj == root) {
-            root = null ;
-            rootEntity = null ;
+    public Map<MBeanImpl,Exception> registerAll( final MBeanImpl parentEntity,
+        final List<MBeanImpl> mbs ) {
+
+        final Map<MBeanImpl,Exception> failures =
+            new IdentityHashMap<MBeanImpl,Exception>() ;
+        final List<MBeanImpl> named = new ArrayList<MBeanImpl>( mbs.size() ) ;
+        for (MBeanImpl mb : mbs) {
+            try {
+                mb.objectName( objectName( parentEntity, mb.type(),
+                    mb.name() ) ) ;
+                named.add( mb ) ;
+            } catch (MalformedObjectNameException exc) {
+                failures.put( mb, exc ) ;
+            } catch (RuntimeException exc) {
+                failures.put( mb, exc ) ;
+            }
+        }
+
+        final List<MBeanImpl> added = new ArrayList<MBeanImpl>( named.size() ) ;
+        synchronized (parentEntity) {
+            if (objectMap.get( parentEntity.target() ) != parentEntity) {
+                RuntimeException exc = Exceptions.self.parentNotFound(
+                    parentEntity.target() ) ;
+                for (MBeanImpl mb : named) {
+                    failures.put( mb, exc ) ;
+                }
+
+                return failures ;
+            }
+
+            for (MBeanImpl mb : named) {
+                try {
+                    reserveInObjectMaps( mb ) ;
+                } catch (RuntimeException exc) {
+                    failures.put( mb, exc ) ;
+                    continue ;
+                }
+
+                try {
+                    parentEntity.addChild( mb ) ;
+                    added.add( mb ) ;
+                } catch (RuntimeException exc) {
+                    removeFromObjectMaps( mb ) ;
+                    failures.put( mb, exc ) ;
+                }
+            }
         }
+
+        final Map<MBeanImpl,Exception> jmxFailures = jrm.registerAll( added ) ;
+        for (MBeanImpl mb : added) {
+            final Exception exc = jmxFailures.get( mb ) ;
+            if (exc == null) {
+                unregisterIfRemoved( mb, false ) ;
+            } else {
+                synchronized (mb) {
+                    removeFromObjectMaps( mb ) ;
+                }
+
+                parentEntity.removeChild( mb ) ;
+                failures.put( mb, exc ) ;
+            }
+        }
+
+        return failures ;
+    }
+
+    @TraceRegistration
+    public void unregister( Object obj ) 
+        throws InstanceNotFoundException, MBeanRegistrationException {
+
+        removeFromTree( obj, false ) ;
+    }
+
+    /** Same as unregister, except that the JMX unregistrations are only
+     * queued: the object and its descendants are removed from the tree
+     * before this method returns.
+     *
+     * @return A Future that completes once obj and all of its descendants
+     * are unregistered from the MBeanServer.
+     */
+    @TraceRegistration
+    public Future<Void> unregisterAsync( Object obj ) 
+        throws InstanceNotFoundException, MBeanRegistrationException {
+
+        return removeFromTree( obj, true ) ;
+    }
+
+    // Returns null unless async is true.  Children are unregistered before
+    // their parent, so the parent's Future is the last one to complete.
+    private Future<Void> removeFromTree( Object obj, boolean async ) 
+        throws InstanceNotFoundException, MBeanRegistrationException {
         
         MBeanImpl mb = objectMap.get( obj ) ;
         if (mb == null) {
             throw Exceptions.self.objectNotFound( obj ) ;
         }
 
-        for (Map<String,MBeanImpl> nameToMBean : mb.children().values() ) {
+        // Removing mb from the maps while holding its lock means no new
+        // children can be added to it after we take the snapshot of its
+        // children below, and only one of several concurrent unregister
+        // calls for the same object gets past this point.
+        Map<String,Map<String,MBeanImpl>> children ;
+        synchronized (mb) {
+            if (!objectMap.remove( obj, mb )) {
+                throw Exceptions.self.objectNotFound( obj ) ;
+            }
+
+            if (obj == root) {
+                root = null ;
+                rootEntity = null ;
+            }
+
+            removeFromObjectMaps( mb ) ;
+            children = mb.children() ;
+        }
+
+        for (Map<String,MBeanImpl> nameToMBean : children.values() ) {
             for (MBeanImpl child : nameToMBean.values() ) {
-                unregister( child.target()) ;
+                removeFromTree( child.target(), async ) ;
             }
         }
 
-        removeFromObjectMaps( mb ) ;
-        jrm.unregister( mb ) ;
+        Future<Void> result = null ;
+        if (async) {
+            result = jrm.unregisterAsync( mb ) ;
+        } else {
+            jrm.unregister( mb ) ;
+        }
         
         if (mb.parent() != null) {
             mb.parent().removeChild( mb ) ;
         }
+
+        return result ;
     }
     
-    public synchronized ObjectName getObjectName( Object obj ) {
+    public ObjectName getObjectName( Object obj ) {
         // A user may be looking for the ObjectName of a GmbalMBean that
         // was returned from a register call.  If that is the case,
         // obj should be an instance of MBeanImpl, and we can go directly to
@@ -435,11 +705,11 @@ public class MBeanTree {
         }
     }
     
-    public synchronized Object getObject( ObjectName oname ) {
+    public Object getObject( ObjectName oname ) {
         return objectNameMap.get( oname ) ;
     }
     
-    public synchronized MBeanImpl getMBeanImpl( Object obj ) {
+    public MBeanImpl getMBeanImpl( Object obj ) {
         return objectMap.get( obj ) ;
     }
     
@@ -464,7 +734,7 @@ public class MBeanTree {
         return rootParentName ;
     }
 
-    synchronized void setSuppressDuplicateSetRootReport(boolean suppressReport) {
+    void setSuppressDuplicateSetRootReport(boolean suppressReport) {
         this.suppressReport = suppressReport ;
     }
 }
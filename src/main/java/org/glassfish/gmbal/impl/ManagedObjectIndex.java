@@ -0,0 +1,112 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Reads the index of ManagedObject classes written at compile time by
+ * the gmbal-processor annotation processor.  Every resource named RESOURCE
+ * that is visible from a ClassLoader contributes the classes it lists, one
+ * binary class name per line.  Blank lines and lines starting with # are
+ * ignored.
+ */
+class ManagedObjectIndex {
+    /** Must match ManagedObjectIndexProcessor.INDEX in gmbal-processor.
+     */
+    static final String RESOURCE = "META-INF/gmbal/managed-objects" ;
+
+    private ManagedObjectIndex() {}
+
+    /** Load all indexed classes visible from loader, without initializing
+     * them.  A class that cannot be loaded (for example because the index
+     * is stale) is logged and skipped.
+     */
+    static List<Class<?>> load( final ClassLoader loader ) {
+        final Set<String> names = new LinkedHashSet<String>() ;
+        try {
+            final Enumeration<URL> urls = loader.getResources( RESOURCE ) ;
+            while (urls.hasMoreElements()) {
+                read( urls.nextElement(), names ) ;
+            }
+        } catch (IOException exc) {
+            throw Exceptions.self.managedObjectIndexError( exc, RESOURCE ) ;
+        }
+
+        final List<Class<?>> result = new ArrayList<Class<?>>( names.size() ) ;
+        for (String name : names) {
+            try {
+                result.add( Class.forName( name, false, loader ) ) ;
+            } catch (ClassNotFoundException exc) {
+                Exceptions.self.indexedClassNotFound( exc, name ) ;
+            } catch (LinkageError err) {
+                Exceptions.self.indexedClassNotFound( err, name ) ;
+            }
+        }
+
+        return result ;
+    }
+
+    private static void read( final URL url, final Set<String> names )
+        throws IOException {
+
+        final BufferedReader reader = new BufferedReader(
+            new InputStreamReader( url.openStream(), "UTF-8" ) ) ;
+        try {
+            String line ;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim() ;
+                if (line.length() > 0 && !line.startsWith( "#" )) {
+                    names.add( line ) ;
+                }
+            }
+        } finally {
+            reader.close() ;
+        }
+    }
+}
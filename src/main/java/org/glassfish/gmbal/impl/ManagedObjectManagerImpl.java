@@ -57,7 +57,6 @@ import org.glassfish.pfl.basic.contain.Pair;
 import java.util.ResourceBundle ;
 import java.util.Map ;
 import java.util.HashMap ;
-import java.util.WeakHashMap ;
 import java.util.List ;
 import java.util.ArrayList ;
 import java.util.Arrays;
@@ -65,7 +64,19 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import java.io.IOException ;
 import java.io.Serializable;
@@ -92,6 +103,7 @@ import javax.management.MBeanAttributeInfo;
 
 import org.glassfish.gmbal.AMXMBeanInterface;
 import org.glassfish.gmbal.AMXClient;
+import org.glassfish.gmbal.AttributeCacheStatistics;
 import org.glassfish.gmbal.GmbalMBean ;
 import org.glassfish.gmbal.ManagedObject ;
 import org.glassfish.gmbal.Description ;
@@ -102,6 +114,7 @@ import org.glassfish.gmbal.AMXMetadata;
 import org.glassfish.gmbal.ManagedAttribute;
 import org.glassfish.gmbal.ManagedObjectManager;
 import org.glassfish.gmbal.ManagedData;
+import org.glassfish.gmbal.RegistrationResult;
 
 import org.glassfish.gmbal.typelib.EvaluatedClassAnalyzer;
 import org.glassfish.gmbal.typelib.EvaluatedClassDeclaration;
@@ -126,6 +139,20 @@ import static org.glassfish.pfl.basic.algorithm.Algorithms.* ;
 
 /* Implementation notes:
  * XXX Test attribute change notification.
+ *
+ * Concurrency: the skeleton, TypeConverter, and annotation caches are
+ * ReadMostlyWeakMaps, which keep their keys weakly and only take a shared
+ * read lock for a lookup, and the configuration fields are volatile, so
+ * that the lookups used while reading attributes (getFacetAccessor,
+ * getAnnotation, getTypeConverter on a cache hit, and so on) take no lock
+ * on the manager.
+ * Building a new TypeConverter is serialized on buildLock, because
+ * TypeConverter construction detects recursive types through a placeholder
+ * in typeConverterMap.  Skeletons are built without the lock, so that
+ * prepare can analyze several classes at once: two threads may build the
+ * same skeleton, and the first one stored is kept.  Only configuration calls
+ * that must run before createRoot, and createRoot itself, synchronize on the
+ * manager.
  */
 @TraceRegistration
 @TraceRegistrationFine
@@ -156,37 +183,41 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     @DumpIgnore
     private final String domain ;
     private final MBeanTree tree ;
-    private final Map<EvaluatedClassDeclaration,MBeanSkeleton> skeletonMap ;
-    private final Map<EvaluatedType,TypeConverter> typeConverterMap ;
-    private final Map<AnnotatedElement, Map<Class, Annotation>> addedAnnotations ;
+    private final ReadMostlyWeakMap<EvaluatedClassDeclaration,MBeanSkeleton> skeletonMap ;
+    private final ReadMostlyWeakMap<EvaluatedType,TypeConverter> typeConverterMap ;
+    private final ConcurrentMap<AnnotatedElement, Map<Class, Annotation>> addedAnnotations ;
+    private final Object buildLock = new Object() ;
     private final MBeanSkeleton amxSkeleton ;
     private final Set<String> amxAttributeNames ;
     private final ObjectRegistrationManager orm ;
 
     // All non-finals should be initialized in this order in the init() method.
-    private boolean rootCreated ;
-    private ResourceBundle resourceBundle ;
-    private MBeanServer server ;
-    private ManagedObjectManager.RegistrationDebugLevel regDebugLevel ;
-    private boolean runDebugFlag ;
-    private boolean jmxRegistrationDebugFlag ;
+    private volatile boolean rootCreated ;
+    private volatile ResourceBundle resourceBundle ;
+    private volatile MBeanServer server ;
+    private volatile ManagedObjectManager.RegistrationDebugLevel regDebugLevel ;
+    private volatile boolean runDebugFlag ;
+    private volatile boolean jmxRegistrationDebugFlag ;
+    private volatile ThreadPoolExecutor notificationExecutor ;
 
     // Maintain the list of typePrefixes in reversed sorted order, so that
     // we strip the longest prefix first.
-    private final SortedSet<String> typePrefixes = new TreeSet<String>(
-        REV_COMP ) ;
-    private boolean stripPackagePrefix = false ;
+    private final SortedSet<String> typePrefixes =
+        new ConcurrentSkipListSet<String>( REV_COMP ) ;
+    private volatile boolean stripPackagePrefix = false ;
 
     private ManagedObjectManagerImpl( final String domain,
-        final ObjectName rootParentName ) {
+        final ObjectName rootParentName, final Executor asyncExecutor ) {
 
         this.domain = domain ;
-        this.tree = new MBeanTree( this, domain, rootParentName, AMX.TYPE_KEY ) ;
+        this.tree = new MBeanTree( this, domain, rootParentName, AMX.TYPE_KEY,
+            asyncExecutor ) ;
         this.skeletonMap = 
-            new WeakHashMap<EvaluatedClassDeclaration,MBeanSkeleton>() ;
-        this.typeConverterMap = new WeakHashMap<EvaluatedType,TypeConverter>() ;
+            new ReadMostlyWeakMap<EvaluatedClassDeclaration,MBeanSkeleton>() ;
+        this.typeConverterMap =
+            new ReadMostlyWeakMap<EvaluatedType,TypeConverter>() ;
         this.addedAnnotations = 
-            new HashMap<AnnotatedElement, Map<Class, Annotation>>() ;
+            new ConcurrentHashMap<AnnotatedElement, Map<Class, Annotation>>() ;
 
         final EvaluatedClassDeclaration ecd =
             (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(
@@ -335,6 +366,39 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
 
+    // The most notifications that wait for delivery.  When there are more,
+    // the thread that sends a notification delivers it itself, which slows
+    // it down to the pace of the listeners, but may deliver that
+    // notification out of order.
+    private static final int NOTIFICATION_QUEUE_SIZE = 1024 ;
+
+    // The notifications of the MBeans of this manager are delivered in order
+    // on one daemon thread, which exits when it has been idle for a minute.
+    // The thread is created by whichever thread sends a notification first,
+    // so its context ClassLoader is cleared rather than inherited.
+    private static ThreadPoolExecutor makeNotificationExecutor() {
+        final ThreadPoolExecutor result = new ThreadPoolExecutor( 1, 1,
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>( NOTIFICATION_QUEUE_SIZE ),
+            new ThreadFactory() {
+                public Thread newThread( Runnable runnable ) {
+                    final Thread thread = new Thread( runnable,
+                        "gmbal-notification" ) ;
+                    thread.setDaemon( true ) ;
+                    AccessController.doPrivileged(
+                        new PrivilegedAction<Object>() {
+                            public Object run() {
+                                thread.setContextClassLoader( null ) ;
+                                return null ;
+                            }
+                        } ) ;
+                    return thread ;
+                }
+            }, new ThreadPoolExecutor.CallerRunsPolicy() ) ;
+        result.allowCoreThreadTimeOut( true ) ;
+        return result ;
+    }
+
     private void init() {
         this.server = AccessController.doPrivileged( 
             new PrivilegedAction<MBeanServer>() {
@@ -350,48 +414,69 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         jmxRegistrationDebugFlag = false ;
 
         tree.clear() ;
+        tree.setRegistrationExecutor( null ) ;
+        if (notificationExecutor != null) {
+            // Notifications that are already queued are still delivered.
+            notificationExecutor.shutdown() ;
+        }
+        notificationExecutor = makeNotificationExecutor() ;
         skeletonMap.clear() ;
         typeConverterMap.clear() ;
         addedAnnotations.clear() ;
+        annotationCache.clear() ;
+        annotationIndexes.clear() ;
+        memberAnnotationsAdded = false ;
 
         initializeStatisticsSupport() ;
         TimerAnnotationHelper.registerTimerClasses(this);
     }
     
     public ManagedObjectManagerImpl( final String domain ) {
-        this( domain, null ) ;
+        this( domain, null, null ) ;
         init() ;
     }
 
     public ManagedObjectManagerImpl( final ObjectName rootParentName ) {
-        this( rootParentName.getDomain(), rootParentName ) ;
+        this( rootParentName.getDomain(), rootParentName, null ) ;
+        init() ;
+    }
+
+    public ManagedObjectManagerImpl( final String domain,
+        final Executor asyncExecutor ) {
+        this( domain, null, asyncExecutor ) ;
+        init() ;
+    }
+
+    public ManagedObjectManagerImpl( final ObjectName rootParentName,
+        final Executor asyncExecutor ) {
+        this( rootParentName.getDomain(), rootParentName, asyncExecutor ) ;
         init() ;
     }
 
     @TraceRegistration
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         // Can be called anytime
         init() ;
     }
 
-    private synchronized void checkRootNotCreated( String methodName ) {
+    private void checkRootNotCreated( String methodName ) {
         if (rootCreated) {
             throw Exceptions.self.createRootCalled(methodName) ;
         }
     }
 
-    private synchronized void checkRootCreated( String methodName ) {
+    private void checkRootCreated( String methodName ) {
         if (!rootCreated) {
             throw Exceptions.self.createRootNotCalled(methodName) ;
         }
     }
 
-    public synchronized void suspendJMXRegistration() {
+    public void suspendJMXRegistration() {
         // Can be called anytime
         tree.suspendRegistration() ;
     }
 
-    public synchronized void resumeJMXRegistration() {
+    public void resumeJMXRegistration() {
         // Can be called anytime
         tree.resumeRegistration();
     }
@@ -407,7 +492,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         return "ManagedObjectManagerImpl[domain=" + domain + "]" ;
     }
 
-    public synchronized ObjectName getRootParentName() {
+    public ObjectName getRootParentName() {
         checkRootCreated("getRootParentName");
         return tree.getRootParentName() ;
     }
@@ -453,7 +538,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         return result ;
     }
 
-    public synchronized Object getRoot() {
+    public Object getRoot() {
         // Can be called anytime.
         return tree.getRoot() ;
     }
@@ -465,49 +550,146 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     private void describe( String msg, Object data ) {}
 
     @TraceRegistration
-    private synchronized MBeanSkeleton getSkeleton( EvaluatedClassDeclaration cls ) {
+    private MBeanSkeleton getSkeleton( EvaluatedClassDeclaration cls ) {
         // can be called anytime, otherwise we can't create the root itself!
-            MBeanSkeleton result = skeletonMap.get( cls ) ;
-
-            boolean newSkeleton = result == null ;
-            if (newSkeleton) {
-                message( "Skeleton not found" ) ;
-                
-                Pair<EvaluatedClassDeclaration,EvaluatedClassAnalyzer> pair = 
-                    getClassAnalyzer( cls, ManagedObject.class ) ;
-                EvaluatedClassAnalyzer ca = pair.second() ;
-
-                EvaluatedClassDeclaration annotatedClass = pair.first() ;
-                describe( "Annotated class for skeleton", annotatedClass ) ;
-                if (annotatedClass == null) {
-                    throw Exceptions.self.managedObjectAnnotationNotFound(
-                        cls.name() ) ;
-                }
+        MBeanSkeleton result = skeletonMap.get( cls ) ;
+        if (result != null) {
+            return result ;
+        }
+
+        message( "Skeleton not found" ) ;
+
+        Pair<EvaluatedClassDeclaration,EvaluatedClassAnalyzer> pair =
+            getClassAnalyzer( cls, ManagedObject.class ) ;
+        EvaluatedClassAnalyzer ca = pair.second() ;
+
+        EvaluatedClassDeclaration annotatedClass = pair.first() ;
+        describe( "Annotated class for skeleton", annotatedClass ) ;
+        if (annotatedClass == null) {
+            throw Exceptions.self.managedObjectAnnotationNotFound(
+                cls.name() ) ;
+        }
+
+        MBeanSkeleton skel = new MBeanSkeleton( cls, ca, this ) ;
+
+        if (amxSkeleton == null) {
+            // Can't compose amxSkeleton with itself!
+            result = skel ;
+        } else {
+            result = amxSkeleton.compose( skel ) ;
+        }
+
+        // Another thread may have built the same skeleton meanwhile.
+        final MBeanSkeleton previous = skeletonMap.putIfAbsent( cls, result ) ;
+        if (previous != null) {
+            return previous ;
+        }
+
+        describe( "Skeleton",
+            new DelayedObjectToString( result, myObjectUtil ) ) ;
+
+        return result ;
+    }
+
+    public void prepare( final Class<?>... classes ) {
+        checkRootCreated( "prepare" ) ;
+
+        final int threads = Math.min( classes.length,
+            Runtime.getRuntime().availableProcessors() ) ;
+        if (threads <= 1) {
+            for (Class<?> cls : classes) {
+                prepare( cls ) ;
+            }
+
+            return ;
+        }
 
-                MBeanSkeleton skel = new MBeanSkeleton( cls, ca, this ) ;
+        final List<Callable<MBeanSkeleton>> tasks =
+            new ArrayList<Callable<MBeanSkeleton>>( classes.length ) ;
+        for (final Class<?> cls : classes) {
+            tasks.add( new Callable<MBeanSkeleton>() {
+                public MBeanSkeleton call() {
+                    return prepare( cls ) ;
+                }
+            } ) ;
+        }
 
-                if (amxSkeleton == null) {
-                    // Can't compose amxSkeleton with itself!
-                    result = skel ;
-                } else {
-                    result = amxSkeleton.compose( skel ) ;
+        final ExecutorService exec = Executors.newFixedThreadPool( threads,
+            new ThreadFactory() {
+                public Thread newThread( Runnable runnable ) {
+                    final Thread result = new Thread( runnable,
+                        "gmbal-prepare" ) ;
+                    result.setDaemon( true ) ;
+                    return result ;
                 }
+            } ) ;
 
-                skeletonMap.put( cls, result ) ;
+        boolean interrupted = false ;
+        try {
+            List<Future<MBeanSkeleton>> results = null ;
+            while (results == null) {
+                try {
+                    results = exec.invokeAll( tasks ) ;
+                } catch (InterruptedException exc) {
+                    interrupted = true ;
+                }
             }
 
-            if (newSkeleton) {
-                describe( "Skeleton",
-                    new DelayedObjectToString( result, myObjectUtil ) ) ;
+            // invokeAll has waited for every task, so get does not block.
+            for (Future<MBeanSkeleton> future : results) {
+                try {
+                    future.get() ;
+                } catch (InterruptedException exc) {
+                    interrupted = true ;
+                } catch (ExecutionException exc) {
+                    final Throwable cause = exc.getCause() ;
+                    if (cause instanceof Error) {
+                        throw (Error)cause ;
+                    } else {
+                        throw (RuntimeException)cause ;
+                    }
+                }
             }
-            
-            return result ;
+        } finally {
+            exec.shutdown() ;
+            if (interrupted) {
+                Thread.currentThread().interrupt() ;
+            }
+        }
+    }
+
+    public void prepareIndexed( final ClassLoader loader ) {
+        checkRootCreated( "prepareIndexed" ) ;
+
+        final List<Class<?>> classes = ManagedObjectIndex.load( loader ) ;
+        prepare( classes.toArray( new Class<?>[classes.size()] ) ) ;
+    }
+
+    private MBeanSkeleton prepare( final Class<?> cls ) {
+        return getSkeleton( (EvaluatedClassDeclaration)
+            TypeEvaluator.getEvaluatedType( cls ) ) ;
     }
 
     @TraceRegistrationFine
-    public synchronized TypeConverter getTypeConverter( EvaluatedType type ) {
+    public TypeConverter getTypeConverter( EvaluatedType type ) {
         // Can be called anytime
         
+        TypeConverter result = typeConverterMap.get( type ) ;
+        if (result != null && !(result instanceof
+            TypeConverterImpl.TypeConverterPlaceHolderImpl)) {
+            return result ;
+        }
+
+        // Either there is no TypeConverter yet, or another thread (or this
+        // one, for a recursive type) is building it.  Building happens under
+        // buildLock, so a thread that is not the builder waits here until
+        // the real TypeConverter is available.
+        synchronized (buildLock) {
+            return makeTypeConverter( type ) ;
+        }
+    }
+
+    private TypeConverter makeTypeConverter( EvaluatedType type ) {
         TypeConverter result = null;
         
         boolean newTypeConverter = false ;
@@ -589,7 +771,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     // XXX Needs Test for the AMX_TYPE case
-    public synchronized String getTypeName( Class<?> cls, String fieldName,
+    public String getTypeName( Class<?> cls, String fieldName,
         String nameFromAnnotation ) {
         // Can be called anytime
         String result = getAMXTypeFromField( cls, fieldName ) ;
@@ -625,7 +807,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
 
-    public synchronized boolean isManagedObject( Object obj ) {
+    public boolean isManagedObject( Object obj ) {
         final EvaluatedClassDeclaration cdecl =
             (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(
                 obj.getClass() ) ;
@@ -636,28 +818,39 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistration
-    public synchronized MBeanImpl constructMBean( MBeanImpl parentEntity,
+    public MBeanImpl constructMBean( MBeanImpl parentEntity,
         Object obj, String name ) {
 
         // Can be called anytime
+        final EvaluatedClassDeclaration cdecl = 
+            (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(
+                obj.getClass() ) ;
+
+        return constructMBean( parentEntity, obj, name, getSkeleton( cdecl ),
+            getAMXMetadata( cdecl ) ) ;
+    }
+
+    private AMXMetadata getAMXMetadata( EvaluatedClassDeclaration cdecl ) {
+        AMXMetadata amd = getFirstAnnotationOnClass( cdecl, AMXMetadata.class ) ;
+        if (amd == null) {
+            amd = getDefaultAMXMetadata() ;
+        }
+
+        return amd ;
+    }
+
+    private MBeanImpl constructMBean( MBeanImpl parentEntity,
+        Object obj, String name, MBeanSkeleton skel, AMXMetadata amd ) {
+
         MBeanImpl result = null ;
         
         String objName = name ;
         try {
-            final Class<?> cls = obj.getClass() ;
-            final EvaluatedClassDeclaration cdecl = 
-                (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(cls) ;
-            final MBeanSkeleton skel = getSkeleton( cdecl ) ;
-
-            AMXMetadata amd = getFirstAnnotationOnClass( cdecl, AMXMetadata.class ) ;
-            if (amd == null) {
-                amd = getDefaultAMXMetadata() ;
-            }
-
             String type = skel.getType() ;
             describe( "Stripped type", type ) ;
 
-            result = new MBeanImpl( skel, obj, server, type ) ;
+            result = new MBeanImpl( skel, obj, server, type,
+                notificationExecutor ) ;
             
             if (objName == null) {
                 objName = skel.getNameValue( result ) ;
@@ -688,9 +881,54 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         return result ;
     }
     
+    @TraceRegistration
+    public Future<GmbalMBean> registerAsync( final Object parent,
+        final Object obj, final String name ) {
+
+        checkRootCreated("registerAsync");
+        if (obj instanceof String) {
+            throw Exceptions.self.objStringWrongRegisterCall( (String)obj ) ;
+        }
+
+        try {
+            MBeanImpl parentEntity = tree.getParentEntity(parent) ;
+
+            final MBeanImpl mb = constructMBean( parentEntity, obj, name ) ;
+            
+            return tree.registerAsync( parentEntity, obj, mb) ;
+    	} catch (JMException exc) {
+            throw Exceptions.self.exceptionInRegister(exc) ;
+        }
+    }
+
+    public Future<GmbalMBean> registerAsync( final Object parent,
+        final Object obj ) {
+
+        return registerAsync( parent, obj, null ) ;
+    }
+
+    public Future<GmbalMBean> registerAtRootAsync(Object obj, String name) {
+        return registerAsync( tree.getRoot(), obj, name ) ;
+    }
+
+    public Future<GmbalMBean> registerAtRootAsync(Object obj) {
+        return registerAsync( tree.getRoot(), obj, null ) ;
+    }
+
+    @TraceRegistration
+    public Future<Void> unregisterAsync( Object obj ) {
+        checkRootCreated("unregisterAsync");
+
+        try {
+            return tree.unregisterAsync( obj ) ;
+        } catch (JMException exc) {
+            throw Exceptions.self.exceptionInUnregister(exc) ;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @TraceRegistration
-    public synchronized GmbalMBean register( final Object parent,
+    public GmbalMBean register( final Object parent,
         final Object obj, final String name ) {
 
         checkRootCreated("register");
@@ -710,23 +948,91 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
     
-    public synchronized GmbalMBean register( final Object parent,
+    public GmbalMBean register( final Object parent,
         final Object obj ) {
 
         return register( parent, obj, null ) ;
     }
 
     
-    public synchronized GmbalMBean registerAtRoot(Object obj, String name) {
+    public GmbalMBean registerAtRoot(Object obj, String name) {
         return register( tree.getRoot(), obj, name ) ;
     }
 
-    public synchronized GmbalMBean registerAtRoot(Object obj) {
+    public GmbalMBean registerAtRoot(Object obj) {
         return register( tree.getRoot(), obj, null ) ;
     }
 
     @TraceRegistration
-    public synchronized void unregister( Object obj ) {
+    public List<RegistrationResult> registerAll( final Object parent,
+        final Collection<?> objs ) {
+
+        checkRootCreated("registerAll");
+        final MBeanImpl parentEntity = tree.getParentEntity(parent) ;
+
+        // Objects of the same class share a skeleton and AMXMetadata, so
+        // only look them up once per class for the whole batch.
+        final Map<Class<?>,MBeanSkeleton> skeletons =
+            new HashMap<Class<?>,MBeanSkeleton>() ;
+        final Map<Class<?>,AMXMetadata> metadata =
+            new HashMap<Class<?>,AMXMetadata>() ;
+
+        final RegistrationResult[] results = new RegistrationResult[objs.size()] ;
+        final List<MBeanImpl> mbs = new ArrayList<MBeanImpl>( objs.size() ) ;
+        final List<Integer> positions = new ArrayList<Integer>( objs.size() ) ;
+        int index = 0 ;
+        for (Object obj : objs) {
+            try {
+                if (obj instanceof String) {
+                    throw Exceptions.self.objStringWrongRegisterCall(
+                        (String)obj ) ;
+                }
+
+                final Class<?> cls = obj.getClass() ;
+                MBeanSkeleton skel = skeletons.get( cls ) ;
+                if (skel == null) {
+                    final EvaluatedClassDeclaration cdecl =
+                        (EvaluatedClassDeclaration)TypeEvaluator
+                            .getEvaluatedType(cls) ;
+                    skel = getSkeleton( cdecl ) ;
+                    skeletons.put( cls, skel ) ;
+                    metadata.put( cls, getAMXMetadata( cdecl ) ) ;
+                }
+
+                mbs.add( constructMBean( parentEntity, obj, null, skel,
+                    metadata.get( cls ) ) ) ;
+                positions.add( index ) ;
+            } catch (RuntimeException exc) {
+                results[index] = RegistrationResult.failure( obj, exc ) ;
+            }
+
+            index++ ;
+        }
+
+        final Map<MBeanImpl,Exception> failures =
+            tree.registerAll( parentEntity, mbs ) ;
+        for (int ctr=0; ctr<mbs.size(); ctr++) {
+            final MBeanImpl mb = mbs.get( ctr ) ;
+            final Exception exc = failures.get( mb ) ;
+            final RegistrationResult res ;
+            if (exc == null) {
+                res = RegistrationResult.success( mb.target(), mb ) ;
+            } else if (exc instanceof RuntimeException) {
+                res = RegistrationResult.failure( mb.target(),
+                    (RuntimeException)exc ) ;
+            } else {
+                res = RegistrationResult.failure( mb.target(),
+                    Exceptions.self.exceptionInRegister( exc ) ) ;
+            }
+
+            results[positions.get( ctr )] = res ;
+        }
+
+        return Arrays.asList( results ) ;
+    }
+
+    @TraceRegistration
+    public void unregister( Object obj ) {
         checkRootCreated("unregister");
 
         try {
@@ -737,7 +1043,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistration
-    public synchronized ObjectName getObjectName( Object obj ) {
+    public ObjectName getObjectName( Object obj ) {
         checkRootCreated("getObjectName");
 
         if (obj instanceof ObjectName) {
@@ -763,7 +1069,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistration
-    public synchronized Object getObject( ObjectName oname ) {
+    public Object getObject( ObjectName oname ) {
         checkRootCreated("getObject");
         
         Object result = tree.getObject( oname ) ;
@@ -771,7 +1077,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         return result ;
     }
     
-    public synchronized FacetAccessor getFacetAccessor( Object obj ) {
+    public FacetAccessor getFacetAccessor( Object obj ) {
         // Can be called anytime
         MBeanImpl mb = tree.getMBeanImpl( obj ) ;
         if (mb != null) {
@@ -781,7 +1087,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }   
     
-    public synchronized String getDomain() {
+    public String getDomain() {
         // Can be called anytime
 	return domain ;
     }
@@ -791,7 +1097,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
 	this.server = server ;
     }
 
-    public synchronized MBeanServer getMBeanServer() {
+    public MBeanServer getMBeanServer() {
         // Can be called anytime
 	return server ;
     }
@@ -801,12 +1107,12 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         this.resourceBundle = rb ;
     }
 
-    public synchronized ResourceBundle getResourceBundle() {
+    public ResourceBundle getResourceBundle() {
         // Can be called anytime
         return resourceBundle ;
     }
     
-    public synchronized String getDescription( EvaluatedDeclaration element ) {
+    public String getDescription( EvaluatedDeclaration element ) {
         // Can be called anytime
         Description desc ;
         if (element instanceof EvaluatedClassDeclaration) {
@@ -845,7 +1151,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         if (map == null) {
             message( "Creating new Map<Class,Annotation>" ) ;
 
-            map = new HashMap<Class, Annotation>() ;
+            map = new ConcurrentHashMap<Class, Annotation>() ;
             addedAnnotations.put( element, map ) ;
         }
 
@@ -859,6 +1165,12 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
 
         map.put( annotationType, annotation ) ;
+
+        // Indexes computed before this call do not include annotation.
+        if (!(element instanceof Class)) {
+            memberAnnotationsAdded = true ;
+            annotationIndexes.clear() ;
+        }
     }
 
     @TraceRegistration
@@ -882,8 +1194,9 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
 
-    private Map<AnnotatedElement,Map<Class,Annotation>> annotationCache =
-        new WeakHashMap<AnnotatedElement,Map<Class,Annotation>>() ;
+    private final ReadMostlyWeakMap<AnnotatedElement,Map<Class,Annotation>>
+        annotationCache =
+            new ReadMostlyWeakMap<AnnotatedElement,Map<Class,Annotation>>() ;
 
     private Map<Class,Annotation> getAllAnnotations( final Class cls ) {
         Map<Class,Annotation> result = annotationCache.get( cls ) ;
@@ -914,16 +1227,72 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
                 }
             }) ;
 
-            annotationCache.put( cls, res ) ;
-            result = res ;
+            // Two threads may compute the same map: keep the first.
+            result = annotationCache.putIfAbsent( cls, res ) ;
+            if (result == null) {
+                result = res ;
+            }
+        }
+
+        return result ;
+    }
+
+    // Per-class index of the gmbal annotations on methods and fields,
+    // merged with addedAnnotations.  Only used once an annotation has been
+    // added to a method or field, and cleared whenever that happens.
+    private final ReadMostlyWeakMap<Class<?>,AnnotationIndex> annotationIndexes =
+        new ReadMostlyWeakMap<Class<?>,AnnotationIndex>() ;
+    private volatile boolean memberAnnotationsAdded ;
+
+    private AnnotationIndex getAnnotationIndex( final Class<?> cls ) {
+        if (!memberAnnotationsAdded) {
+            return AnnotationIndex.declared( cls ) ;
+        }
+
+        AnnotationIndex result = annotationIndexes.get( cls ) ;
+        if (result == null) {
+            final AnnotationIndex index = new AnnotationIndex( cls,
+                addedAnnotations ) ;
+
+            // Two threads may compute the same index: keep the first.
+            result = annotationIndexes.putIfAbsent( cls, index ) ;
+            if (result == null) {
+                result = index ;
+            }
         }
 
         return result ;
     }
 
+    // Return the declaring class of a Method or Field, or null if element
+    // cannot be looked up in an AnnotationIndex.
+    private static Class<?> declaringClass( final AnnotatedElement element ) {
+        if (element instanceof Method) {
+            return ((Method)element).getDeclaringClass() ;
+        } else if (element instanceof Field) {
+            return ((Field)element).getDeclaringClass() ;
+        } else {
+            return null ;
+        }
+    }
+
+    private boolean hasAnnotation( final AnnotatedElement element,
+        final Class<? extends Annotation> type ) {
+
+        final int bit = AnnotationIndex.bit( type ) ;
+        if (bit >= 0) {
+            final Class<?> cls = declaringClass( element ) ;
+            if (cls != null) {
+                return getAnnotationIndex( cls ).has( element, bit ) ;
+            }
+        }
+
+        return getAnnotation( element, type ) != null ;
+    }
+
     @SuppressWarnings({"unchecked"})
     @TraceRegistrationFine
-    public synchronized <T extends Annotation> T getAnnotation( 
+    public <T extends Annotation> T getAnnotation( 
         AnnotatedElement element, Class<T> type ) {
 
         // Can be called anytime
@@ -932,6 +1301,12 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
             Map<Class,Annotation> annos = getAllAnnotations(cls) ;
             return (T)annos.get( type ) ;
         } else {
+            final int bit = AnnotationIndex.bit( type ) ;
+            final Class<?> cls = declaringClass( element ) ;
+            if (bit >= 0 && cls != null) {
+                return (T)getAnnotationIndex( cls ).get( element, bit ) ;
+            }
+
             T result = element.getAnnotation( type ) ;
             if (result == null) {
                 message( "No annotation on element: trying addedAnnotations map" ) ;
@@ -948,7 +1323,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistrationFine
-    public synchronized Collection<Annotation> getAnnotations(
+    public Collection<Annotation> getAnnotations(
         AnnotatedElement elem ) {
 
         // Can be called anytime
@@ -967,7 +1342,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistration
-    public synchronized Pair<EvaluatedClassDeclaration,EvaluatedClassAnalyzer>
+    public Pair<EvaluatedClassDeclaration,EvaluatedClassAnalyzer>
         getClassAnalyzer( final EvaluatedClassDeclaration cls,
         final Class<? extends Annotation> annotationClass ) {
         // Can be called anytime
@@ -1008,7 +1383,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistration
-    public synchronized List<InheritedAttribute> getInheritedAttributes( 
+    public List<InheritedAttribute> getInheritedAttributes( 
         final EvaluatedClassAnalyzer ca ) {
         // Can be called anytime
         
@@ -1090,7 +1465,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
     }
 
     @TraceRegistrationFine
-    public synchronized <K,V> void putIfNotPresent( final Map<K,V> map,
+    public <K,V> void putIfNotPresent( final Map<K,V> map,
         final K key, final V value ) {
         // Can be called anytime
         if (!map.containsKey( key )) {
@@ -1111,7 +1486,7 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
 
     // Returns a pair of maps defining all managed attributes in the ca.  The first map
     // is all setters, and the second is all getters.  Only the most derived version is present.
-    public synchronized Pair<Map<String,AttributeDescriptor>,
+    public Pair<Map<String,AttributeDescriptor>,
         Map<String,AttributeDescriptor>>
         getAttributes( 
             final EvaluatedClassAnalyzer ca,
@@ -1202,27 +1577,31 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
 
-    public synchronized void setRegistrationDebug( 
+    public void setRegistrationDebug( 
         ManagedObjectManager.RegistrationDebugLevel level ) {
         // can be called anytime
         regDebugLevel = level ;
     }
 
-    public synchronized void setJMXRegistrationDebug(boolean flag) {
+    public void setJMXRegistrationDebug(boolean flag) {
         jmxRegistrationDebugFlag = flag ;
     }
+
+    public void setJMXRegistrationExecutor( Executor executor ) {
+        tree.setRegistrationExecutor( executor ) ;
+    }
     
-    public synchronized void setRuntimeDebug( boolean flag ) {
+    public void setRuntimeDebug( boolean flag ) {
         // can be called anytime
         runDebugFlag = flag ;
     }
 
-    public synchronized void setTypelibDebug( int level ) {
+    public void setTypelibDebug( int level ) {
         // can be called anytime
         TypeEvaluator.setDebugLevel(level);
     }
     
-    public synchronized String dumpSkeleton( Object obj ) {
+    public String dumpSkeleton( Object obj ) {
         // can be called anytime
         MBeanImpl impl = tree.getMBeanImpl( obj ) ;
         if (impl == null) {
@@ -1235,23 +1614,34 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
     
-    public synchronized boolean registrationDebug() {
+    public AttributeCacheStatistics getAttributeCacheStatistics( Object obj ) {
+        checkRootCreated("getAttributeCacheStatistics");
+
+        MBeanImpl impl = tree.getMBeanImpl( obj ) ;
+        if (impl == null) {
+            return null ;
+        }
+
+        return impl.getAttributeCacheStatistics() ;
+    }
+
+    public boolean registrationDebug() {
         // can be called anytime
         return regDebugLevel == ManagedObjectManager.RegistrationDebugLevel.NORMAL 
             || regDebugLevel == ManagedObjectManager.RegistrationDebugLevel.FINE ;
     }
     
-    public synchronized boolean registrationFineDebug() {
+    public boolean registrationFineDebug() {
         // can be called anytime
         return regDebugLevel == ManagedObjectManager.RegistrationDebugLevel.FINE ;
     }
     
-    public synchronized boolean runtimeDebug() {
+    public boolean runtimeDebug() {
         // can be called anytime
         return runDebugFlag ;
     }
 
-    public synchronized boolean jmxRegistrationDebug() {
+    public boolean jmxRegistrationDebug() {
         return jmxRegistrationDebugFlag ;
     }
     
@@ -1262,14 +1652,14 @@ public class ManagedObjectManagerImpl implements ManagedObjectManagerInternal {
         }
     }
     
-    public synchronized <T extends EvaluatedDeclaration> UnaryPredicate<T> forAnnotation(
+    public <T extends EvaluatedDeclaration> UnaryPredicate<T> forAnnotation(
         final Class<? extends Annotation> annotation,
         final Class<T> cls ) {
         // Can be called anytime
 
         return new UnaryPredicate<T>() {
             public boolean evaluate( T elem ) {
-                return getAnnotation( elem.element(), annotation ) != null ;
+                return hasAnnotation( elem.element(), annotation ) ;
             }
         } ;
     }
@@ -42,7 +42,7 @@ package org.glassfish.gmbal.impl ;
 
 import org.glassfish.gmbal.typelib.EvaluatedClassAnalyzer;
 
-import org.glassfish.gmbal.ManagedObjectManager ;
+import org.glassfish.gmbal.AsyncManagedObjectManager ;
 import org.glassfish.gmbal.InheritedAttribute ;
 
 import java.lang.annotation.Annotation;
@@ -65,7 +65,8 @@ import org.glassfish.pfl.basic.func.UnaryPredicate;
  * 
  * @author ken
  */
-public interface ManagedObjectManagerInternal extends ManagedObjectManager {
+public interface ManagedObjectManagerInternal
+    extends AsyncManagedObjectManager {
     /** Construct or lookup the TypeConverter for the given type.
      * 
      * @param type The type for which we need a TypeConverter.
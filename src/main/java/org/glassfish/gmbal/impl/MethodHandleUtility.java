@@ -0,0 +1,185 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl ;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.glassfish.pfl.basic.facet.FacetAccessor;
+
+/** Support for turning reflective accessors into MethodHandles once, when a
+ * skeleton is built, instead of going through FacetAccessor reflection on
+ * every call.  All handles are adapted to a generic Object-based type with
+ * the receiver as the first argument.  Methods that cannot be compiled
+ * return null, and callers fall back to the FacetAccessor.
+ */
+final class MethodHandleUtility {
+    private MethodHandleUtility() {}
+
+    static final MethodType GETTER_TYPE = MethodType.methodType(
+        Object.class, Object.class ) ;
+
+    static final MethodType SETTER_TYPE = MethodType.methodType(
+        void.class, Object.class, Object.class ) ;
+
+    static final MethodType SPREAD_TYPE = MethodType.methodType(
+        Object.class, Object.class, Object[].class ) ;
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup() ;
+
+    // The accessible flag must already be set on the Method or Field, so that
+    // unreflect does not repeat the access checks.
+    private static MethodHandle unreflect( final Method method )
+        throws IllegalAccessException {
+
+        MethodHandle mh = lookup.unreflect( method ) ;
+        if (Modifier.isStatic( method.getModifiers() )) {
+            // FacetAccessor ignores the target for static methods.
+            mh = MethodHandles.dropArguments( mh, 0, Object.class ) ;
+        }
+
+        return mh ;
+    }
+
+    /** Return a handle of type (Object)Object that calls the no-argument
+     * method on its argument.
+     */
+    static MethodHandle getter( final Method method ) {
+        try {
+            return unreflect( method ).asType( GETTER_TYPE ) ;
+        } catch (IllegalAccessException exc) {
+            return null ;
+        } catch (RuntimeException exc) {
+            return null ;
+        }
+    }
+
+    /** Return a handle of type (Object)Object that reads the field from its
+     * argument.
+     */
+    static MethodHandle getter( final Field field ) {
+        try {
+            return lookup.unreflectGetter( field ).asType( GETTER_TYPE ) ;
+        } catch (IllegalAccessException exc) {
+            return null ;
+        } catch (RuntimeException exc) {
+            return null ;
+        }
+    }
+
+    /** Return a handle of type (Object,Object)void that calls the
+     * one-argument method on its first argument.
+     */
+    static MethodHandle setter( final Method method ) {
+        try {
+            return unreflect( method ).asType( SETTER_TYPE ) ;
+        } catch (IllegalAccessException exc) {
+            return null ;
+        } catch (RuntimeException exc) {
+            return null ;
+        }
+    }
+
+    /** Return a handle of type (Object,Object[])Object that calls the method
+     * on its first argument, spreading the array into the method arguments.
+     * A void method returns null.
+     */
+    static MethodHandle spreader( final Method method ) {
+        try {
+            final MethodHandle mh = unreflect( method ) ;
+            final int nargs = method.getParameterTypes().length ;
+            return mh.asSpreader( Object[].class, nargs ).asType(
+                SPREAD_TYPE ) ;
+        } catch (IllegalAccessException exc) {
+            return null ;
+        } catch (RuntimeException exc) {
+            return null ;
+        }
+    }
+
+    /** Find the object that implements cls in the FacetAccessor.  This is the
+     * same target selection that FacetAccessorImpl.invoke uses.
+     */
+    static Object facet( final FacetAccessor fa, final Class<?> cls,
+        final Object member ) {
+
+        final Object facet = fa.facet( cls ) ;
+        if (facet == null) {
+            throw new IllegalArgumentException( "No facet available for "
+                + member ) ;
+        }
+
+        return facet ;
+    }
+
+    /** Wrap an exception thrown through a MethodHandle the same way that
+     * FacetAccessorImpl wraps an exception from a reflective call.
+     */
+    static IllegalArgumentException wrap( final Throwable thr ) {
+        return new IllegalArgumentException( "Exception on invocation",
+            new InvocationTargetException( thr ) ) ;
+    }
+
+    /** The exception that FacetAccessorImpl throws when a method is called
+     * with the wrong number of arguments.
+     */
+    static IllegalArgumentException wrongArgumentCount( final Method method,
+        final int count ) {
+
+        return wrongArgumentCount( method.getParameterTypes().length,
+            count ) ;
+    }
+
+    /** The same exception, for an operation that takes expected arguments
+     * but is not implemented by a single Method.
+     */
+    static IllegalArgumentException wrongArgumentCount( final int expected,
+        final int count ) {
+
+        return new IllegalArgumentException( "Exception on invocation",
+            new IllegalArgumentException( "wrong number of arguments: "
+                + count + " expected: " + expected ) ) ;
+    }
+}
@@ -0,0 +1,102 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.glassfish.pfl.basic.concurrent.WeakHashMapSafeReadLock;
+
+/** A map with weak keys for the caches of a ManagedObjectManager, so that
+ * the cached classes (and their ClassLoaders) can be collected as they
+ * could with the WeakHashMaps these caches used to be.  Lookups only take
+ * the read lock, so concurrent lookups do not block each other: unlike
+ * WeakHashMap, WeakHashMapSafeReadLock expunges stale entries under its
+ * own lock, so several threads may call get at once.
+ */
+final class ReadMostlyWeakMap<K,V> {
+    private final Map<K,V> map = new WeakHashMapSafeReadLock<K,V>() ;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock() ;
+
+    V get( final K key ) {
+        lock.readLock().lock() ;
+        try {
+            return map.get( key ) ;
+        } finally {
+            lock.readLock().unlock() ;
+        }
+    }
+
+    void put( final K key, final V value ) {
+        lock.writeLock().lock() ;
+        try {
+            map.put( key, value ) ;
+        } finally {
+            lock.writeLock().unlock() ;
+        }
+    }
+
+    /** Store value unless key already has a value.
+     * @return The previous value, or null if value was stored.
+     */
+    V putIfAbsent( final K key, final V value ) {
+        lock.writeLock().lock() ;
+        try {
+            final V result = map.get( key ) ;
+            if (result == null) {
+                map.put( key, value ) ;
+            }
+
+            return result ;
+        } finally {
+            lock.writeLock().unlock() ;
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock() ;
+        try {
+            map.clear() ;
+        } finally {
+            lock.writeLock().unlock() ;
+        }
+    }
+}
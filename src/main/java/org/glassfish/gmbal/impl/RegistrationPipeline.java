@@ -0,0 +1,151 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.JMException;
+import org.glassfish.gmbal.GmbalException;
+
+/** Runs JMX registration work in the background, one task at a time and in
+ * submission order, on an arbitrary Executor.  Running tasks in order is
+ * what keeps a parent registered before its children, and an unregister
+ * from overtaking the register of the same MBean.
+ */
+class RegistrationPipeline {
+    private final Executor executor ;
+    private final Queue<FutureTask<?>> tasks =
+        new ConcurrentLinkedQueue<FutureTask<?>>() ;
+    private final AtomicBoolean scheduled = new AtomicBoolean( false ) ;
+    private volatile Thread drainer = null ;
+
+    private final Runnable drain = new Runnable() {
+        public void run() {
+            drainer = Thread.currentThread() ;
+            try {
+                FutureTask<?> task ;
+                while ((task = tasks.poll()) != null) {
+                    task.run() ;
+                }
+            } finally {
+                drainer = null ;
+                scheduled.set( false ) ;
+            }
+
+            // A task may have been added after the last poll, but before
+            // scheduled was cleared.
+            if (!tasks.isEmpty()) {
+                schedule() ;
+            }
+        }
+    } ;
+
+    RegistrationPipeline( Executor executor ) {
+        this.executor = executor ;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet( false, true )) {
+            try {
+                executor.execute( drain ) ;
+            } catch (RejectedExecutionException exc) {
+                drain.run() ;
+            }
+        }
+    }
+
+    /** Queue task to run after all previously submitted tasks.
+     */
+    <T> Future<T> submit( Callable<T> task ) {
+        FutureTask<T> result = new FutureTask<T>( task ) ;
+        tasks.add( result ) ;
+        schedule() ;
+        return result ;
+    }
+
+    /** Return true if called from a task running in this pipeline.  Such
+     * a caller must run its work directly, since waiting for a later task
+     * would never finish.
+     */
+    boolean isPipelineThread() {
+        return drainer == Thread.currentThread() ;
+    }
+
+    /** Wait for future, returning its result, or throwing the exception
+     * that the task threw.  Checked exceptions other than JMException are
+     * wrapped in a GmbalException.
+     */
+    static <T> T await( Future<T> future ) throws JMException {
+        boolean interrupted = false ;
+        try {
+            while (true) {
+                try {
+                    return future.get() ;
+                } catch (InterruptedException exc) {
+                    interrupted = true ;
+                }
+            }
+        } catch (ExecutionException exc) {
+            final Throwable cause = exc.getCause() ;
+            if (cause instanceof JMException) {
+                throw (JMException)cause ;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause ;
+            } else if (cause instanceof Error) {
+                throw (Error)cause ;
+            } else {
+                throw new GmbalException(
+                    "Exception in registration", cause ) ;
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt() ;
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.impl;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.InvalidKeyException;
+import javax.management.openmbean.InvalidOpenTypeException;
+import javax.management.openmbean.KeyAlreadyExistsException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+
+/** A TabularData that is created from a list of rows produced by our own
+ * TypeConverters.  Unlike TabularDataSupport, the rows are not checked
+ * against the row type, and the index of the rows (a map from the
+ * values of the index items to the row) is only computed when a method
+ * that needs it is first called.  Converting a Map for getAttribute
+ * therefore costs one array-backed CompositeData per entry, and nothing
+ * else: most clients only iterate over values().
+ * <p>
+ * Rows added through put and putAll are checked exactly as
+ * TabularDataSupport checks them, and equals, hashCode, and toString
+ * follow TabularDataSupport.  An instance is serialized as a
+ * TabularDataSupport, so that a remote client never needs this class.
+ * All methods are synchronized, because an instance may be shared by
+ * several threads once it has been returned from an MBean.
+ */
+final class TabularDataImpl implements TabularData, Serializable {
+    private static final long serialVersionUID = 3146432219361939416L;
+
+    private final TabularType type ;
+    private final String[] indexNames ;
+    // All rows, in insertion order.
+    private final List<CompositeData> rows ;
+    // Index of rows, built on first use.
+    private Map<List<?>,CompositeData> index = null ;
+
+    /** Create a TabularData of the given type that contains rows, which
+     * must all be values of the row type of type.  If unique is true, the
+     * caller guarantees that no two rows have the same index, and the index
+     * is computed lazily.  Otherwise it is computed now, and a
+     * KeyAlreadyExistsException is thrown if two rows have the same index,
+     * as TabularDataSupport.put would do.
+     */
+    TabularDataImpl( final TabularType type, final List<CompositeData> rows,
+        final boolean unique ) {
+
+        this.type = type ;
+        final List<String> names = type.getIndexNames() ;
+        this.indexNames = names.toArray( new String[names.size()] ) ;
+        this.rows = rows ;
+        if (!unique) {
+            index() ;
+        }
+    }
+
+    private List<?> internalIndex( final CompositeData row ) {
+        return Collections.unmodifiableList(
+            Arrays.asList( row.getAll( indexNames ) ) ) ;
+    }
+
+    private Map<List<?>,CompositeData> index() {
+        if (index == null) {
+            final Map<List<?>,CompositeData> map =
+                new LinkedHashMap<List<?>,CompositeData>( rows.size() * 4 / 3 + 1 ) ;
+            for (CompositeData row : rows) {
+                final List<?> key = internalIndex( row ) ;
+                if (map.put( key, row ) != null) {
+                    throw new KeyAlreadyExistsException( "Argument value's index, "
+                        + "calculated according to this TabularData instance's "
+                        + "tabularType, already refers to a value in this table." ) ;
+                }
+            }
+            index = map ;
+        }
+
+        return index ;
+    }
+
+    private List<?> checkedIndex( final CompositeData value ) {
+        if (value == null) {
+            throw new NullPointerException(
+                "Argument value cannot be null." ) ;
+        }
+
+        if (!type.getRowType().isValue( value )) {
+            throw new InvalidOpenTypeException( "Argument value's "
+                + "composite type [" + value.getCompositeType()
+                + "] is not assignable to this TabularData instance's "
+                + "row type [" + type.getRowType() + "]." ) ;
+        }
+
+        return internalIndex( value ) ;
+    }
+
+    private List<?> checkedKey( final Object[] key ) {
+        if (key == null || key.length == 0) {
+            throw new NullPointerException(
+                "Argument key cannot be null or empty." ) ;
+        }
+
+        if (key.length != indexNames.length) {
+            throw new InvalidKeyException( "Argument key's length="
+                + key.length + " is different from the number of item "
+                + "values, which is " + indexNames.length
+                + ", specified in the indexing rule." ) ;
+        }
+
+        final CompositeType rowType = type.getRowType() ;
+        for (int ctr=0; ctr<key.length; ctr++) {
+            final OpenType<?> keyType = rowType.getType( indexNames[ctr] ) ;
+            if (key[ctr] != null && !keyType.isValue( key[ctr] )) {
+                throw new InvalidKeyException( "Argument element key["
+                    + ctr + "] is not a value for the open type expected "
+                    + "for this element of the index, whose name is \""
+                    + indexNames[ctr] + "\" and whose open type is "
+                    + keyType ) ;
+            }
+        }
+
+        return Collections.unmodifiableList( Arrays.asList( key ) ) ;
+    }
+
+    private void removeRow( final CompositeData row ) {
+        final Iterator<CompositeData> iter = rows.iterator() ;
+        while (iter.hasNext()) {
+            if (iter.next() == row) {
+                iter.remove() ;
+                return ;
+            }
+        }
+    }
+
+    /** A TabularDataImpl with the same rows, which is not affected by later
+     * changes to this one.
+     */
+    synchronized TabularDataImpl copy() {
+        return new TabularDataImpl( type,
+            new ArrayList<CompositeData>( rows ), true ) ;
+    }
+
+    public TabularType getTabularType() {
+        return type ;
+    }
+
+    public Object[] calculateIndex( final CompositeData value ) {
+        return checkedIndex( value ).toArray() ;
+    }
+
+    public synchronized int size() {
+        return rows.size() ;
+    }
+
+    public synchronized boolean isEmpty() {
+        return rows.isEmpty() ;
+    }
+
+    public synchronized boolean containsKey( final Object[] key ) {
+        return key != null && index().containsKey( Arrays.asList( key ) ) ;
+    }
+
+    public synchronized boolean containsValue( final CompositeData value ) {
+        return rows.contains( value ) ;
+    }
+
+    public synchronized CompositeData get( final Object[] key ) {
+        return index().get( checkedKey( key ) ) ;
+    }
+
+    public synchronized void put( final CompositeData value ) {
+        final List<?> key = checkedIndex( value ) ;
+        final Map<List<?>,CompositeData> map = index() ;
+        if (map.containsKey( key )) {
+            throw new KeyAlreadyExistsException( "Argument value's index, "
+                + "calculated according to this TabularData instance's "
+                + "tabularType, already refers to a value in this table." ) ;
+        }
+
+        map.put( key, value ) ;
+        rows.add( value ) ;
+    }
+
+    public synchronized CompositeData remove( final Object[] key ) {
+        final CompositeData result = index().remove( checkedKey( key ) ) ;
+        if (result != null) {
+            removeRow( result ) ;
+        }
+
+        return result ;
+    }
+
+    public synchronized void putAll( final CompositeData[] values ) {
+        if (values == null || values.length == 0) {
+            return ;
+        }
+
+        // Check everything before adding anything, as TabularDataSupport does.
+        final Map<List<?>,CompositeData> map = index() ;
+        final List<List<?>> keys = new ArrayList<List<?>>( values.length ) ;
+        for (CompositeData value : values) {
+            final List<?> key = checkedIndex( value ) ;
+            if (map.containsKey( key ) || keys.contains( key )) {
+                throw new KeyAlreadyExistsException( "Argument elements "
+                    + "values[i]'s index, calculated according to this "
+                    + "TabularData instance's tabularType, already refers "
+                    + "to a value in this table or in another element of "
+                    + "values." ) ;
+            }
+            keys.add( key ) ;
+        }
+
+        for (int ctr=0; ctr<values.length; ctr++) {
+            map.put( keys.get( ctr ), values[ctr] ) ;
+            rows.add( values[ctr] ) ;
+        }
+    }
+
+    public synchronized void clear() {
+        rows.clear() ;
+        index = null ;
+    }
+
+    public synchronized Set<?> keySet() {
+        return Collections.unmodifiableSet(
+            new LinkedHashMap<List<?>,CompositeData>( index() ).keySet() ) ;
+    }
+
+    public synchronized Collection<?> values() {
+        return Collections.unmodifiableList(
+            new ArrayList<CompositeData>( rows ) ) ;
+    }
+
+    @Override
+    public synchronized boolean equals( final Object obj ) {
+        if (this == obj) {
+            return true ;
+        }
+
+        if (!(obj instanceof TabularData)) {
+            return false ;
+        }
+
+        final TabularData other = (TabularData)obj ;
+        if (!type.equals( other.getTabularType() )) {
+            return false ;
+        }
+
+        if (rows.size() != other.size()) {
+            return false ;
+        }
+
+        for (CompositeData row : rows) {
+            if (!other.containsValue( row )) {
+                return false ;
+            }
+        }
+
+        return true ;
+    }
+
+    @Override
+    public synchronized int hashCode() {
+        int result = type.hashCode() ;
+        for (CompositeData row : rows) {
+            result += row.hashCode() ;
+        }
+
+        return result ;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getClass().getName() + "(tabularType=" + type
+            + ",contents=" + index() + ")" ;
+    }
+
+    private synchronized Object writeReplace() throws ObjectStreamException {
+        final TabularDataSupport result = new TabularDataSupport( type,
+            rows.size() * 4 / 3 + 1, 0.75f ) ;
+        result.putAll( rows.toArray( new CompositeData[rows.size()] ) ) ;
+        return result ;
+    }
+}
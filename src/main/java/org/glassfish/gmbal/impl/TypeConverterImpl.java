@@ -46,7 +46,6 @@ import org.glassfish.pfl.tf.spi.annotation.InfoMethod;
 import org.glassfish.gmbal.impl.trace.TraceRegistration;
 import org.glassfish.pfl.basic.algorithm.DumpToString;
 import org.glassfish.pfl.basic.contain.Pair;
-import org.glassfish.pfl.basic.facet.FacetAccessor;
 import org.glassfish.pfl.basic.algorithm.Algorithms;
 import org.glassfish.pfl.basic.func.UnaryPredicate;
 
@@ -74,9 +73,7 @@ import javax.management.openmbean.SimpleType ;
 import javax.management.openmbean.TabularType ;
 import javax.management.openmbean.CompositeType ;
 import javax.management.openmbean.CompositeData ;
-import javax.management.openmbean.CompositeDataSupport ;
 import javax.management.openmbean.TabularData ;
-import javax.management.openmbean.TabularDataSupport ;
 
 import org.glassfish.gmbal.AMXClient;
 import org.glassfish.gmbal.ManagedObject ;
@@ -451,35 +448,40 @@ public abstract class TypeConverterImpl implements TypeConverter {
         describe( "minfos=", minfos ) ;
         describe( "myType=", myType ) ;
 
+        // Lay out the attributes in the key order of myType once, so that
+        // each conversion just fills an array and wraps it in a
+        // CompositeDataImpl, without re-validating it against myType.
+        final String[] keys = CompositeDataImpl.keys( myType ) ;
+        final AttributeDescriptor[] attrs = new AttributeDescriptor[keys.length] ;
+        final boolean[] applicable = new boolean[keys.length] ;
+        final Class<?> javaClass = cls.cls() ;
+        for (AttributeDescriptor minfo : minfos) {
+            final int index = Arrays.binarySearch( keys, minfo.id() ) ;
+            attrs[index] = minfo ;
+            applicable[index] = minfo.isApplicableToClass( javaClass ) ;
+        }
+
         result = new TypeConverterImpl( cls, myType ) {
             @TraceRuntime
             public Object toManagedEntity( Object obj ) {
-                Object runResult = null ;
-                Map<String,Object> data = new HashMap<String,Object>() ;
-                for (AttributeDescriptor minfo : minfos) {
+                final boolean isInstance = javaClass.isInstance( obj ) ;
+                final Object[] values = new Object[attrs.length] ;
+                for (int ctr=0; ctr<attrs.length; ctr++) {
+                    final AttributeDescriptor minfo = attrs[ctr] ;
                     describe( "Fetching attribute ", minfo.id() ) ;
 
-                    Object value = null ;
-                    if (minfo.isApplicable( obj )) {
+                    if (isInstance ? applicable[ctr]
+                        : minfo.isApplicable( obj )) {
                         try {
-                            FacetAccessor fa = mom.getFacetAccessor( obj ) ;
-                            value = minfo.get(fa );
+                            values[ctr] = minfo.getDirect( obj ) ;
                         } catch (JMException ex) {
                             Exceptions.self.errorInConstructingOpenData(
                                 cls.name(), minfo.id(), ex ) ;
                         }
                     }
-
-                    data.put( minfo.id(), value ) ;
-                }
-
-                try {
-                    runResult = new CompositeDataSupport( myType, data ) ;
-                } catch (OpenDataException exc) {
-                    throw Exceptions.self.exceptionInHandleManagedData(exc) ;
                 }
 
-                return runResult ;
+                return new CompositeDataImpl( myType, keys, values ) ;
             }
         } ;
 
@@ -544,69 +546,291 @@ public abstract class TypeConverterImpl implements TypeConverter {
         describe( "cotype", cotype ) ;
         describe( "ot", ot ) ;
 
+        if (ctypeTc.isIdentity()) {
+            // Both component types are the same, so is the array type.
+            return new TypeConverterImpl( type, ot ) {
+                public Object toManagedEntity( final Object obj ) {
+                    return obj ;
+                }
+
+                @Override
+                public Object fromManagedEntity( final Object entity ) {
+                    return entity ;
+                }
+
+                @Override
+                public boolean isIdentity() {
+                    return true ;
+                }
+            } ;
+        }
+
+        final Class<?> jclass = getComponentClass( type ) ;
+        final PrimitiveArray parray = PrimitiveArray.forClass( jclass ) ;
+        describe( "parray", parray ) ;
+
+        if (parray != null) {
+            // A primitive component is mapped to its wrapper type, which
+            // has the same values, so we can copy the array in one typed
+            // loop without consulting ctypeTc.
+            return new TypeConverterImpl( type, ot ) {
+                public Object toManagedEntity( final Object obj ) {
+                    return parray.box( obj ) ;
+                }
+
+                @Override
+                public Object fromManagedEntity( final Object entity ) {
+                    return parray.unbox( entity ) ;
+                }
+            } ;
+        }
+
+        final Class<?> cclass = getJavaClass( cotype ) ;
+
         result = new TypeConverterImpl( type, ot ) {
             @TraceRuntime
             public Object toManagedEntity( final Object obj ) {
-                if (isIdentity()) {
-                    return obj ;
-                } else {
-                    final Class cclass = getJavaClass( cotype ) ;
-                    final int length =
-                        obj == null ? 0 : Array.getLength( obj ) ;
-                    final Object result = Array.newInstance( cclass, length ) ;
-                    for (int ctr=0; ctr<length; ctr++) {
-                        describe( "Entering (handleArrayType):toManagedEntity",
-                            ctr ) ;
-                        try {
-                            final Object elem = Array.get( obj, ctr ) ;
-                            final Object relem =  ctypeTc.toManagedEntity( elem ) ;
-                            Array.set( result, ctr, relem ) ;
-                        } finally {
-                            describe( "Exiting (handleArrayType):toManagedEntity",
-                                ctr ) ;
-                        }
-                    }
-
-                    return result ;
+                final Object[] source = (Object[])obj ;
+                final int length = source == null ? 0 : source.length ;
+                final Object[] result =
+                    (Object[])Array.newInstance( cclass, length ) ;
+                for (int ctr=0; ctr<length; ctr++) {
+                    result[ctr] = ctypeTc.toManagedEntity( source[ctr] ) ;
                 }
+
+                return result ;
             }
 
             @Override
             @TraceRuntime
             public Object fromManagedEntity( final Object entity ) {
-                if (isIdentity()) {
-                    return entity ;
-                } else {
-                    final Class cclass = getJavaClass( ctype ) ;
-
-                    final int length =
-                        entity == null ? 0 : Array.getLength( entity ) ;
-                    final Object result = Array.newInstance( cclass, length ) ;
-                    for (int ctr=0; ctr<length; ctr++) {
-                        describe( "Entering (handleArrayType):fromManagedEntity",
-                            ctr ) ;
-                        try {
-                            final Object elem = Array.get( entity, ctr ) ;
-                            final Object relem =
-                                ctypeTc.fromManagedEntity( elem ) ;
-                            Array.set( result, ctr, relem ) ;
-                        } finally {
-                            describe( "Exiting (handleArrayType):fromManagedEntity",
-                                ctr ) ;
-                        }
-                    }
+                final Object[] source = (Object[])entity ;
+                final int length = source == null ? 0 : source.length ;
+                final Object[] result =
+                    (Object[])Array.newInstance( jclass, length ) ;
+                for (int ctr=0; ctr<length; ctr++) {
+                    result[ctr] = ctypeTc.fromManagedEntity( source[ctr] ) ;
+                }
 
-                    return result ;
+                return result ;
+            }
+        } ;
+
+        return result ;
+    }
+
+    // The Java class of the components of type.  Unlike getJavaClass, this
+    // does not replace primitives by their wrappers, so an int[][] has
+    // components of class int[], as fromManagedEntity must produce.
+    private static Class<?> getComponentClass( final EvaluatedArrayType type ) {
+        final EvaluatedType ctype = type.componentType() ;
+        if (ctype instanceof EvaluatedArrayType) {
+            return Array.newInstance( getComponentClass(
+                (EvaluatedArrayType)ctype ), 0 ).getClass() ;
+        } else {
+            return getJavaClass( ctype ) ;
+        }
+    }
+
+    // Conversions between an array of a primitive type and the array of
+    // its wrapper type, which is how an array of primitives is represented
+    // as open data.  A null array converts to an empty one.
+    private enum PrimitiveArray {
+        BOOLEAN( boolean.class ) {
+            Object box( final Object obj ) {
+                final boolean[] source = obj == null
+                    ? new boolean[0] : (boolean[])obj ;
+                final Boolean[] result = new Boolean[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
                 }
+                return result ;
             }
 
-            @Override
-            public boolean isIdentity() {
-                return ctypeTc.isIdentity() ;
+            Object unbox( final Object obj ) {
+                final Boolean[] source = obj == null
+                    ? new Boolean[0] : (Boolean[])obj ;
+                final boolean[] result = new boolean[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        CHAR( char.class ) {
+            Object box( final Object obj ) {
+                final char[] source = obj == null
+                    ? new char[0] : (char[])obj ;
+                final Character[] result = new Character[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Character[] source = obj == null
+                    ? new Character[0] : (Character[])obj ;
+                final char[] result = new char[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        BYTE( byte.class ) {
+            Object box( final Object obj ) {
+                final byte[] source = obj == null
+                    ? new byte[0] : (byte[])obj ;
+                final Byte[] result = new Byte[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Byte[] source = obj == null
+                    ? new Byte[0] : (Byte[])obj ;
+                final byte[] result = new byte[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        SHORT( short.class ) {
+            Object box( final Object obj ) {
+                final short[] source = obj == null
+                    ? new short[0] : (short[])obj ;
+                final Short[] result = new Short[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Short[] source = obj == null
+                    ? new Short[0] : (Short[])obj ;
+                final short[] result = new short[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        INT( int.class ) {
+            Object box( final Object obj ) {
+                final int[] source = obj == null
+                    ? new int[0] : (int[])obj ;
+                final Integer[] result = new Integer[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Integer[] source = obj == null
+                    ? new Integer[0] : (Integer[])obj ;
+                final int[] result = new int[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        LONG( long.class ) {
+            Object box( final Object obj ) {
+                final long[] source = obj == null
+                    ? new long[0] : (long[])obj ;
+                final Long[] result = new Long[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Long[] source = obj == null
+                    ? new Long[0] : (Long[])obj ;
+                final long[] result = new long[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        FLOAT( float.class ) {
+            Object box( final Object obj ) {
+                final float[] source = obj == null
+                    ? new float[0] : (float[])obj ;
+                final Float[] result = new Float[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Float[] source = obj == null
+                    ? new Float[0] : (Float[])obj ;
+                final float[] result = new float[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+        },
+
+        DOUBLE( double.class ) {
+            Object box( final Object obj ) {
+                final double[] source = obj == null
+                    ? new double[0] : (double[])obj ;
+                final Double[] result = new Double[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
+            }
+
+            Object unbox( final Object obj ) {
+                final Double[] source = obj == null
+                    ? new Double[0] : (Double[])obj ;
+                final double[] result = new double[source.length] ;
+                for (int ctr=0; ctr<source.length; ctr++) {
+                    result[ctr] = source[ctr] ;
+                }
+                return result ;
             }
         } ;
 
-        return result ;
+        private final Class<?> cls ;
+
+        PrimitiveArray( final Class<?> cls ) {
+            this.cls = cls ;
+        }
+
+        abstract Object box( Object obj ) ;
+
+        abstract Object unbox( Object obj ) ;
+
+        static PrimitiveArray forClass( final Class<?> cls ) {
+            for (PrimitiveArray pa : values()) {
+                if (pa.cls == cls) {
+                    return pa ;
+                }
+            }
+
+            return null ;
+        }
     }
 
     private static final Runnable NoOp = new Runnable() {
@@ -666,6 +890,10 @@ public abstract class TypeConverterImpl implements TypeConverter {
             public Iterator iterator() {
                 return emptyIterator() ;
             }
+
+            public int size() {
+                return 0 ;
+            }
         
         } ;
     }
@@ -893,16 +1121,39 @@ public abstract class TypeConverterImpl implements TypeConverter {
         }
     }
 
+    /** Implemented by the TypeConverters for collections and maps, so that
+     * a @Paged attribute can convert a slice of its value without
+     * converting the rest.
+     */
+    interface PagedTypeConverter extends TypeConverter {
+        /** Convert the elements of obj from offset up to offset+limit in
+         * iteration order to a value of the managed type.
+         */
+        Object toManagedEntity( Object obj, int offset, int limit ) ;
+
+        /** The number of elements in obj.
+         */
+        int size( Object obj ) ;
+    }
+
+    private static void skip( final Iterator<?> iter, final int count ) {
+        for (int ctr=0; ctr<count && iter.hasNext(); ctr++) {
+            iter.next() ;
+        }
+    }
+
     private abstract static class TypeConverterListBase 
-        extends TypeConverterImpl {
+        extends TypeConverterImpl implements PagedTypeConverter {
         
         final TypeConverter memberTc ;
+        final Class<?> cclass ;
 
         public TypeConverterListBase( final EvaluatedType dataType,
             final TypeConverter memberTc ) {
             
             super( dataType, makeArrayType( memberTc.getManagedType() ) ) ;
             this.memberTc = memberTc ;
+            this.cclass = getJavaClass( memberTc.getManagedType() ) ;
         }
 
         @SuppressWarnings("unchecked")
@@ -917,18 +1168,33 @@ public abstract class TypeConverterImpl implements TypeConverter {
         protected abstract Iterator getIterator( Object obj ) ;
 
         public Object toManagedEntity( final Object obj ) {
+            return toManagedEntity( obj, 0, Integer.MAX_VALUE ) ;
+        }
+
+        public Object toManagedEntity( final Object obj, final int offset,
+            final int limit ) {
+
             final Iterator iter = getIterator( obj ) ;
+            skip( iter, offset ) ;
             final List<Object> list = new ArrayList<Object>() ;
-            while (iter.hasNext()) {
-                list.add( iter.next() ) ;
+            while (list.size() < limit && iter.hasNext()) {
+                list.add( memberTc.toManagedEntity( iter.next() ) ) ;
+            }
+
+            return list.toArray( (Object[])Array.newInstance( cclass,
+                list.size() ) ) ;
+        }
+
+        public int size( final Object obj ) {
+            if (obj instanceof Collection) {
+                return ((Collection)obj).size() ;
             }
 
-            final Class cclass = getJavaClass( memberTc.getManagedType() ) ;
-            final Object result = Array.newInstance( cclass, list.size() ) ;
-            int ctr = 0 ;
-            for (Object elem : list) {
-                final Object mappedElem = memberTc.toManagedEntity( elem ) ;
-                Array.set( result, ctr++, mappedElem ) ;
+            final Iterator iter = getIterator( obj ) ;
+            int result = 0 ;
+            while (iter.hasNext()) {
+                iter.next() ;
+                result++ ;
             }
 
             return result ;
@@ -937,6 +1203,8 @@ public abstract class TypeConverterImpl implements TypeConverter {
 
     private interface Table<K,V> extends Iterable<K> {
         V get( K key ) ;
+
+        int size() ;
     }
 
     private static class TableMapImpl<K,V> implements Table<K,V> {
@@ -953,6 +1221,10 @@ public abstract class TypeConverterImpl implements TypeConverter {
         public V get( final K key ) {
             return map.get( key ) ;
         }
+
+        public int size() {
+            return map.size() ;
+        }
     }
 
     private static class TableDictionaryImpl<K,V> implements Table<K,V> {
@@ -970,13 +1242,21 @@ public abstract class TypeConverterImpl implements TypeConverter {
         public V get( final K key ) {
             return dict.get( key ) ;
         }
+
+        public int size() {
+            return dict.size() ;
+        }
     }
 
     private abstract static class TypeConverterMapBase 
-        extends TypeConverterImpl {
+        extends TypeConverterImpl implements PagedTypeConverter {
         
         final private TypeConverter keyTypeConverter ;
         final private TypeConverter valueTypeConverter ;
+        final private CompositeType rowType ;
+        final private String[] rowKeys ;
+        final private int keyIndex ;
+        final private int valueIndex ;
 
         public TypeConverterMapBase( EvaluatedType dataType,
             TypeConverter keyTypeConverter, TypeConverter valueTypeConverter ) {
@@ -985,6 +1265,10 @@ public abstract class TypeConverterImpl implements TypeConverter {
                 valueTypeConverter ) ) ;
             this.keyTypeConverter = keyTypeConverter ;
             this.valueTypeConverter = valueTypeConverter ;
+            this.rowType = ((TabularType)getManagedType()).getRowType() ;
+            this.rowKeys = CompositeDataImpl.keys( rowType ) ;
+            this.keyIndex = Arrays.binarySearch( rowKeys, "key" ) ;
+            this.valueIndex = Arrays.binarySearch( rowKeys, "value" ) ;
         }
 
         private static TabularType makeMapTabularType( 
@@ -1027,33 +1311,39 @@ public abstract class TypeConverterImpl implements TypeConverter {
 
         protected abstract Table getTable( Object obj ) ;
 
-        @SuppressWarnings("unchecked")
         public Object toManagedEntity( Object obj ) {
-            try {
-                final Table table = getTable( obj ) ;
-                final TabularType ttype = (TabularType)getManagedType() ;
-                final CompositeType ctype = ttype.getRowType() ;
-                final TabularData result = new TabularDataSupport( ttype ) ;
-                for (Object key : table) {
-                    @SuppressWarnings("unchecked")
-                    final Object value = table.get( key ) ;
-                    final Object mappedKey = 
-                        keyTypeConverter.toManagedEntity( key ) ;
-                    final Object mappedValue = 
-                        valueTypeConverter.toManagedEntity( value ) ;
-                    final Map items = new HashMap() ;
-                    items.put( "key", mappedKey ) ;
-                    items.put( "value", mappedValue ) ;
-                    CompositeDataSupport cdata = new CompositeDataSupport( 
-                        ctype, items ) ;
-                    result.put( cdata ) ;
-                }
+            return toManagedEntity( obj, 0, Integer.MAX_VALUE ) ;
+        }
 
-                return result ;
-            } catch (OpenDataException exc) {
-                throw Exceptions.self.excInMakeMapTabularDataToManagedEntity( 
-                    exc ) ;
+        // The rows are built directly from the converted key and value,
+        // which already have the item types of rowType.  If the key
+        // conversion is the identity, distinct keys in the table give
+        // distinct row indexes, so TabularDataImpl need not check for
+        // duplicates until (and unless) someone asks for the index.
+        @SuppressWarnings("unchecked")
+        public Object toManagedEntity( final Object obj, final int offset,
+            final int limit ) {
+
+            final Table table = getTable( obj ) ;
+            final Iterator iter = table.iterator() ;
+            skip( iter, offset ) ;
+            final List<CompositeData> rows = new ArrayList<CompositeData>(
+                Math.max( 0, Math.min( limit, table.size() - offset ) ) ) ;
+            while (rows.size() < limit && iter.hasNext()) {
+                final Object key = iter.next() ;
+                final Object value = table.get( key ) ;
+                final Object[] items = new Object[rowKeys.length] ;
+                items[keyIndex] = keyTypeConverter.toManagedEntity( key ) ;
+                items[valueIndex] = valueTypeConverter.toManagedEntity( value ) ;
+                rows.add( new CompositeDataImpl( rowType, rowKeys, items ) ) ;
             }
+
+            return new TabularDataImpl( (TabularType)getManagedType(), rows,
+                keyTypeConverter.isIdentity() ) ;
+        }
+
+        public int size( final Object obj ) {
+            return getTable( obj ).size() ;
         }
     }
 
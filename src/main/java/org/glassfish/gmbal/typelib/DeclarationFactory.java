@@ -39,6 +39,12 @@
  */ 
 package org.glassfish.gmbal.typelib ;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.annotation.Annotation;
@@ -46,10 +52,11 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 
-import java.util.Map;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
 import org.glassfish.gmbal.impl.trace.TraceTypelib;
 import org.glassfish.pfl.basic.algorithm.DumpToString;
 
@@ -60,11 +67,14 @@ import org.glassfish.pfl.basic.algorithm.DumpToString;
 public class DeclarationFactory {
     private static boolean DEBUG = false ;
 
-    private static final Map<EvaluatedType,EvaluatedArrayType> arrayMap =
-        new HashMap<EvaluatedType,EvaluatedArrayType>() ;
+    // Both maps are kept by ClassLoader (see LoaderScopedMap), so that they
+    // do not keep the classes of an application alive.
+    private static final LoaderScopedMap<EvaluatedType,EvaluatedArrayType>
+        arrayMap = new LoaderScopedMap<EvaluatedType,EvaluatedArrayType>() ;
 
-    private static final Map<String,EvaluatedClassDeclaration> simpleClassMap =
-        new HashMap<String,EvaluatedClassDeclaration>() ;
+    private static final LoaderScopedMap<String,EvaluatedClassDeclaration>
+        simpleClassMap =
+            new LoaderScopedMap<String,EvaluatedClassDeclaration>() ;
 
     /*
     private static final Map<Pair<String,List<EvaluatedType>>,
@@ -74,12 +84,89 @@ public class DeclarationFactory {
 
     private DeclarationFactory() {}
 
+    /** The members of a class declaration that are evaluated when they are
+     * first used, rather than when the class is evaluated.
+     */
+    interface Members {
+        /** The methods of ecd, or only those annotated with annotation if
+         * it is not null.
+         */
+        List<EvaluatedMethodDeclaration> methods( EvaluatedClassDeclaration ecd,
+            Class<? extends Annotation> annotation ) ;
+
+        /** The fields of ecd, or only those annotated with annotation if
+         * it is not null.
+         */
+        List<EvaluatedFieldDeclaration> fields( EvaluatedClassDeclaration ecd,
+            Class<? extends Annotation> annotation ) ;
+
+        /** The methods evaluated so far. */
+        List<EvaluatedMethodDeclaration> evaluatedMethods() ;
+
+        /** The fields evaluated so far. */
+        List<EvaluatedFieldDeclaration> evaluatedFields() ;
+    }
+
+    // Make the members of ecd lazy.  Called by TypeEvaluator instead of
+    // setting the methods and fields.
+    static void members( EvaluatedClassDeclaration ecd, Members members ) {
+        ((EvaluatedClassDeclarationImpl)ecd).members( members ) ;
+    }
+
+    // The methods of ecd, without evaluating any lazy members.
+    static List<EvaluatedMethodDeclaration> evaluatedMethods(
+        EvaluatedClassDeclaration ecd ) {
+
+        if (ecd instanceof EvaluatedClassDeclarationImpl) {
+            final Members members = ((EvaluatedClassDeclarationImpl)ecd).members ;
+            if (members != null) {
+                return members.evaluatedMethods() ;
+            }
+        }
+
+        return ecd.methods() ;
+    }
+
+    // The fields of ecd, without evaluating any lazy members.
+    static List<EvaluatedFieldDeclaration> evaluatedFields(
+        EvaluatedClassDeclaration ecd ) {
+
+        if (ecd instanceof EvaluatedClassDeclarationImpl) {
+            final Members members = ((EvaluatedClassDeclarationImpl)ecd).members ;
+            if (members != null) {
+                return members.evaluatedFields() ;
+            }
+        }
+
+        return ecd.fields() ;
+    }
+
+    private static <T extends EvaluatedDeclaration> List<T> annotated(
+        final List<T> decls, final Class<? extends Annotation> annotation ) {
+
+        final List<T> result = new ArrayList<T>() ;
+        for (T decl : decls) {
+            final AnnotatedElement element = decl.element() ;
+            if (element != null && element.isAnnotationPresent( annotation )) {
+                result.add( decl ) ;
+            }
+        }
+
+        return result ;
+    }
+
+    // Called from TypeEvaluator.purge.
+    static synchronized int purge( ClassLoader loader ) {
+        return arrayMap.purge( loader ) + simpleClassMap.purge( loader ) ;
+    }
+
     @TraceTypelib
     public static synchronized EvaluatedArrayType egat( final EvaluatedType compType ) {
-        EvaluatedArrayType result = arrayMap.get( compType ) ;
+        final Class<?> owner = LoaderScopedMap.owner( compType ) ;
+        EvaluatedArrayType result = arrayMap.get( owner, compType ) ;
         if (result == null) {
             result = new EvaluatedArrayTypeImpl( compType ) ;
-            arrayMap.put( compType, result ) ;
+            arrayMap.put( owner, compType, result ) ;
         }
 
         return result ;
@@ -95,14 +182,14 @@ public class DeclarationFactory {
         EvaluatedClassDeclaration result = null ;
         if (cls.getTypeParameters().length == 0) {
             // Try the cache first
-            result = simpleClassMap.get( name ) ;
+            result = simpleClassMap.get( cls, name ) ;
         }
 
         if (result == null) {
             result = new EvaluatedClassDeclarationImpl( modifiers, name,
                 inheritance, methods, fields, cls, isImmutable ) ;
             if (result.simpleClass()) {
-                simpleClassMap.put( name, result ) ;
+                simpleClassMap.put( cls, name, result ) ;
             }
         }
 
@@ -147,7 +234,89 @@ public class DeclarationFactory {
             isImmutable ) ;
     }
 
+    // Used to find the Method or Field of a declaration read by
+    // TypeEvaluator.loadCache.  The classes were checked to be unchanged when
+    // the cache was read, so the member must exist.
+    private static Method getDeclaredMethod( final Class<?> cls,
+        final String name, final Class<?>[] sig ) {
+
+        try {
+            if (System.getSecurityManager() == null) {
+                return cls.getDeclaredMethod( name, sig ) ;
+            } else {
+                return AccessController.doPrivileged(
+                    new PrivilegedExceptionAction<Method>() {
+                        public Method run() throws Exception {
+                            return cls.getDeclaredMethod( name, sig ) ;
+                        }
+                    } ) ;
+            }
+        } catch (NoSuchMethodException exc) {
+            throw Exceptions.self.internalTypeEvaluatorError( exc ) ;
+        } catch (PrivilegedActionException exc) {
+            throw Exceptions.self.internalTypeEvaluatorError( exc ) ;
+        }
+    }
+
+    private static Field getDeclaredField( final Class<?> cls,
+        final String name ) {
+
+        try {
+            if (System.getSecurityManager() == null) {
+                return cls.getDeclaredField( name ) ;
+            } else {
+                return AccessController.doPrivileged(
+                    new PrivilegedExceptionAction<Field>() {
+                        public Field run() throws Exception {
+                            return cls.getDeclaredField( name ) ;
+                        }
+                    } ) ;
+            }
+        } catch (NoSuchFieldException exc) {
+            throw Exceptions.self.internalTypeEvaluatorError( exc ) ;
+        } catch (PrivilegedActionException exc) {
+            throw Exceptions.self.internalTypeEvaluatorError( exc ) ;
+        }
+    }
+
+    // Stands in for one of the immutable EvaluatedClassDeclarations that
+    // TypeEvaluator creates when it is initialized, so that reading it yields
+    // the same instance (EvaluatedType.EINT and so on).
+    private static class ImmutableClassRef implements Serializable {
+        private static final long serialVersionUID = 6012532311540627462L;
+
+        private transient Class<?> cls ;
+
+        ImmutableClassRef( final Class<?> cls ) {
+            this.cls = cls ;
+        }
+
+        private void writeObject( ObjectOutputStream os ) throws IOException {
+            os.defaultWriteObject() ;
+            PersistentTypeCache.writeClass( os, cls ) ;
+        }
+
+        private void readObject( ObjectInputStream is )
+            throws IOException, ClassNotFoundException {
+
+            is.defaultReadObject() ;
+            cls = PersistentTypeCache.readClass( is ) ;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            final EvaluatedType result = TypeEvaluator.getImmutableEvaluatedType( cls ) ;
+            if (result == null) {
+                throw new InvalidObjectException( cls.getName()
+                    + " is not an immutable type" ) ;
+            }
+
+            return result ;
+        }
+    }
+
     private static class EvaluatedArrayTypeImpl extends EvaluatedArrayTypeBase {
+        private static final long serialVersionUID = 1013826137981313891L;
+
         private EvaluatedType compType ;
 
         public EvaluatedArrayTypeImpl( final EvaluatedType compType ) {
@@ -164,12 +333,17 @@ public class DeclarationFactory {
     private static class EvaluatedFieldDeclarationImpl
         extends EvaluatedFieldDeclarationBase  {
 
+        private static final long serialVersionUID = 5224933197003059042L;
+
         private final EvaluatedClassDeclaration container ;
         private final int modifiers ;
         private final EvaluatedType fieldType ;
         private final String name ;
         @DumpToString
-        private final Field field ;
+        private transient volatile Field field ;
+        // Set instead of field when read from a type cache: the Field is
+        // looked up on first use.
+        private transient Class<?> declaringClass ;
 
         public EvaluatedFieldDeclarationImpl(
             final EvaluatedClassDeclaration cdecl,
@@ -185,20 +359,22 @@ public class DeclarationFactory {
         }
 
         public <T extends Annotation> T annotation(Class<T> annotationType) {
-            if (field == null) {
+            final Field fld = field() ;
+            if (fld == null) {
                 throw new UnsupportedOperationException(
                     "Not supported in constructed ClassDeclaration.");
             } else {
-                return field.getAnnotation( annotationType ) ;
+                return fld.getAnnotation( annotationType ) ;
             }
         }
 
         public List<Annotation> annotations() {
-            if (field == null) {
+            final Field fld = field() ;
+            if (fld == null) {
                 throw new UnsupportedOperationException(
                     "Not supported in constructed ClassDeclaration.");
             } else {
-                return Arrays.asList( field.getAnnotations() ) ;
+                return Arrays.asList( fld.getAnnotations() ) ;
             }
         }
 
@@ -206,29 +382,55 @@ public class DeclarationFactory {
 
         public int modifiers() { return modifiers ; }
 
-        public AnnotatedElement element() { return field ; }
+        public AnnotatedElement element() { return field() ; }
 
-        public AccessibleObject accessible() { return field ; }
+        public AccessibleObject accessible() { return field() ; }
 
         public EvaluatedType fieldType() { return fieldType ; }
 
         public EvaluatedClassDeclaration containingClass() { return container ; }
 
         public Field field() {
-            return field ;
+            Field result = field ;
+            if (result == null && declaringClass != null) {
+                result = getDeclaredField( declaringClass, name ) ;
+                field = result ;
+            }
+
+            return result ;
+        }
+
+        private void writeObject( ObjectOutputStream os ) throws IOException {
+            os.defaultWriteObject() ;
+            final Field fld = field() ;
+            PersistentTypeCache.writeClass( os,
+                fld == null ? null : fld.getDeclaringClass() ) ;
+        }
+
+        private void readObject( ObjectInputStream is )
+            throws IOException, ClassNotFoundException {
+
+            is.defaultReadObject() ;
+            declaringClass = PersistentTypeCache.readClass( is ) ;
         }
     }
 
     private static class EvaluatedMethodDeclarationImpl 
         extends EvaluatedMethodDeclarationBase  {
 
+        private static final long serialVersionUID = -8780154312791292960L;
+
         private final EvaluatedClassDeclaration container ;
         private final int modifiers ;
         private final EvaluatedType rtype ;
         private final String name ;
         private final List<EvaluatedType> ptypes ;
         @DumpToString
-        private final Method method ;
+        private transient volatile Method method ;
+        // Set instead of method when read from a type cache: the Method is
+        // looked up on first use.
+        private transient Class<?> declaringClass ;
+        private transient Class<?>[] parameterClasses ;
 
         public EvaluatedMethodDeclarationImpl( EvaluatedClassDeclaration cdecl,
             final int modifiers, final EvaluatedType rtype,
@@ -253,38 +455,79 @@ public class DeclarationFactory {
         
         public EvaluatedClassDeclaration containingClass() { return container ; }
         
-        public java.lang.reflect.Method method() { return method ; }
+        public java.lang.reflect.Method method() {
+            Method result = method ;
+            if (result == null && declaringClass != null) {
+                result = getDeclaredMethod( declaringClass, name,
+                    parameterClasses ) ;
+                method = result ;
+            }
+
+            return result ;
+        }
 
         public <T extends Annotation> T annotation(Class<T> annotationType) {
-            if (method == null) {
+            final Method meth = method() ;
+            if (meth == null) {
                 throw new UnsupportedOperationException(
                     "Not supported in constructed ClassDeclaration.");
             } else {
-                return method.getAnnotation( annotationType ) ;
+                return meth.getAnnotation( annotationType ) ;
             }
         }
 
         public List<Annotation> annotations() {
-            if (method == null) {
+            final Method meth = method() ;
+            if (meth == null) {
                 throw new UnsupportedOperationException(
                     "Not supported in constructed ClassDeclaration.");
             } else {
-                return Arrays.asList( method.getAnnotations() ) ;
+                return Arrays.asList( meth.getAnnotations() ) ;
+            }
+        }
+
+        public AnnotatedElement element() { return method() ; }
+
+        public AccessibleObject accessible() { return method() ; }
+
+        private void writeObject( ObjectOutputStream os ) throws IOException {
+            os.defaultWriteObject() ;
+            final Method meth = method() ;
+            if (meth == null) {
+                PersistentTypeCache.writeClass( os, null ) ;
+            } else {
+                PersistentTypeCache.writeClass( os, meth.getDeclaringClass() ) ;
+                final Class<?>[] params = meth.getParameterTypes() ;
+                os.writeInt( params.length ) ;
+                for (Class<?> param : params) {
+                    PersistentTypeCache.writeClass( os, param ) ;
+                }
             }
         }
 
-        public AnnotatedElement element() { return method ; }
+        private void readObject( ObjectInputStream is )
+            throws IOException, ClassNotFoundException {
 
-        public AccessibleObject accessible() { return method ; }
+            is.defaultReadObject() ;
+            declaringClass = PersistentTypeCache.readClass( is ) ;
+            if (declaringClass != null) {
+                parameterClasses = new Class<?>[is.readInt()] ;
+                for (int ctr=0; ctr<parameterClasses.length; ctr++) {
+                    parameterClasses[ctr] = PersistentTypeCache.readClass( is ) ;
+                }
+            }
+        }
     }
 
     private static class EvaluatedClassDeclarationImpl extends EvaluatedClassDeclarationBase {
+        private static final long serialVersionUID = 1100737183380182759L;
+
         private final int modifiers ;
         private final String name ;
         private List<EvaluatedClassDeclaration> inheritance ;
         private List<EvaluatedMethodDeclaration> methods ;
         @DumpToString
-        private final Class cls ;
+        private transient Class cls ;
         private List<EvaluatedType> instantiations = 
             new ArrayList<EvaluatedType>(0) ;
         // set to TRUE if cls is a simple class with no type parameters
@@ -294,6 +537,8 @@ public class DeclarationFactory {
         private boolean frozen ;
         private List<EvaluatedFieldDeclaration> fields ;
         private boolean isImmutable ;
+        // If set, methods and fields come from here.
+        private volatile Members members ;
 
         public EvaluatedClassDeclarationImpl( final int modifiers,
             final String name, final List<EvaluatedClassDeclaration> inheritance,
@@ -316,6 +561,11 @@ public class DeclarationFactory {
             frozen = true ;
         }
 
+        @Override
+        boolean isFrozen() {
+            return frozen ;
+        }
+
         public boolean simpleClass() {
             return simpleClass ;
         }
@@ -344,7 +594,18 @@ public class DeclarationFactory {
 
         public Class cls() { return cls ; }
 
-        public List<EvaluatedMethodDeclaration> methods() { return methods ; }
+        public List<EvaluatedMethodDeclaration> methods() {
+            final Members lazy = members ;
+            return lazy == null ? methods : lazy.methods( this, null ) ;
+        }
+
+        public List<EvaluatedMethodDeclaration> methods(
+            Class<? extends Annotation> annotation ) {
+
+            final Members lazy = members ;
+            return lazy == null ? annotated( methods, annotation )
+                : lazy.methods( this, annotation ) ;
+        }
 
         public List<EvaluatedClassDeclaration> inheritance() { return inheritance ; } ;
 
@@ -378,7 +639,23 @@ public class DeclarationFactory {
             }
         }
 
-        public List<EvaluatedFieldDeclaration> fields() { return fields ; }
+        public List<EvaluatedFieldDeclaration> fields() {
+            final Members lazy = members ;
+            return lazy == null ? fields : lazy.fields( this, null ) ;
+        }
+
+        public List<EvaluatedFieldDeclaration> fields(
+            Class<? extends Annotation> annotation ) {
+
+            final Members lazy = members ;
+            return lazy == null ? annotated( fields, annotation )
+                : lazy.fields( this, annotation ) ;
+        }
+
+        void members( Members arg ) {
+            checkFrozen() ;
+            members = arg ;
+        }
 
         public void fields(List<EvaluatedFieldDeclaration> arg) {
             checkFrozen();
@@ -388,5 +665,25 @@ public class DeclarationFactory {
         public boolean isImmutable() {
             return isImmutable ;
         }
+
+        private Object writeReplace() throws ObjectStreamException {
+            if (cls != null && TypeEvaluator.getImmutableEvaluatedType( cls ) == this) {
+                return new ImmutableClassRef( cls ) ;
+            }
+
+            return this ;
+        }
+
+        private void writeObject( ObjectOutputStream os ) throws IOException {
+            os.defaultWriteObject() ;
+            PersistentTypeCache.writeClass( os, cls ) ;
+        }
+
+        private void readObject( ObjectInputStream is )
+            throws IOException, ClassNotFoundException {
+
+            is.defaultReadObject() ;
+            cls = PersistentTypeCache.readClass( is ) ;
+        }
     }
 }
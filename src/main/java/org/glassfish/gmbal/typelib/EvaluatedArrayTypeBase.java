@@ -40,6 +40,8 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.util.Collections;
+import java.util.List;
 import org.glassfish.pfl.basic.contain.ObjectSet;
 
 /**
@@ -48,7 +50,8 @@ import org.glassfish.pfl.basic.contain.ObjectSet;
  */
 public abstract class EvaluatedArrayTypeBase extends EvaluatedTypeBase 
     implements EvaluatedArrayType {
-        
+    private static final long serialVersionUID = -8004100540618157755L;
+
     void makeRepresentation( StringBuilder sb, ObjectSet set ) {
         ((EvaluatedTypeBase)componentType()).makeRepresentation( sb, set ) ;
         sb.append( "[]" ) ;
@@ -64,6 +67,11 @@ public abstract class EvaluatedArrayTypeBase extends EvaluatedTypeBase
         return ((EvaluatedTypeBase)componentType()).hashCode( set ) * 37 ;
     }
 
+    @Override
+    List<EvaluatedType> hashInputs() {
+        return Collections.singletonList( componentType() ) ;
+    }
+
     @Override
     public <R> R accept( Visitor<R> visitor ) {
         return visitor.visitEvaluatedArrayType(this) ;
@@ -198,6 +198,9 @@ public class EvaluatedClassAnalyzer {
         final List<EvaluatedMethodDeclaration> result =
             new ArrayList<EvaluatedMethodDeclaration>() ;
 
+        // Not methods( Class ): pred usually checks annotations through the
+        // ManagedObjectManager, which also sees those added with
+        // addAnnotation.
         for (EvaluatedClassDeclaration c : classInheritance) {
             for (EvaluatedMethodDeclaration m : c.methods()) {
                 if (pred.evaluate( m )) {
@@ -215,6 +218,7 @@ public class EvaluatedClassAnalyzer {
         final List<EvaluatedFieldDeclaration> result =
             new ArrayList<EvaluatedFieldDeclaration>() ;
 	
+        // Not fields( Class ), for the same reason as in findMethods.
         for (EvaluatedClassDeclaration c : classInheritance) {
             for (EvaluatedFieldDeclaration f : c.fields()) {
                 if (pred.evaluate( f )) {
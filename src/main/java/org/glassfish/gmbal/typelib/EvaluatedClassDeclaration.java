@@ -40,6 +40,7 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.lang.annotation.Annotation;
 import java.util.List;
 
 public interface EvaluatedClassDeclaration extends EvaluatedDeclaration {
@@ -49,6 +50,22 @@ public interface EvaluatedClassDeclaration extends EvaluatedDeclaration {
 
     List<EvaluatedFieldDeclaration> fields() ;
 
+    /** The fields of this class that are annotated with annotation.
+     * If the class was evaluated with lazy members (see
+     * TypeEvaluator.setLazyMembers), only these fields are evaluated.
+     * <p>
+     * The annotation is checked with Field.isAnnotationPresent, so
+     * annotations added to a ManagedObjectManager with addAnnotation are
+     * not seen here, and a field that only has an added annotation is
+     * missing from the result.  A caller that must honor added annotations
+     * uses fields() and ManagedObjectManagerInternal.getAnnotation instead,
+     * as the ManagedObjectManager's own analysis does.
+     * @param annotation The annotation the fields must have.
+     * @return The annotated fields.
+     */
+    List<EvaluatedFieldDeclaration> fields(
+        Class<? extends Annotation> annotation ) ;
+
     void fields( List<EvaluatedFieldDeclaration> arg ) ;
 
     List<EvaluatedType> instantiations() ;
@@ -56,6 +73,22 @@ public interface EvaluatedClassDeclaration extends EvaluatedDeclaration {
     void instantiations( List<EvaluatedType> arg ) ;
 
     List<EvaluatedMethodDeclaration> methods() ;
+
+    /** The methods of this class that are annotated with annotation.
+     * If the class was evaluated with lazy members (see
+     * TypeEvaluator.setLazyMembers), only these methods are evaluated.
+     * <p>
+     * The annotation is checked with Method.isAnnotationPresent, so
+     * annotations added to a ManagedObjectManager with addAnnotation are
+     * not seen here, and a method that only has an added annotation is
+     * missing from the result.  A caller that must honor added annotations
+     * uses methods() and ManagedObjectManagerInternal.getAnnotation
+     * instead, as the ManagedObjectManager's own analysis does.
+     * @param annotation The annotation the methods must have.
+     * @return The annotated methods.
+     */
+    List<EvaluatedMethodDeclaration> methods(
+        Class<? extends Annotation> annotation ) ;
     
     void methods( List<EvaluatedMethodDeclaration> meths ) ;
 
@@ -40,6 +40,7 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.util.Collections;
 import java.util.List;
 import org.glassfish.pfl.basic.contain.ObjectSet;
 
@@ -49,7 +50,8 @@ import org.glassfish.pfl.basic.contain.ObjectSet;
  */
 public abstract class EvaluatedClassDeclarationBase extends EvaluatedDeclarationBase
     implements EvaluatedClassDeclaration {
-    
+    private static final long serialVersionUID = 7395183347947068367L;
+
     void makeRepresentation( StringBuilder sb, ObjectSet set ) {
         sb.append( name() ) ;
         if (instantiations() != null && !set.contains( this)) {
@@ -87,6 +89,16 @@ public abstract class EvaluatedClassDeclarationBase extends EvaluatedDeclaration
         }
     }
 
+    @Override
+    List<EvaluatedType> hashInputs() {
+        final List<EvaluatedType> result = instantiations() ;
+        if (result == null) {
+            return Collections.emptyList() ;
+        }
+
+        return result ;
+    }
+
     @Override
     public <R> R accept( Visitor<R> visitor ) {
         return visitor.visitEvaluatedClassDeclaration( this ) ;
@@ -46,7 +46,8 @@ package org.glassfish.gmbal.typelib;
  */
 public abstract class EvaluatedDeclarationBase extends EvaluatedTypeBase
     implements EvaluatedDeclaration {
-    
+    private static final long serialVersionUID = -889153726688606886L;
+
     @Override
     public <R> R accept( Visitor<R> visitor ) {
         return visitor.visitEvaluatedDeclaration(this);
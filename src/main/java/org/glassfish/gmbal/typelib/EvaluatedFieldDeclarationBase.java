@@ -40,6 +40,8 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.util.Collections;
+import java.util.List;
 import org.glassfish.pfl.basic.contain.ObjectSet;
 
 /**
@@ -49,7 +51,8 @@ import org.glassfish.pfl.basic.contain.ObjectSet;
 public abstract class EvaluatedFieldDeclarationBase 
     extends EvaluatedDeclarationBase
     implements EvaluatedFieldDeclaration {
-    
+    private static final long serialVersionUID = -6562068671612131477L;
+
     @Override
     public <R> R accept( Visitor<R> visitor ) {
         return visitor.visitEvaluatedFieldDeclaration(this) ;
@@ -83,4 +86,9 @@ public abstract class EvaluatedFieldDeclarationBase
         return fieldType().hashCode() ^
             name().hashCode() ;
     }
+
+    @Override
+    List<EvaluatedType> hashInputs() {
+        return Collections.singletonList( fieldType() ) ;
+    }
 }
@@ -40,6 +40,8 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.glassfish.pfl.basic.contain.ObjectSet;
 
 /**
@@ -49,7 +51,8 @@ import org.glassfish.pfl.basic.contain.ObjectSet;
 public abstract class EvaluatedMethodDeclarationBase 
     extends EvaluatedDeclarationBase
     implements EvaluatedMethodDeclaration {
-    
+    private static final long serialVersionUID = 7738395215236059591L;
+
     @Override
     public <R> R accept( Visitor<R> visitor ) {
         return visitor.visitEvaluatedMethodDeclaration(this) ;
@@ -87,4 +90,12 @@ public abstract class EvaluatedMethodDeclarationBase
             parameterTypes().hashCode() ^
             name().hashCode() ;
     }
+
+    @Override
+    List<EvaluatedType> hashInputs() {
+        final List<EvaluatedType> result =
+            new ArrayList<EvaluatedType>( parameterTypes() ) ;
+        result.add( returnType() ) ;
+        return result ;
+    }
 }
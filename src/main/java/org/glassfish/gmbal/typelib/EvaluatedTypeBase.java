@@ -40,23 +40,37 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.io.Serializable;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import org.glassfish.pfl.basic.contain.ObjectSet;
 
-/**
+/** Base class of all EvaluatedTypes.  EvaluatedTypes are Serializable only
+ * so that TypeEvaluator.saveCache can write them: the reflective objects
+ * they refer to are written as names, and looked up again when read.
  *
  * @author ken
  */
-public abstract class EvaluatedTypeBase implements EvaluatedType {
+public abstract class EvaluatedTypeBase implements EvaluatedType,
+    Serializable {
+
+    private static final long serialVersionUID = -1394420446428547237L;
     
     public <R> R accept( Visitor<R> visitor ) {
         return visitor.visitEvaluatedType( this ) ;
     }
 
-    private String rep = null ;
+    private transient String rep = null ;
+
+    // The result of hashCode, once nothing that it depends on can change
+    // (see hashIsFinal).  hash is written before hashFinal.
+    private transient volatile int hash ;
+    private transient volatile boolean hashFinal ;
 
     public static void handleModifier( StringBuilder sb, int modifiers ) {
         if (Modifier.isPublic( modifiers )) {
@@ -148,6 +162,20 @@ public abstract class EvaluatedTypeBase implements EvaluatedType {
     // with circular structures.
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     public boolean equals( Object obj ) {
+        if (this == obj) {
+            return true ;
+        }
+
+        // The TypeEvaluator returns the same instance for the same type, so
+        // a different instance is usually a different type, which the hash
+        // codes show without walking either structure.
+        if (obj instanceof EvaluatedTypeBase) {
+            final EvaluatedTypeBase other = (EvaluatedTypeBase)obj ;
+            if (hashFinal && other.hashFinal && hash != other.hash) {
+                return false ;
+            }
+        }
+
         ObjectSet set = new ObjectSet() ;
         return equals( obj, set ) ;
     }
@@ -198,12 +226,59 @@ public abstract class EvaluatedTypeBase implements EvaluatedType {
 
     @Override
     public int hashCode() {
+        if (hashFinal) {
+            return hash ;
+        }
+
         ObjectSet set = new ObjectSet() ;
-        return hashCode( set ) ;
+        final int result = hashCode( set ) ;
+        if (hashIsFinal()) {
+            hash = result ;
+            hashFinal = true ;
+        }
+
+        return result ;
     }
 
     abstract int hashCode( ObjectSet map ) ;
 
+    /** Return false while this type can still be changed.  Only class
+     * declarations change after they are created: the TypeEvaluator
+     * completes them and then freezes them.
+     */
+    boolean isFrozen() {
+        return true ;
+    }
+
+    /** The types whose structure hashCode( ObjectSet ) depends on.
+     */
+    List<EvaluatedType> hashInputs() {
+        return Collections.emptyList() ;
+    }
+
+    // True if every type that the hash code depends on is frozen.
+    private boolean hashIsFinal() {
+        final Map<Object,Object> visited =
+            new IdentityHashMap<Object,Object>() ;
+        final List<EvaluatedType> work = new ArrayList<EvaluatedType>() ;
+        work.add( this ) ;
+        while (!work.isEmpty()) {
+            final EvaluatedTypeBase etb =
+                (EvaluatedTypeBase)work.remove( work.size() - 1 ) ;
+            if (etb == null || visited.put( etb, etb ) != null) {
+                continue ;
+            }
+
+            if (!etb.isFrozen()) {
+                return false ;
+            }
+
+            work.addAll( etb.hashInputs() ) ;
+        }
+
+        return true ;
+    }
+
     public boolean isImmutable() {
         return false ;
     }
@@ -40,6 +40,8 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import org.glassfish.pfl.basic.logex.Chain;
 import org.glassfish.pfl.basic.logex.ExceptionWrapper;
@@ -89,4 +91,12 @@ public interface Exceptions {
     @Message( "Error thrown from getEvaluatedType for class {0}")
     @Log( id=TYPE_EVALUATOR_START + 5, level=LogLevel.SEVERE )
     IllegalStateException errorInTypeEval( Class cls, @Chain Error err);
+
+    @Message( "Type cache {0} is out of date: {1} has changed")
+    @Log( id=TYPE_EVALUATOR_START + 6, level=LogLevel.INFO )
+    void typeCacheStale( File file, String name ) ;
+
+    @Message( "Could not read type cache {0}")
+    @Log( id=TYPE_EVALUATOR_START + 7, level=LogLevel.WARNING )
+    void typeCacheUnreadable( @Chain IOException exc, File file ) ;
 }
@@ -0,0 +1,281 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.typelib;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** A cache of the typelib whose entries do not keep their classes (and so
+ * their ClassLoaders) alive.  Every entry belongs to an owner class, and is
+ * stored in a ClassValue of that class, so it is collected together with
+ * the owner's ClassLoader.  The owner of an entry is the class of its key
+ * from the most specific ClassLoader: the entry for List&lt;Foo&gt; belongs
+ * to Foo, not to List.  If a key refers to classes of unrelated
+ * ClassLoaders, one of them is chosen, and the entry can keep the other
+ * ones alive until it is purged.
+ * <p>
+ * get does not lock.  Classes of the bootstrap ClassLoader are never
+ * collected, and their entries are never removed.
+ */
+final class LoaderScopedMap<K,V> {
+    private final ClassValue<ConcurrentMap<K,V>> entries =
+        new ClassValue<ConcurrentMap<K,V>>() {
+            @Override
+            protected ConcurrentMap<K,V> computeValue( Class<?> cls ) {
+                return new ConcurrentHashMap<K,V>( 4 ) ;
+            }
+        } ;
+
+    // The classes that own entries, by ClassLoader.  The keys of the inner
+    // maps are weak too, so this does not keep any class alive.
+    private final Map<ClassLoader,Map<Class<?>,Boolean>> owners =
+        new WeakHashMap<ClassLoader,Map<Class<?>,Boolean>>() ;
+
+    V get( Class<?> owner, K key ) {
+        return entries.get( owner ).get( key ) ;
+    }
+
+    synchronized void put( Class<?> owner, K key, V value ) {
+        entries.get( owner ).put( key, value ) ;
+
+        final ClassLoader loader = owner.getClassLoader() ;
+        Map<Class<?>,Boolean> classes = owners.get( loader ) ;
+        if (classes == null) {
+            classes = new WeakHashMap<Class<?>,Boolean>() ;
+            owners.put( loader, classes ) ;
+        }
+        classes.put( owner, Boolean.TRUE ) ;
+    }
+
+    synchronized int size() {
+        int result = 0 ;
+        for (Map<Class<?>,Boolean> classes : owners.values()) {
+            result += size( classes ) ;
+        }
+
+        return result ;
+    }
+
+    /** The number of entries owned by classes of loader.
+     */
+    synchronized int size( ClassLoader loader ) {
+        final Map<Class<?>,Boolean> classes = owners.get( loader ) ;
+        return classes == null ? 0 : size( classes ) ;
+    }
+
+    private int size( Map<Class<?>,Boolean> classes ) {
+        int result = 0 ;
+        for (Class<?> cls : classes.keySet()) {
+            result += entries.get( cls ).size() ;
+        }
+
+        return result ;
+    }
+
+    /** A copy of all entries.
+     */
+    synchronized List<Map.Entry<K,V>> entries() {
+        final List<Map.Entry<K,V>> result = new ArrayList<Map.Entry<K,V>>() ;
+        for (ClassLoader loader : owners.keySet()) {
+            result.addAll( entries( loader ) ) ;
+        }
+
+        return result ;
+    }
+
+    /** A copy of the entries owned by classes of loader.
+     */
+    synchronized List<Map.Entry<K,V>> entries( ClassLoader loader ) {
+        final List<Map.Entry<K,V>> result = new ArrayList<Map.Entry<K,V>>() ;
+        final Map<Class<?>,Boolean> classes = owners.get( loader ) ;
+        if (classes != null) {
+            for (Class<?> cls : classes.keySet()) {
+                for (Map.Entry<K,V> entry : entries.get( cls ).entrySet()) {
+                    result.add( new AbstractMap.SimpleImmutableEntry<K,V>(
+                        entry ) ) ;
+                }
+            }
+        }
+
+        return result ;
+    }
+
+    /** Remove the entries owned by classes of loader, or of any
+     * ClassLoader that has loader as an ancestor.  Entries of the bootstrap
+     * ClassLoader are not removed.
+     * @return The number of entries removed.
+     */
+    synchronized int purge( ClassLoader loader ) {
+        int result = 0 ;
+        if (loader == null) {
+            return result ;
+        }
+
+        final Iterator<Map.Entry<ClassLoader,Map<Class<?>,Boolean>>> iter =
+            owners.entrySet().iterator() ;
+        while (iter.hasNext()) {
+            final Map.Entry<ClassLoader,Map<Class<?>,Boolean>> entry =
+                iter.next() ;
+            if (entry.getKey() != null
+                && isAncestor( loader, entry.getKey() )) {
+
+                for (Class<?> cls : entry.getValue().keySet()) {
+                    result += entries.get( cls ).size() ;
+                    entries.remove( cls ) ;
+                }
+
+                iter.remove() ;
+            }
+        }
+
+        return result ;
+    }
+
+    /** The ClassLoaders of the classes that own entries.
+     */
+    synchronized List<ClassLoader> loaders() {
+        return new ArrayList<ClassLoader>( owners.keySet() ) ;
+    }
+
+    /** The owner of an entry whose key refers to cls and types.
+     */
+    static Class<?> owner( Class<?> cls, List<EvaluatedType> types ) {
+        final Owner result = new Owner( cls ) ;
+        for (EvaluatedType type : types) {
+            result.add( type ) ;
+        }
+
+        return result.cls ;
+    }
+
+    /** The owner of an entry whose key is type.
+     */
+    static Class<?> owner( EvaluatedType type ) {
+        final Owner result = new Owner( Object.class ) ;
+        result.add( type ) ;
+        return result.cls ;
+    }
+
+    private static class Owner {
+        private Class<?> cls ;
+        private final Map<EvaluatedType,EvaluatedType> visited =
+            new IdentityHashMap<EvaluatedType,EvaluatedType>() ;
+
+        Owner( Class<?> cls ) {
+            this.cls = cls ;
+        }
+
+        // Visits the classes that a (possibly parameterized) type refers to.
+        // Only the type arguments are followed, not the members.
+        void add( EvaluatedType type ) {
+            if (type == null || visited.put( type, type ) != null) {
+                return ;
+            }
+
+            if (type instanceof EvaluatedArrayType) {
+                add( ((EvaluatedArrayType)type).componentType() ) ;
+            } else if (type instanceof EvaluatedClassDeclaration) {
+                final EvaluatedClassDeclaration ecd =
+                    (EvaluatedClassDeclaration)type ;
+                final Class<?> other = ecd.cls() ;
+                if (other != null && isMoreSpecific( other, cls )) {
+                    cls = other ;
+                }
+
+                final List<EvaluatedType> args = ecd.instantiations() ;
+                if (args != null) {
+                    for (EvaluatedType arg : args) {
+                        add( arg ) ;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isMoreSpecific( Class<?> cls, Class<?> than ) {
+        final ClassLoader loader = cls.getClassLoader() ;
+        final ClassLoader thanLoader = than.getClassLoader() ;
+        return loader != thanLoader && isAncestor( thanLoader, loader ) ;
+    }
+
+    // Returns true if ancestor is loader, or one of its parents.  The
+    // bootstrap ClassLoader (null) is an ancestor of every ClassLoader.
+    private static boolean isAncestor( ClassLoader ancestor,
+        ClassLoader loader ) {
+
+        if (ancestor == null) {
+            return true ;
+        }
+
+        ClassLoader current = loader ;
+        while (current != null) {
+            if (current == ancestor) {
+                return true ;
+            }
+
+            current = getParent( current ) ;
+        }
+
+        return false ;
+    }
+
+    private static ClassLoader getParent( final ClassLoader loader ) {
+        if (System.getSecurityManager() == null) {
+            return loader.getParent() ;
+        } else {
+            return AccessController.doPrivileged(
+                new PrivilegedAction<ClassLoader>() {
+                    public ClassLoader run() {
+                        return loader.getParent() ;
+                    }
+                } ) ;
+        }
+    }
+}
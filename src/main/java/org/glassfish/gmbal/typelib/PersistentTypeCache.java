@@ -0,0 +1,514 @@
+/* 
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *  
+ *  Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *  
+ *  The contents of this file are subject to the terms of either the GNU
+ *  General Public License Version 2 only ("GPL") or the Common Development
+ *  and Distribution License("CDDL") (collectively, the "License").  You
+ *  may not use this file except in compliance with the License.  You can
+ *  obtain a copy of the License at
+ *  https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ *  or packager/legal/LICENSE.txt.  See the License for the specific
+ *  language governing permissions and limitations under the License.
+ *  
+ *  When distributing the software, include this License Header Notice in each
+ *  file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ *  
+ *  GPL Classpath Exception:
+ *  Oracle designates this particular file as subject to the "Classpath"
+ *  exception as provided by Oracle in the GPL Version 2 section of the License
+ *  file that accompanied this code.
+ *  
+ *  Modifications:
+ *  If applicable, add the following below the License Header, with the fields
+ *  enclosed by brackets [] replaced by your own identifying information:
+ *  "Portions Copyright [year] [name of copyright owner]"
+ *  
+ *  Contributor(s):
+ *  If you wish your version of this file to be governed by only the CDDL or
+ *  only the GPL Version 2, indicate your decision by adding "[Contributor]
+ *  elects to include this software in this distribution under the [CDDL or GPL
+ *  Version 2] license."  If you don't indicate a single choice of license, a
+ *  recipient has the option to distribute your version of this file under
+ *  either the CDDL, the GPL Version 2 or to extend the choice of license to
+ *  its licensees as provided above.  However, if you add GPL Version 2 code
+ *  and therefore, elected the GPL Version 2 license, then the option applies
+ *  only if the new code is made subject to such option by the copyright
+ *  holder.
+ */ 
+
+package org.glassfish.gmbal.typelib;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/** The contents of a file written by TypeEvaluator.saveCache: the entries
+ * of the TypeEvaluator caches, and a hash of the bytes of every class that
+ * they refer to.  A file is only used if all of those classes are unchanged,
+ * and if it was written by the same Java version (which covers the classes
+ * of the JDK, whose bytes are not hashed).
+ * <p>
+ * The file starts with a header of class names and hashes, which is checked
+ * before the serialized entries are read.  It is read through a memory
+ * mapping.
+ * <p>
+ * Class objects are written as their names by writeClass, and resolved
+ * through the ClassLoader passed to read by readClass.  Everything else in
+ * the stream must be an instance of a typelib class, String, or ArrayList:
+ * any other class is rejected before it is instantiated, so a corrupted or
+ * planted file cannot create arbitrary objects.
+ */
+class PersistentTypeCache implements Serializable {
+    private static final long serialVersionUID = 4468283619722934870L;
+
+    static final int MAGIC = 0x474d4254 ; // "GMBT"
+    static final int VERSION = 2 ;
+    private static final long NO_HASH = -1 ;
+
+    // Parallel lists, rather than maps, so that no hashCode is computed while
+    // the (cyclic) graph of EvaluatedTypes is only partly read.
+    private transient List<Class<?>> declClasses = new ArrayList<Class<?>>() ;
+    private final List<List<EvaluatedType>> declBindings =
+        new ArrayList<List<EvaluatedType>>() ;
+    private final List<EvaluatedClassDeclaration> decls =
+        new ArrayList<EvaluatedClassDeclaration>() ;
+    private transient List<Class<?>> rootClasses = new ArrayList<Class<?>>() ;
+    private final List<EvaluatedType> roots = new ArrayList<EvaluatedType>() ;
+
+    // Only used while writing.
+    private transient Map<Class<?>,Long> hashes =
+        new HashMap<Class<?>,Long>() ;
+    // Only used while writing: the objects whose graphs are already known to
+    // contain only hashable classes.  The entries share most of their graphs,
+    // so this keeps saveCache linear in the size of the caches.
+    private transient Map<Object,Object> checked =
+        new IdentityHashMap<Object,Object>() ;
+
+    int size() {
+        return roots.size() ;
+    }
+
+    Class<?> declClass( int index ) {
+        return declClasses.get( index ) ;
+    }
+
+    List<EvaluatedType> declBindings( int index ) {
+        return declBindings.get( index ) ;
+    }
+
+    EvaluatedClassDeclaration decl( int index ) {
+        return decls.get( index ) ;
+    }
+
+    int declCount() {
+        return decls.size() ;
+    }
+
+    Class<?> rootClass( int index ) {
+        return rootClasses.get( index ) ;
+    }
+
+    EvaluatedType root( int index ) {
+        return roots.get( index ) ;
+    }
+
+    /** Add an entry of the evalClassMap, unless it refers to a class whose
+     * bytes cannot be read.
+     */
+    void addDeclaration( Class<?> cls, List<EvaluatedType> bindings,
+        EvaluatedClassDeclaration decl ) {
+
+        final List<Object> graph = new ArrayList<Object>( bindings ) ;
+        graph.add( decl ) ;
+        if (hashAll( cls, graph )) {
+            declClasses.add( cls ) ;
+            declBindings.add( bindings ) ;
+            decls.add( decl ) ;
+        }
+    }
+
+    /** Add an entry of the classMap, unless it refers to a class whose
+     * bytes cannot be read.
+     */
+    void addRoot( Class<?> cls, EvaluatedType type ) {
+        final List<Object> graph = new ArrayList<Object>( 1 ) ;
+        graph.add( type ) ;
+        if (hashAll( cls, graph )) {
+            rootClasses.add( cls ) ;
+            roots.add( type ) ;
+        }
+    }
+
+    // Hash every class in the graphs of the types in work, and return false
+    // if one of them cannot be hashed.
+    private boolean hashAll( Class<?> cls, List<Object> work ) {
+        final Map<Object,Object> visited = new IdentityHashMap<Object,Object>() ;
+        if (!hash( cls )) {
+            return false ;
+        }
+
+        while (!work.isEmpty()) {
+            final Object obj = work.remove( work.size() - 1 ) ;
+            if (obj == null || checked.containsKey( obj )
+                || visited.put( obj, obj ) != null) {
+                continue ;
+            }
+
+            if (obj instanceof EvaluatedClassDeclaration) {
+                final EvaluatedClassDeclaration ecd =
+                    (EvaluatedClassDeclaration)obj ;
+                if (ecd.cls() != null && !hash( ecd.cls() )) {
+                    return false ;
+                }
+
+                work.addAll( ecd.inheritance() ) ;
+                work.addAll( DeclarationFactory.evaluatedMethods( ecd ) ) ;
+                work.addAll( DeclarationFactory.evaluatedFields( ecd ) ) ;
+                work.addAll( ecd.instantiations() ) ;
+            } else if (obj instanceof EvaluatedMethodDeclaration) {
+                final EvaluatedMethodDeclaration emd =
+                    (EvaluatedMethodDeclaration)obj ;
+                final Method method = emd.method() ;
+                if (method != null && !hash( method.getDeclaringClass() )) {
+                    return false ;
+                }
+
+                work.add( emd.containingClass() ) ;
+                work.add( emd.returnType() ) ;
+                work.addAll( emd.parameterTypes() ) ;
+            } else if (obj instanceof EvaluatedFieldDeclaration) {
+                final EvaluatedFieldDeclaration efd =
+                    (EvaluatedFieldDeclaration)obj ;
+                final Field field = efd.field() ;
+                if (field != null && !hash( field.getDeclaringClass() )) {
+                    return false ;
+                }
+
+                work.add( efd.containingClass() ) ;
+                work.add( efd.fieldType() ) ;
+            } else if (obj instanceof EvaluatedArrayType) {
+                work.add( ((EvaluatedArrayType)obj).componentType() ) ;
+            }
+        }
+
+        checked.putAll( visited ) ;
+        return true ;
+    }
+
+    private boolean hash( Class<?> cls ) {
+        Long result = hashes.get( cls ) ;
+        if (result == null) {
+            result = hashOf( cls ) ;
+            hashes.put( cls, result ) ;
+        }
+
+        return result != NO_HASH ;
+    }
+
+    // Classes of the JDK are covered by the Java version in the header.
+    private static long hashOf( Class<?> cls ) {
+        if (cls.isPrimitive() || cls.getClassLoader() == null) {
+            return 0 ;
+        }
+
+        final InputStream is = cls.getResourceAsStream(
+            "/" + cls.getName().replace( '.', '/' ) + ".class" ) ;
+        if (is == null) {
+            return NO_HASH ;
+        }
+
+        try {
+            try {
+                final CRC32 crc = new CRC32() ;
+                final byte[] buffer = new byte[4096] ;
+                int count ;
+                while ((count = is.read( buffer )) > 0) {
+                    crc.update( buffer, 0, count ) ;
+                }
+
+                return crc.getValue() ;
+            } finally {
+                is.close() ;
+            }
+        } catch (IOException exc) {
+            return NO_HASH ;
+        }
+    }
+
+    /** Write this cache to file, replacing any previous contents only once
+     * the new contents are complete.
+     */
+    void write( File file ) throws IOException {
+        final File temp = new File( file.getPath() + ".tmp" ) ;
+        final DataOutputStream os = new DataOutputStream(
+            new BufferedOutputStream( new FileOutputStream( temp ) ) ) ;
+        try {
+            os.writeInt( MAGIC ) ;
+            os.writeInt( VERSION ) ;
+            os.writeUTF( System.getProperty( "java.version" ) ) ;
+            os.writeInt( hashes.size() ) ;
+            for (Map.Entry<Class<?>,Long> entry : hashes.entrySet()) {
+                os.writeUTF( entry.getKey().getName() ) ;
+                os.writeLong( entry.getValue() ) ;
+            }
+
+            final ObjectOutputStream oos = new ObjectOutputStream( os ) ;
+            oos.writeObject( this ) ;
+            oos.flush() ;
+        } finally {
+            os.close() ;
+        }
+
+        if (!temp.renameTo( file )) {
+            file.delete() ;
+            if (!temp.renameTo( file )) {
+                throw new IOException( "Could not rename " + temp
+                    + " to " + file ) ;
+            }
+        }
+    }
+
+    /** Read the cache in file, resolving its classes through loader.
+     * Returns null if file does not exist, or if any of its classes has
+     * changed or cannot be found.
+     */
+    static PersistentTypeCache read( final File file,
+        final ClassLoader loader )
+        throws IOException {
+
+        if (!file.exists()) {
+            return null ;
+        }
+
+        final ByteBuffer buffer ;
+        final RandomAccessFile raf = new RandomAccessFile( file, "r" ) ;
+        try {
+            final FileChannel channel = raf.getChannel() ;
+            buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0,
+                channel.size() ) ;
+        } finally {
+            raf.close() ;
+        }
+
+        final DataInputStream is = new DataInputStream(
+            new ByteBufferInputStream( buffer ) ) ;
+        if (is.readInt() != MAGIC || is.readInt() != VERSION) {
+            throw new IOException( file + " is not a type cache" ) ;
+        }
+
+        final String javaVersion = is.readUTF() ;
+        if (!javaVersion.equals( System.getProperty( "java.version" ) )) {
+            Exceptions.self.typeCacheStale( file, "java.version" ) ;
+            return null ;
+        }
+
+        final int count = is.readInt() ;
+        for (int ctr=0; ctr<count; ctr++) {
+            final String name = is.readUTF() ;
+            final long hash = is.readLong() ;
+            try {
+                if (hashOf( classForName( name, loader ) ) != hash) {
+                    Exceptions.self.typeCacheStale( file, name ) ;
+                    return null ;
+                }
+            } catch (ClassNotFoundException exc) {
+                Exceptions.self.typeCacheStale( file, name ) ;
+                return null ;
+            }
+        }
+
+        final ObjectInputStream ois = new CacheInputStream( is, loader ) ;
+
+        try {
+            return (PersistentTypeCache)ois.readObject() ;
+        } catch (ClassNotFoundException exc) {
+            throw new IOException( "Could not read " + file, exc ) ;
+        } catch (ClassCastException exc) {
+            throw new IOException( "Could not read " + file, exc ) ;
+        }
+    }
+
+    private void writeObject( ObjectOutputStream os ) throws IOException {
+        os.defaultWriteObject() ;
+        writeClasses( os, declClasses ) ;
+        writeClasses( os, rootClasses ) ;
+    }
+
+    private void readObject( ObjectInputStream is )
+        throws IOException, ClassNotFoundException {
+
+        is.defaultReadObject() ;
+        declClasses = readClasses( is ) ;
+        rootClasses = readClasses( is ) ;
+    }
+
+    private static void writeClasses( ObjectOutputStream os,
+        List<Class<?>> classes ) throws IOException {
+
+        os.writeInt( classes.size() ) ;
+        for (Class<?> cls : classes) {
+            writeClass( os, cls ) ;
+        }
+    }
+
+    private static List<Class<?>> readClasses( ObjectInputStream is )
+        throws IOException, ClassNotFoundException {
+
+        final int size = is.readInt() ;
+        final List<Class<?>> result = new ArrayList<Class<?>>( size ) ;
+        for (int ctr=0; ctr<size; ctr++) {
+            result.add( readClass( is ) ) ;
+        }
+
+        return result ;
+    }
+
+    /** Write cls (which may be null) by name.  The writeObject methods of
+     * the typelib classes must use this instead of writing a Class, because
+     * a Class in the stream is resolved like the class of an instance, and
+     * so is rejected unless it is one of the few classes a cache may contain.
+     */
+    static void writeClass( ObjectOutputStream os, Class<?> cls )
+        throws IOException {
+
+        os.writeObject( cls == null ? null : cls.getName() ) ;
+    }
+
+    /** Read a class written by writeClass, resolving it through the
+     * ClassLoader passed to read.
+     */
+    static Class<?> readClass( ObjectInputStream is )
+        throws IOException, ClassNotFoundException {
+
+        final String name = (String)is.readObject() ;
+        if (name == null) {
+            return null ;
+        }
+
+        if (!(is instanceof CacheInputStream)) {
+            throw new InvalidObjectException(
+                "typelib types can only be read from a type cache" ) ;
+        }
+
+        return classForName( name, ((CacheInputStream)is).loader ) ;
+    }
+
+    private static final String TYPELIB_PREFIX =
+        PersistentTypeCache.class.getPackage().getName() + "." ;
+
+    // Reads only instances of the typelib classes, String, and ArrayList.
+    private static class CacheInputStream extends ObjectInputStream {
+        private final ClassLoader loader ;
+
+        CacheInputStream( InputStream is, ClassLoader loader )
+            throws IOException {
+
+            super( is ) ;
+            this.loader = loader ;
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc )
+            throws IOException, ClassNotFoundException {
+
+            final String name = desc.getName() ;
+            if (name.equals( String.class.getName() )) {
+                return String.class ;
+            } else if (name.equals( ArrayList.class.getName() )) {
+                return ArrayList.class ;
+            } else if (name.startsWith( TYPELIB_PREFIX )) {
+                return Class.forName( name, false,
+                    PersistentTypeCache.class.getClassLoader() ) ;
+            }
+
+            throw new InvalidClassException( name,
+                "not allowed in a type cache" ) ;
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass( String[] interfaces )
+            throws IOException {
+
+            throw new InvalidClassException( "proxy",
+                "not allowed in a type cache" ) ;
+        }
+    }
+
+    private static final Map<String,Class<?>> PRIMITIVES =
+        new HashMap<String,Class<?>>() ;
+
+    static {
+        for (Class<?> cls : new Class<?>[] { boolean.class, byte.class,
+            char.class, short.class, int.class, long.class, float.class,
+            double.class, void.class }) {
+            PRIMITIVES.put( cls.getName(), cls ) ;
+        }
+    }
+
+    private static Class<?> classForName( String name, ClassLoader loader )
+        throws ClassNotFoundException {
+
+        final Class<?> result = PRIMITIVES.get( name ) ;
+        if (result != null) {
+            return result ;
+        }
+
+        return Class.forName( name, false, loader ) ;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer ;
+
+        ByteBufferInputStream( ByteBuffer buffer ) {
+            this.buffer = buffer ;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1 ;
+        }
+
+        @Override
+        public int read( byte[] bytes, int offset, int length ) {
+            if (length == 0) {
+                return 0 ;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1 ;
+            }
+
+            final int count = Math.min( length, buffer.remaining() ) ;
+            buffer.get( bytes, offset, count ) ;
+            return count ;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining() ;
+        }
+    }
+}
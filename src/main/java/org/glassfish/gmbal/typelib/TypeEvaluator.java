@@ -40,6 +40,12 @@
 
 package org.glassfish.gmbal.typelib;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.security.PrivilegedActionException;
 
@@ -64,8 +70,8 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.WeakHashMap;
 import javax.management.ObjectName;
 import org.glassfish.gmbal.impl.trace.TraceTypelib;
 import org.glassfish.gmbal.impl.trace.TraceTypelibEval;
@@ -91,23 +97,27 @@ public class TypeEvaluator {
     
     // Cache of representations of classes with bound type variables.
     // A class may be in many EvalMapKeys with different tvar bindings.
-    // XXX EvaluatedClassDeclaration strongly references Class!
-    // Design sketch: Create a custom Map implementation (or just something
-    // with get/put/iterate) that has two maps: a HashMap for system classes,
-    // and a WeakHashMap for non-system classes.
-    private static Map<EvalMapKey,EvaluatedClassDeclaration> evalClassMap =
-        new HashMap<EvalMapKey,EvaluatedClassDeclaration>() ;
+    // The entries are kept by the ClassLoader of the most specific class in
+    // their key (see LoaderScopedMap), so that they do not keep that
+    // ClassLoader alive.
+    private static final LoaderScopedMap<EvalMapKey,EvaluatedClassDeclaration>
+        evalClassMap =
+            new LoaderScopedMap<EvalMapKey,EvaluatedClassDeclaration>() ;
 
     private static List<EvaluatedType> emptyETList =
             new ArrayList<EvaluatedType>(0) ;
 
+    // See setLazyMembers.
+    private static boolean lazyMembers =
+        Boolean.getBoolean( "org.glassfish.gmbal.LazyTypelib" ) ;
+
     @TraceTypelib
     private static void mapPut( EvaluatedClassDeclaration ecd, 
         Class cls ) {
         immutableTypes.put( cls, ecd ) ;
 
         EvalMapKey key = new EvalMapKey( cls, emptyETList ) ;
-        evalClassMap.put( key, ecd ) ;
+        evalClassMap.put( key.owner(), key, ecd ) ;
     }
     
     // Initialize the map with a few key classes that we do NOT want to evaluate
@@ -193,7 +203,7 @@ public class TypeEvaluator {
      * @param cls
      * @return an EvaluatedType, if cls is on the immutable list; otherwise null.
      */
-    private static EvaluatedType getImmutableEvaluatedType( Class<?> cls ) {
+    static EvaluatedType getImmutableEvaluatedType( Class<?> cls ) {
         return immutableTypes.get( cls ) ;
     }
 
@@ -202,9 +212,32 @@ public class TypeEvaluator {
         // debugEvaluate = level >= 1 ;
     }
 
+    /** Select whether the methods and fields of the classes evaluated from
+     * now on are evaluated together with their class (the default), or only
+     * when EvaluatedClassDeclaration.methods() or fields() is first called.
+     * Lazy members avoid evaluating the large type graphs that are reached
+     * through the members of classes such as HashMap, which gmbal never
+     * looks at.  Errors in the evaluation of a member are then thrown from
+     * methods() or fields(), rather than from getEvaluatedType.  The default
+     * is set by the system property org.glassfish.gmbal.LazyTypelib.
+     *
+     * @param flag true to evaluate the members of classes lazily.
+     */
+    public synchronized static void setLazyMembers( boolean flag ) {
+        lazyMembers = flag ;
+    }
+
     private static class EvalMapKey extends Pair<Class<?>,List<EvaluatedType>> {
+        private final Class<?> owner ;
+
         public EvalMapKey( Class<?> cls, List<EvaluatedType> decls ) {
             super( cls, decls ) ;
+            owner = LoaderScopedMap.owner( cls, decls ) ;
+        }
+
+        // The class whose ClassLoader keeps the entry for this key.
+        public Class<?> owner() {
+            return owner ;
         }
 
         public static final EvalMapKey OBJECT_KEY = new EvalMapKey(
@@ -270,13 +303,127 @@ public class TypeEvaluator {
         return evalClassMap.size() ;
     }
 
+    /** Remove the evaluated types of the classes of loader, and of any
+     * ClassLoader that has loader as a parent, from the TypeEvaluator
+     * caches.  This is not needed to let a ClassLoader be collected: the
+     * caches do not keep it alive.  It frees the memory at once, and makes
+     * sure that nothing refers to the classes of the ClassLoader any more,
+     * for example when an application is undeployed.  The classes of
+     * the bootstrap ClassLoader are never removed.
+     *
+     * @param loader The ClassLoader whose classes are removed.
+     * @return The number of cache entries removed.
+     */
+    public synchronized static int purge( ClassLoader loader ) {
+        return evalClassMap.purge( loader ) + classMap.purge( loader )
+            + DeclarationFactory.purge( loader ) ;
+    }
+
+    /** The sizes of the TypeEvaluator caches for the classes of loader.
+     *
+     * @param loader The ClassLoader (null for the bootstrap ClassLoader).
+     * @return The statistics for loader.
+     */
+    public synchronized static TypeCacheStatistics getCacheStatistics(
+        ClassLoader loader ) {
+
+        final List<Object> work = new ArrayList<Object>() ;
+        for (Map.Entry<EvalMapKey,EvaluatedClassDeclaration> entry
+            : evalClassMap.entries( loader )) {
+            work.add( entry.getValue() ) ;
+        }
+        for (Map.Entry<Class<?>,EvaluatedType> entry
+            : classMap.entries( loader )) {
+            work.add( entry.getValue() ) ;
+        }
+
+        return new TypeCacheStatistics( classMap.size( loader ),
+            evalClassMap.size( loader ), retainedSize( work, loader ) ) ;
+    }
+
+    // Rough sizes of the typelib objects in bytes, for a 64 bit JVM with
+    // compressed references.  The Class, Method, and Field objects are not
+    // counted, since the JVM keeps them anyway.
+    private static final int DECL_SIZE = 48 ;
+    private static final int METHOD_SIZE = 40 ;
+    private static final int FIELD_SIZE = 32 ;
+    private static final int ARRAY_SIZE = 16 ;
+    private static final int LIST_SIZE = 40 ;
+    private static final int REF_SIZE = 4 ;
+
+    // Estimate the size of the graphs in work, without the parts that
+    // belong to the classes of other ClassLoaders.
+    private static long retainedSize( List<Object> work, ClassLoader loader ) {
+        final Map<Object,Object> visited =
+            new IdentityHashMap<Object,Object>() ;
+        final Map<Object,Object> roots =
+            new IdentityHashMap<Object,Object>() ;
+        for (Object obj : work) {
+            roots.put( obj, obj ) ;
+        }
+
+        long result = 0 ;
+        while (!work.isEmpty()) {
+            final Object obj = work.remove( work.size() - 1 ) ;
+            if (obj == null || visited.put( obj, obj ) != null) {
+                continue ;
+            }
+
+            if (obj instanceof EvaluatedClassDeclaration) {
+                final EvaluatedClassDeclaration ecd =
+                    (EvaluatedClassDeclaration)obj ;
+                if (!roots.containsKey( obj ) && ecd.cls() != null
+                    && LoaderScopedMap.owner( ecd.cls(), ecd.instantiations() )
+                        .getClassLoader() != loader) {
+                    continue ;
+                }
+
+                final List<EvaluatedMethodDeclaration> methods =
+                    DeclarationFactory.evaluatedMethods( ecd ) ;
+                final List<EvaluatedFieldDeclaration> fields =
+                    DeclarationFactory.evaluatedFields( ecd ) ;
+                result += DECL_SIZE + listSize( ecd.inheritance() )
+                    + listSize( methods ) + listSize( fields )
+                    + listSize( ecd.instantiations() ) ;
+                addAll( work, ecd.inheritance() ) ;
+                addAll( work, methods ) ;
+                addAll( work, fields ) ;
+                addAll( work, ecd.instantiations() ) ;
+            } else if (obj instanceof EvaluatedMethodDeclaration) {
+                final EvaluatedMethodDeclaration emd =
+                    (EvaluatedMethodDeclaration)obj ;
+                result += METHOD_SIZE + listSize( emd.parameterTypes() ) ;
+                work.add( emd.returnType() ) ;
+                addAll( work, emd.parameterTypes() ) ;
+            } else if (obj instanceof EvaluatedFieldDeclaration) {
+                result += FIELD_SIZE ;
+                work.add( ((EvaluatedFieldDeclaration)obj).fieldType() ) ;
+            } else if (obj instanceof EvaluatedArrayType) {
+                result += ARRAY_SIZE ;
+                work.add( ((EvaluatedArrayType)obj).componentType() ) ;
+            }
+        }
+
+        return result ;
+    }
+
+    private static long listSize( List<?> list ) {
+        return list == null ? 0 : LIST_SIZE + REF_SIZE * list.size() ;
+    }
+
+    private static void addAll( List<Object> work, List<?> list ) {
+        if (list != null) {
+            work.addAll( list ) ;
+        }
+    }
+
     public synchronized static void dumpEvalClassMap() {
         System.out.println( "TypeEvaluator: dumping eval class map") ;
         int numSystem = 0 ;
         int total = 0 ;
 
         for (Map.Entry<EvalMapKey,EvaluatedClassDeclaration> entry
-            : evalClassMap.entrySet() ) {
+            : evalClassMap.entries() ) {
 
             System.out.println( "\tKey:" + entry.getKey() + "=>" ) ;
             System.out.println( "\t\t" + entry.getValue() ) ;
@@ -292,28 +439,128 @@ public class TypeEvaluator {
             "\nEvalClassMap contains %d entries, %d of which are system classes\n",
             total, numSystem ) ;
 
+        for (ClassLoader loader : evalClassMap.loaders()) {
+            System.out.printf( "\t%s: %d entries\n", loader,
+                evalClassMap.size( loader ) ) ;
+        }
+
         // System.out.println( "Complete dump of eval class map") ;
         // System.out.println( ObjectUtility.defaultObjectToString(evalClassMap) ) ;
     }
 
-    // XXX This is another weak hashmap that strongly references its key!
-    private static Map<Class,EvaluatedType> classMap =
-	new WeakHashMap<Class, EvaluatedType>() ;
+    /** Write the results of all type evaluations so far to file, so that a
+     * later call to loadCache (usually in another JVM) can restore them
+     * instead of evaluating the same classes again.  Types that refer to a
+     * class whose bytes cannot be read through its ClassLoader (such as a
+     * generated class) are left out, because loadCache could not check
+     * whether such a class has changed.
+     *
+     * @param file The file to write.
+     * @return The number of evaluated classes written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static synchronized int saveCache( File file ) throws IOException {
+        final PersistentTypeCache cache = new PersistentTypeCache() ;
+        for (Map.Entry<EvalMapKey,EvaluatedClassDeclaration> entry
+            : evalClassMap.entries()) {
+
+            final Class<?> cls = entry.getKey().first() ;
+            if (immutableTypes.get( cls ) != entry.getValue()) {
+                cache.addDeclaration( cls, entry.getKey().second(),
+                    entry.getValue() ) ;
+            }
+        }
+
+        for (Map.Entry<Class<?>,EvaluatedType> entry : classMap.entries()) {
+            if (immutableTypes.get( entry.getKey() ) != entry.getValue()) {
+                cache.addRoot( entry.getKey(), entry.getValue() ) ;
+            }
+        }
+
+        cache.write( file ) ;
+        return cache.size() ;
+    }
+
+    /** Restore the evaluated types written by saveCache to file, resolving
+     * their classes through loader.  Nothing is restored if the file was
+     * written by a different Java version, or if any class it refers to
+     * has changed or cannot be loaded; the classes are then evaluated as
+     * usual when they are needed.  Classes that have already been evaluated
+     * in this JVM keep their current evaluation.
+     *
+     * @param file The file written by saveCache.
+     * @param loader The ClassLoader for the classes in the file.
+     * @return The number of evaluated classes restored.
+     */
+    public static synchronized int loadCache( File file, ClassLoader loader ) {
+        final PersistentTypeCache cache ;
+        try {
+            cache = PersistentTypeCache.read( file, loader ) ;
+        } catch (IOException exc) {
+            Exceptions.self.typeCacheUnreadable( exc, file ) ;
+            return 0 ;
+        }
+
+        if (cache == null) {
+            return 0 ;
+        }
+
+        for (int ctr=0; ctr<cache.declCount(); ctr++) {
+            final EvalMapKey key = new EvalMapKey( cache.declClass( ctr ),
+                cache.declBindings( ctr ) ) ;
+            if (evalClassMap.get( key.owner(), key ) == null) {
+                evalClassMap.put( key.owner(), key, cache.decl( ctr ) ) ;
+            }
+        }
+
+        int result = 0 ;
+        for (int ctr=0; ctr<cache.size(); ctr++) {
+            final Class<?> cls = cache.rootClass( ctr ) ;
+            if (classMap.get( cls, cls ) == null) {
+                putEvaluatedType( cls, cache.root( ctr ) ) ;
+                result++ ;
+            }
+        }
+
+        return result ;
+    }
+
+    // The result of getEvaluatedType for each class.  This is read without
+    // the TypeEvaluator lock; a type is only stored here once its
+    // evaluation is complete.
+    private static final LoaderScopedMap<Class<?>,EvaluatedType> classMap =
+        new LoaderScopedMap<Class<?>,EvaluatedType>() ;
+
+    // Must be called with the TypeEvaluator lock held.
+    private static void putEvaluatedType( Class<?> cls, EvaluatedType etype ) {
+        classMap.put( cls, cls, etype ) ;
+    }
 
     /** Given any generic java type, evaluate all of its type bounds and
-     * return an evaluated type.
+     * return an evaluated type.  Classes that have already been evaluated
+     * are found without locking; only the evaluation of a new class
+     * is serialized.
      * 
      * @param cls The java type to evaluate
      * @return The evaluated type
      */
-    public static synchronized EvaluatedType getEvaluatedType( Class cls ) {
+    public static EvaluatedType getEvaluatedType( Class cls ) {
+        final EvaluatedType etype = classMap.get( cls, cls ) ;
+        if (etype != null) {
+            return etype ;
+        }
+
+        return evaluateType( cls ) ;
+    }
+
+    private static synchronized EvaluatedType evaluateType( Class cls ) {
         EvaluatedType etype = null ;
         try {
-            etype = classMap.get( cls ) ;
+            etype = classMap.get( cls, cls ) ;
             if (etype == null) {
                 TypeEvaluationVisitor visitor = new TypeEvaluationVisitor() ;
                 etype = visitor.evaluateType( cls ) ;
-                classMap.put( cls, etype ) ;
+                putEvaluatedType( cls, etype ) ;
             }
         } catch (Error err) {
             // Make sure that the OperationTracer context for ANY exception
@@ -396,6 +643,226 @@ public class TypeEvaluator {
         }
     }
 
+    // The members of a class evaluated with lazy members.  Each member is
+    // evaluated at most once, with the TypeEvaluator lock held, in the
+    // scope of the bindings of the type variables of its class.  Only the
+    // members evaluated so far are written to a type cache.
+    private static class LazyMembers implements DeclarationFactory.Members,
+        Serializable {
+
+        private static final long serialVersionUID = -3260905962000315582L;
+
+        private transient Class<?> cls ;
+        private transient Map<String,EvaluatedType> bindings ;
+
+        // All guarded by the TypeEvaluator lock.  An entry of methods or
+        // fields is null until the member is evaluated, and NONE if it
+        // evaluated to nothing.
+        private transient List<Method> declaredMethods ;
+        private transient List<Field> declaredFields ;
+        private transient Object[] methods ;
+        private transient Object[] fields ;
+        private transient List<EvaluatedMethodDeclaration> allMethods ;
+        private transient List<EvaluatedFieldDeclaration> allFields ;
+        // Members read from a type cache, which are matched to the
+        // declared members when they are first needed.
+        private transient List<EvaluatedMethodDeclaration> readMethods ;
+        private transient List<EvaluatedFieldDeclaration> readFields ;
+
+        private static final Object NONE = new Object() ;
+
+        LazyMembers( Map<String,EvaluatedType> bindings, Class<?> cls ) {
+            this.cls = cls ;
+            this.bindings = bindings ;
+            init() ;
+        }
+
+        private void init() {
+            declaredMethods = getDeclaredMethods( cls ) ;
+            declaredFields = getDeclaredFields( cls ) ;
+            methods = new Object[declaredMethods.size()] ;
+            fields = new Object[declaredFields.size()] ;
+        }
+
+        private void matchReadMembers() {
+            if (readMethods != null) {
+                for (EvaluatedMethodDeclaration emd : readMethods) {
+                    methods[declaredMethods.indexOf( emd.method() )] = emd ;
+                }
+                readMethods = null ;
+            }
+
+            if (readFields != null) {
+                for (EvaluatedFieldDeclaration efd : readFields) {
+                    fields[declaredFields.indexOf( efd.field() )] = efd ;
+                }
+                readFields = null ;
+            }
+        }
+
+        public List<EvaluatedMethodDeclaration> methods(
+            EvaluatedClassDeclaration ecd,
+            Class<? extends Annotation> annotation ) {
+
+            synchronized (TypeEvaluator.class) {
+                if (annotation == null && allMethods != null) {
+                    return allMethods ;
+                }
+
+                matchReadMembers() ;
+                final List<EvaluatedMethodDeclaration> result =
+                    new ArrayList<EvaluatedMethodDeclaration>() ;
+                TypeEvaluationVisitor visitor = null ;
+                try {
+                    for (int ctr=0; ctr<methods.length; ctr++) {
+                        final Method method = declaredMethods.get( ctr ) ;
+                        if (annotation != null
+                            && !method.isAnnotationPresent( annotation )) {
+                            continue ;
+                        }
+
+                        if (methods[ctr] == null) {
+                            if (visitor == null) {
+                                visitor = new TypeEvaluationVisitor() ;
+                            }
+
+                            final EvaluatedMethodDeclaration emd =
+                                visitor.evaluateMethod( ecd, bindings, method ) ;
+                            methods[ctr] = emd == null ? NONE : emd ;
+                        }
+
+                        if (methods[ctr] != NONE) {
+                            result.add(
+                                (EvaluatedMethodDeclaration)methods[ctr] ) ;
+                        }
+                    }
+                } catch (Error err) {
+                    throw Exceptions.self.errorInTypeEval( cls, err ) ;
+                }
+
+                if (annotation == null) {
+                    allMethods = result ;
+                }
+
+                return result ;
+            }
+        }
+
+        public List<EvaluatedFieldDeclaration> fields(
+            EvaluatedClassDeclaration ecd,
+            Class<? extends Annotation> annotation ) {
+
+            synchronized (TypeEvaluator.class) {
+                if (annotation == null && allFields != null) {
+                    return allFields ;
+                }
+
+                matchReadMembers() ;
+                final List<EvaluatedFieldDeclaration> result =
+                    new ArrayList<EvaluatedFieldDeclaration>() ;
+                TypeEvaluationVisitor visitor = null ;
+                try {
+                    for (int ctr=0; ctr<fields.length; ctr++) {
+                        final Field field = declaredFields.get( ctr ) ;
+                        if (annotation != null
+                            && !field.isAnnotationPresent( annotation )) {
+                            continue ;
+                        }
+
+                        if (fields[ctr] == null) {
+                            if (visitor == null) {
+                                visitor = new TypeEvaluationVisitor() ;
+                            }
+
+                            final EvaluatedFieldDeclaration efd =
+                                visitor.evaluateField( ecd, bindings, field ) ;
+                            fields[ctr] = efd == null ? NONE : efd ;
+                        }
+
+                        if (fields[ctr] != NONE) {
+                            result.add( (EvaluatedFieldDeclaration)fields[ctr] ) ;
+                        }
+                    }
+                } catch (Error err) {
+                    throw Exceptions.self.errorInTypeEval( cls, err ) ;
+                }
+
+                if (annotation == null) {
+                    allFields = result ;
+                }
+
+                return result ;
+            }
+        }
+
+        public List<EvaluatedMethodDeclaration> evaluatedMethods() {
+            synchronized (TypeEvaluator.class) {
+                final List<EvaluatedMethodDeclaration> result =
+                    new ArrayList<EvaluatedMethodDeclaration>() ;
+                for (Object obj : methods) {
+                    if (obj != null && obj != NONE) {
+                        result.add( (EvaluatedMethodDeclaration)obj ) ;
+                    }
+                }
+
+                if (readMethods != null) {
+                    result.addAll( readMethods ) ;
+                }
+
+                return result ;
+            }
+        }
+
+        public List<EvaluatedFieldDeclaration> evaluatedFields() {
+            synchronized (TypeEvaluator.class) {
+                final List<EvaluatedFieldDeclaration> result =
+                    new ArrayList<EvaluatedFieldDeclaration>() ;
+                for (Object obj : fields) {
+                    if (obj != null && obj != NONE) {
+                        result.add( (EvaluatedFieldDeclaration)obj ) ;
+                    }
+                }
+
+                if (readFields != null) {
+                    result.addAll( readFields ) ;
+                }
+
+                return result ;
+            }
+        }
+
+        private void writeObject( ObjectOutputStream os ) throws IOException {
+            os.defaultWriteObject() ;
+            PersistentTypeCache.writeClass( os, cls ) ;
+            // The entries, not the map, so that only typelib classes are
+            // in the stream.
+            os.writeInt( bindings.size() ) ;
+            for (Map.Entry<String,EvaluatedType> entry : bindings.entrySet()) {
+                os.writeObject( entry.getKey() ) ;
+                os.writeObject( entry.getValue() ) ;
+            }
+            os.writeObject( evaluatedMethods() ) ;
+            os.writeObject( evaluatedFields() ) ;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readObject( ObjectInputStream is )
+            throws IOException, ClassNotFoundException {
+
+            is.defaultReadObject() ;
+            cls = PersistentTypeCache.readClass( is ) ;
+            final int size = is.readInt() ;
+            bindings = new HashMap<String,EvaluatedType>() ;
+            for (int ctr=0; ctr<size; ctr++) {
+                final String name = (String)is.readObject() ;
+                bindings.put( name, (EvaluatedType)is.readObject() ) ;
+            }
+            init() ;
+            readMethods = (List<EvaluatedMethodDeclaration>)is.readObject() ;
+            readFields = (List<EvaluatedFieldDeclaration>)is.readObject() ;
+        }
+    }
+
     // Visits the various java.lang.reflect Types to generate an EvaluatedType
     @TraceTypelibEval
     @TraceTypelib
@@ -440,6 +907,34 @@ public class TypeEvaluator {
             return result ;
 	}
 
+        // Entry points for LazyMembers: evaluate one member of cdecl in the
+        // scope of the bindings of its class.
+        EvaluatedMethodDeclaration evaluateMethod(
+            final EvaluatedClassDeclaration cdecl,
+            final Map<String,EvaluatedType> bindings, final Method method ) {
+
+            display.enterScope() ;
+            display.bind( bindings ) ;
+            try {
+                return visitMethodDeclaration( cdecl, method ) ;
+            } finally {
+                display.exitScope() ;
+            }
+        }
+
+        EvaluatedFieldDeclaration evaluateField(
+            final EvaluatedClassDeclaration cdecl,
+            final Map<String,EvaluatedType> bindings, final Field field ) {
+
+            display.enterScope() ;
+            display.bind( bindings ) ;
+            try {
+                return visitFieldDeclaration( cdecl, field ) ;
+            } finally {
+                display.exitScope() ;
+            }
+        }
+
         @InfoMethod
         private void describe( String msg, Object data ) {}
 
@@ -689,11 +1184,11 @@ public class TypeEvaluator {
                     newDecl.instantiations( blist ) ;
                 }
 
-                result = evalClassMap.get( key ) ;
+                result = evalClassMap.get( key.owner(), key ) ;
                 if (result == null) {
                     message( "No result in evalClassMap" ) ;
 
-                    evalClassMap.put( key, newDecl ) ;
+                    evalClassMap.put( key.owner(), key, newDecl ) ;
 
                     processClass( newDecl, bindings.getMap(), decl ) ;
 
@@ -728,6 +1223,14 @@ public class TypeEvaluator {
 
                 newDecl.inheritance( inheritance ) ;
 
+                if (lazyMembers) {
+                    DeclarationFactory.members( newDecl,
+                        new LazyMembers( bindings, decl ) ) ;
+                    newDecl.freeze() ;
+                    describe( "newDecl", newDecl ) ;
+                    return ;
+                }
+
                 List<EvaluatedFieldDeclaration> newFields = Algorithms.map(
                     getDeclaredFields( decl ),
                     new UnaryFunction<Field,EvaluatedFieldDeclaration>() {
@@ -44,24 +44,44 @@ import org.glassfish.pfl.basic.contain.Pair;
 import org.glassfish.pfl.basic.func.UnaryPredicate;
 import org.glassfish.pfl.basic.algorithm.Algorithms;
 import org.glassfish.pfl.basic.func.UnaryFunction;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.lang.annotation.Target ;
 import java.lang.annotation.ElementType ;
 import java.lang.annotation.Retention ;
 import java.lang.annotation.RetentionPolicy ;
 import java.lang.annotation.Inherited ;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Iterator ;
 import java.util.Map ;
 import java.util.HashMap ;
+import java.util.LinkedHashMap ;
 import java.util.Hashtable ;
 import java.util.ArrayList ;
 import java.util.Arrays ;
+import java.util.Collections ;
 import java.util.List ;
 import java.util.Set ;
 import java.util.HashSet ;
 import java.util.Date ;
+import java.util.concurrent.Executor ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Callable ;
+import java.util.concurrent.CountDownLatch ;
+import java.util.concurrent.Future ;
+import java.util.concurrent.TimeUnit ;
+import java.util.concurrent.atomic.AtomicInteger ;
 
 
 import java.math.BigInteger ;
@@ -77,7 +97,14 @@ import javax.management.Descriptor;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MBeanException;
+import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanInfo;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerFactory;
+import javax.management.MBeanServerNotification;
+import javax.management.AttributeChangeNotification;
+import javax.management.Notification;
+import javax.management.NotificationListener;
 import javax.management.MalformedObjectNameException ;
 import javax.management.ObjectName ;
 import javax.management.MBeanServer ;
@@ -445,6 +472,60 @@ public class GmbalTest extends TestCase {
         }
     }
 
+    public static class IndexedBean {
+        @ManagedAttribute
+        @Description( "declared" )
+        public int value() { return 42 ; }
+
+        @ManagedOperation
+        public void reset() {}
+
+        public void notAnnotated() {}
+    }
+
+    public static class IndexedBeanDummy {
+        @Description( "added" )
+        @ManagedOperation
+        public void dummy() {}
+    }
+
+    public void testAnnotationIndex() throws Exception {
+        System.out.println( "testAnnotationIndex" ) ;
+        ManagedObjectManagerInternal mom = (ManagedObjectManagerInternal)
+            ManagedObjectManagerFactory.createStandalone("master" ) ;
+        try {
+            final Method value = IndexedBean.class.getMethod( "value" ) ;
+            final Method notAnnotated =
+                IndexedBean.class.getMethod( "notAnnotated" ) ;
+            final Method dummy = IndexedBeanDummy.class.getMethod( "dummy" ) ;
+
+            EvaluatedClassAnalyzer ca = getCA( IndexedBean.class ) ;
+            List<EvaluatedMethodDeclaration> ops = ca.findMethods(
+                mom.forAnnotation( ManagedOperation.class,
+                EvaluatedMethodDeclaration.class ) ) ;
+            assertEquals( 1, ops.size() ) ;
+            assertEquals( "reset", ops.get(0).name() ) ;
+            assertNull( mom.getAnnotation( notAnnotated,
+                ManagedOperation.class ) ) ;
+
+            // Annotations added after the index was built must be seen,
+            // and declared annotations take precedence over added ones.
+            mom.addAnnotation( notAnnotated,
+                dummy.getAnnotation( ManagedOperation.class ) ) ;
+            mom.addAnnotation( value, dummy.getAnnotation( Description.class ) ) ;
+
+            ops = ca.findMethods( mom.forAnnotation( ManagedOperation.class,
+                EvaluatedMethodDeclaration.class ) ) ;
+            assertEquals( 2, ops.size() ) ;
+            assertNotNull( mom.getAnnotation( notAnnotated,
+                ManagedOperation.class ) ) ;
+            assertEquals( "declared",
+                mom.getAnnotation( value, Description.class ).value() ) ;
+        } finally {
+            mom.close() ;
+        }
+    }
+
     private EvaluatedClassDeclaration getECD( Class<?> cls ) {
         return (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType( cls ) ;
     }
@@ -2845,4 +2926,1377 @@ public class GmbalTest extends TestCase {
             }
         }
     }
+
+    @ManagedObject
+    public static class OverloadedOpBean {
+        private int total = 0 ;
+
+        @ManagedOperation
+        int add( int a ) { total += a ; return total ; }
+
+        @ManagedOperation
+        int add( int a, int b ) { total += a + b ; return total ; }
+
+        @ManagedOperation
+        String add( String str ) { return str + total ; }
+
+        @ManagedOperation
+        void reset() { total = 0 ; }
+    }
+
+    public void testOverloadedOperations() throws IOException,
+        MBeanException, ReflectionException {
+        System.out.println( "testOverloadedOperations" ) ;
+
+        ManagedObjectManager mom = null ;
+        Object obj = new OverloadedOpBean() ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            GmbalMBean mb = mom.registerAtRoot( obj, "ops" ) ;
+            final String INT = Integer.class.getName() ;
+            final String STRING = String.class.getName() ;
+
+            assertEquals( 3, mb.invoke( "add", new Object[] { 3 },
+                new String[] { INT } ) ) ;
+            assertEquals( 10, mb.invoke( "add", new Object[] { 3, 4 },
+                new String[] { INT, INT } ) ) ;
+            assertEquals( "x10", mb.invoke( "add", new Object[] { "x" },
+                new String[] { STRING } ) ) ;
+            assertNull( mb.invoke( "reset", null, null ) ) ;
+            assertEquals( "x0", mb.invoke( "add", new Object[] { "x" },
+                new String[] { STRING } ) ) ;
+
+            try {
+                mb.invoke( "subtract", new Object[] { 3 },
+                    new String[] { INT } ) ;
+                fail( "Exception expected" ) ;
+            } catch (IllegalArgumentException exc) {
+                msg( "caught exception " + exc ) ;
+            }
+
+            try {
+                mb.invoke( "add", new Object[] { 3L },
+                    new String[] { Long.class.getName() } ) ;
+                fail( "Exception expected" ) ;
+            } catch (IllegalArgumentException exc) {
+                msg( "caught exception " + exc ) ;
+            }
+
+            // The number of parameters must match the signature.
+            try {
+                mb.invoke( "add", new Object[] { 3, 4 },
+                    new String[] { INT } ) ;
+                fail( "Exception expected" ) ;
+            } catch (IllegalArgumentException exc) {
+                msg( "caught exception " + exc ) ;
+            }
+
+            try {
+                mb.invoke( "add", new Object[] { 3 },
+                    new String[] { INT, INT } ) ;
+                fail( "Exception expected" ) ;
+            } catch (IllegalArgumentException exc) {
+                msg( "caught exception " + exc ) ;
+            }
+
+            assertEquals( "x0", mb.invoke( "add", new Object[] { "x" },
+                new String[] { STRING } ) ) ;
+        } catch (GmbalException exc) {
+            fail( "Exception: " + exc ) ;
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    @ManagedObject
+    public static class TreeNode {
+        private final String name ;
+
+        public TreeNode( String name ) {
+            this.name = name ;
+        }
+
+        @NameValue
+        public String name() { return name ; }
+    }
+
+    // Wait until thr is blocked, waiting, or finished.
+    private static void awaitBlocked( Thread thr ) throws InterruptedException {
+        for (int ctr=0; ctr<500; ctr++) {
+            Thread.State state = thr.getState() ;
+            if (state != Thread.State.NEW && state != Thread.State.RUNNABLE) {
+                return ;
+            }
+
+            Thread.sleep( 10 ) ;
+        }
+    }
+
+    // Wait for threads to finish, and fail if any of the threads in the VM
+    // are deadlocked, or if one of threads did not finish.
+    private static void joinWithoutDeadlock( long timeout, Thread... threads )
+        throws InterruptedException {
+
+        for (Thread thr : threads) {
+            thr.join( timeout ) ;
+        }
+
+        long[] ids = ManagementFactory.getThreadMXBean().findDeadlockedThreads() ;
+        assertNull( "Deadlocked threads: " + Arrays.toString( ids ), ids ) ;
+        for (Thread thr : threads) {
+            assertFalse( thr.getName() + " did not finish", thr.isAlive() ) ;
+        }
+    }
+
+    public void testRegisterDuringResume() throws Exception {
+        System.out.println( "testRegisterDuringResume" ) ;
+
+        ManagedObjectManager mom = null ;
+        boolean finished = false ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final ManagedObjectManager fmom = mom ;
+            final TreeNode first = new TreeNode( "first" ) ;
+            final TreeNode parent = new TreeNode( "parent" ) ;
+            final TreeNode child = new TreeNode( "child" ) ;
+            mom.suspendJMXRegistration() ;
+            mom.registerAtRoot( first ) ;
+            mom.registerAtRoot( parent ) ;
+            final ObjectName firstName = mom.getObjectName( first ) ;
+
+            final List<Throwable> errors = Collections.synchronizedList(
+                new ArrayList<Throwable>() ) ;
+            final Thread registrar = new Thread( "registrar" ) {
+                @Override
+                public void run() {
+                    try {
+                        fmom.register( parent, child ) ;
+                    } catch (Throwable thr) {
+                        errors.add( thr ) ;
+                    }
+                }
+            } ;
+
+            // The resume registers first and then parent, in order and
+            // without releasing the lock of the JMXRegistrationManager.
+            // Register a child of parent in between.
+            final NotificationListener listener = new NotificationListener() {
+                public void handleNotification( Notification notification,
+                    Object handback ) {
+                    if (notification.getType().equals(
+                        MBeanServerNotification.REGISTRATION_NOTIFICATION )
+                        && ((MBeanServerNotification)notification)
+                            .getMBeanName().equals( firstName )) {
+
+                        registrar.start() ;
+                        try {
+                            awaitBlocked( registrar ) ;
+                        } catch (InterruptedException exc) {
+                            errors.add( exc ) ;
+                        }
+                    }
+                }
+            } ;
+            mom.getMBeanServer().addNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener, null, null ) ;
+
+            final Thread resumer = new Thread( "resumer" ) {
+                @Override
+                public void run() {
+                    try {
+                        fmom.resumeJMXRegistration() ;
+                    } catch (Throwable thr) {
+                        errors.add( thr ) ;
+                    }
+                }
+            } ;
+            resumer.start() ;
+            joinWithoutDeadlock( 10000, resumer, registrar ) ;
+            finished = true ;
+
+            mom.getMBeanServer().removeNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener ) ;
+            assertTrue( "Errors: " + errors, errors.isEmpty() ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( parent ) ) ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( child ) ) ) ;
+        } finally {
+            // A deadlocked manager cannot be closed.
+            if (mom != null && finished) {
+                mom.close() ;
+            }
+        }
+    }
+
+    public void testSyncRegisterUnderAsyncParent() throws Exception {
+        System.out.println( "testSyncRegisterUnderAsyncParent" ) ;
+
+        AsyncManagedObjectManager mom = null ;
+        boolean finished = false ;
+
+        // Delays each task long enough for the synchronous register below
+        // to be waiting for the pipeline when the parent is registered.
+        final Executor delayed = new Executor() {
+            public void execute( final Runnable task ) {
+                Thread thr = new Thread( "delayed" ) {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep( 500 ) ;
+                        } catch (InterruptedException exc) {
+                            // just run the task early
+                        }
+
+                        task.run() ;
+                    }
+                } ;
+                thr.setDaemon( true ) ;
+                thr.start() ;
+            }
+        } ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandaloneAsync( "test",
+                delayed ) ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final AsyncManagedObjectManager fmom = mom ;
+            final TreeNode parent = new TreeNode( "parent" ) ;
+            final TreeNode child = new TreeNode( "child" ) ;
+            mom.registerAtRootAsync( parent ) ;
+
+            final List<Throwable> errors = Collections.synchronizedList(
+                new ArrayList<Throwable>() ) ;
+            final Thread registrar = new Thread( "registrar" ) {
+                @Override
+                public void run() {
+                    try {
+                        fmom.register( parent, child ) ;
+                    } catch (Throwable thr) {
+                        errors.add( thr ) ;
+                    }
+                }
+            } ;
+            registrar.start() ;
+            joinWithoutDeadlock( 10000, registrar ) ;
+            finished = true ;
+
+            assertTrue( "Errors: " + errors, errors.isEmpty() ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( parent ) ) ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( child ) ) ) ;
+        } finally {
+            // A hung manager cannot be closed.
+            if (mom != null && finished) {
+                mom.close() ;
+            }
+        }
+    }
+
+    public void testConcurrentRegistration() throws Exception {
+        System.out.println( "testConcurrentRegistration" ) ;
+
+        final int NUM_PARENTS = 4 ;
+        final int NUM_CHILDREN = 200 ;
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final ManagedObjectManager fmom = mom ;
+            final TreeNode[] parents = new TreeNode[NUM_PARENTS] ;
+            final TreeNode[][] children = new TreeNode[NUM_PARENTS][NUM_CHILDREN] ;
+            for (int ctr=0; ctr<NUM_PARENTS; ctr++) {
+                parents[ctr] = new TreeNode( "parent" + ctr ) ;
+                mom.registerAtRoot( parents[ctr] ) ;
+                for (int ctr2=0; ctr2<NUM_CHILDREN; ctr2++) {
+                    children[ctr][ctr2] = new TreeNode( "child" + ctr2 ) ;
+                }
+            }
+
+            final List<Throwable> errors = Collections.synchronizedList(
+                new ArrayList<Throwable>() ) ;
+            final Thread[] threads = new Thread[2 * NUM_PARENTS] ;
+            for (int ctr=0; ctr<NUM_PARENTS; ctr++) {
+                final int index = ctr ;
+                threads[2*ctr] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (TreeNode child : children[index]) {
+                                fmom.register( parents[index], child ) ;
+                            }
+                        } catch (Throwable thr) {
+                            errors.add( thr ) ;
+                        }
+                    }
+                } ;
+                threads[2*ctr+1] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (TreeNode child : children[index]) {
+                                fmom.getObjectName( child ) ;
+                                assertNotNull( fmom.getObjectName(
+                                    parents[index] ) ) ;
+                            }
+                        } catch (Throwable thr) {
+                            errors.add( thr ) ;
+                        }
+                    }
+                } ;
+            }
+
+            for (Thread thr : threads) {
+                thr.start() ;
+            }
+
+            for (Thread thr : threads) {
+                thr.join() ;
+            }
+
+            assertTrue( "Errors: " + errors, errors.isEmpty() ) ;
+
+            for (int ctr=0; ctr<NUM_PARENTS; ctr++) {
+                for (TreeNode child : children[ctr]) {
+                    ObjectName oname = mom.getObjectName( child ) ;
+                    assertNotNull( oname ) ;
+                    assertSame( child, mom.getObject( oname ) ) ;
+                }
+
+                mom.unregister( parents[ctr] ) ;
+                for (TreeNode child : children[ctr]) {
+                    assertNull( mom.getObjectName( child ) ) ;
+                }
+            }
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    public void testRegisterAll() throws Exception {
+        System.out.println( "testRegisterAll" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final TreeNode parent = new TreeNode( "parent" ) ;
+            mom.registerAtRoot( parent ) ;
+
+            final TreeNode c0 = new TreeNode( "child0" ) ;
+            final TreeNode c1 = new TreeNode( "child1" ) ;
+            final TreeNode c2 = new TreeNode( "child2" ) ;
+            final TreeNode dupName = new TreeNode( "child1" ) ;
+            final List<Object> objs = Arrays.<Object>asList( c0, c1,
+                "notAManagedObject", c0, dupName, c2 ) ;
+
+            List<RegistrationResult> results = mom.registerAll( parent, objs ) ;
+            assertEquals( objs.size(), results.size() ) ;
+            for (int ctr=0; ctr<objs.size(); ctr++) {
+                assertSame( objs.get(ctr), results.get(ctr).getObject() ) ;
+            }
+
+            for (int ctr : new int[] { 0, 1, 5 }) {
+                RegistrationResult res = results.get( ctr ) ;
+                assertTrue( "Failed: " + res, res.isSuccess() ) ;
+                ObjectName oname = mom.getObjectName( res.getObject() ) ;
+                assertNotNull( oname ) ;
+                assertTrue( mom.getMBeanServer().isRegistered( oname ) ) ;
+            }
+
+            for (int ctr : new int[] { 2, 3, 4 }) {
+                RegistrationResult res = results.get( ctr ) ;
+                assertFalse( res.isSuccess() ) ;
+                assertNull( res.getMBean() ) ;
+                assertNotNull( res.getException() ) ;
+            }
+
+            assertNull( mom.getObjectName( dupName ) ) ;
+            assertSame( c1, mom.getObject( mom.getObjectName( c1 ) ) ) ;
+
+            // While registration is suspended, the batch is deferred and
+            // registered with JMX on resume.
+            final List<TreeNode> more = new ArrayList<TreeNode>() ;
+            for (int ctr=3; ctr<10; ctr++) {
+                more.add( new TreeNode( "child" + ctr ) ) ;
+            }
+
+            mom.suspendJMXRegistration() ;
+            for (RegistrationResult res : mom.registerAll( parent, more )) {
+                assertTrue( "Failed: " + res, res.isSuccess() ) ;
+                assertFalse( mom.getMBeanServer().isRegistered(
+                    mom.getObjectName( res.getObject() ) ) ) ;
+            }
+            mom.resumeJMXRegistration() ;
+
+            for (TreeNode node : more) {
+                assertTrue( mom.getMBeanServer().isRegistered(
+                    mom.getObjectName( node ) ) ) ;
+            }
+
+            mom.unregister( parent ) ;
+            for (TreeNode node : more) {
+                assertNull( mom.getObjectName( node ) ) ;
+            }
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    // An MBeanServer that rejects the registration of any ObjectName whose
+    // string form contains reject with a RuntimeOperationsException.
+    private static MBeanServer rejectingMBeanServer( final String reject ) {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer() ;
+        return (MBeanServer)Proxy.newProxyInstance(
+            MBeanServer.class.getClassLoader(),
+            new Class<?>[] { MBeanServer.class },
+            new InvocationHandler() {
+                public Object invoke( Object proxy, Method method,
+                    Object[] args ) throws Throwable {
+
+                    if (method.getName().equals( "registerMBean" )
+                        && args[1].toString().contains( reject )) {
+                        throw new RuntimeOperationsException(
+                            new IllegalArgumentException( "rejected" ) ) ;
+                    }
+
+                    try {
+                        return method.invoke( server, args ) ;
+                    } catch (InvocationTargetException exc) {
+                        throw exc.getCause() ;
+                    }
+                }
+            } ) ;
+    }
+
+    public void testRegisterAllRuntimeFailure() throws Exception {
+        System.out.println( "testRegisterAllRuntimeFailure" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.setMBeanServer( rejectingMBeanServer( "rejected" ) ) ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final TreeNode parent = new TreeNode( "parent" ) ;
+            mom.registerAtRoot( parent ) ;
+
+            final TreeNode c0 = new TreeNode( "child0" ) ;
+            final TreeNode bad = new TreeNode( "rejected" ) ;
+            final TreeNode c1 = new TreeNode( "child1" ) ;
+            List<RegistrationResult> results = mom.registerAll( parent,
+                Arrays.asList( c0, bad, c1 ) ) ;
+            assertEquals( 3, results.size() ) ;
+
+            assertTrue( "Failed: " + results.get(0), results.get(0).isSuccess() ) ;
+            assertTrue( "Failed: " + results.get(2), results.get(2).isSuccess() ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( c0 ) ) ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( c1 ) ) ) ;
+
+            RegistrationResult res = results.get( 1 ) ;
+            assertFalse( res.isSuccess() ) ;
+            assertTrue( "Unexpected exception " + res.getException(),
+                res.getException() instanceof RuntimeOperationsException ) ;
+            assertNull( mom.getObjectName( bad ) ) ;
+
+            // The failed object was not left in the tree, so a retry fails
+            // in the MBeanServer again rather than as a duplicate.
+            results = mom.registerAll( parent, Arrays.asList( bad ) ) ;
+            assertTrue( "Unexpected exception " + results.get(0).getException(),
+                results.get(0).getException()
+                    instanceof RuntimeOperationsException ) ;
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    public void testParallelResumeRegistration() throws Exception {
+        System.out.println( "testParallelResumeRegistration" ) ;
+
+        final int NUM_PARENTS = 8 ;
+        final int NUM_CHILDREN = 50 ;
+        ManagedObjectManager mom = null ;
+        ExecutorService exec = Executors.newFixedThreadPool( 4 ) ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.setJMXRegistrationExecutor( exec ) ;
+            mom.createRoot() ;
+
+            final List<ObjectName> order = Collections.synchronizedList(
+                new ArrayList<ObjectName>() ) ;
+            final NotificationListener listener = new NotificationListener() {
+                public void handleNotification( Notification notification,
+                    Object handback ) {
+                    if (notification.getType().equals(
+                        MBeanServerNotification.REGISTRATION_NOTIFICATION )) {
+                        order.add( ((MBeanServerNotification)notification)
+                            .getMBeanName() ) ;
+                    }
+                }
+            } ;
+            mom.getMBeanServer().addNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener, null, null ) ;
+
+            final Map<TreeNode,TreeNode> parentOf =
+                new HashMap<TreeNode,TreeNode>() ;
+            mom.suspendJMXRegistration() ;
+            for (int ctr=0; ctr<NUM_PARENTS; ctr++) {
+                TreeNode parent = new TreeNode( "parent" + ctr ) ;
+                mom.registerAtRoot( parent ) ;
+                for (int ctr2=0; ctr2<NUM_CHILDREN; ctr2++) {
+                    TreeNode child = new TreeNode( "child" + ctr2 ) ;
+                    mom.register( parent, child ) ;
+                    parentOf.put( child, parent ) ;
+                }
+            }
+
+            assertTrue( order.isEmpty() ) ;
+            mom.resumeJMXRegistration() ;
+            mom.getMBeanServer().removeNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener ) ;
+
+            assertEquals( NUM_PARENTS * (NUM_CHILDREN + 1), order.size() ) ;
+            for (Map.Entry<TreeNode,TreeNode> entry : parentOf.entrySet()) {
+                ObjectName child = mom.getObjectName( entry.getKey() ) ;
+                ObjectName parent = mom.getObjectName( entry.getValue() ) ;
+                assertTrue( mom.getMBeanServer().isRegistered( child ) ) ;
+                assertTrue( order.indexOf( parent ) < order.indexOf( child ) ) ;
+            }
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+
+            exec.shutdown() ;
+        }
+    }
+
+    public void testRegisterDuringParallelResume() throws Exception {
+        System.out.println( "testRegisterDuringParallelResume" ) ;
+
+        ManagedObjectManager mom = null ;
+        boolean finished = false ;
+        ExecutorService exec = Executors.newFixedThreadPool( 2 ) ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.setJMXRegistrationExecutor( exec ) ;
+            mom.createRoot() ;
+
+            final ManagedObjectManager fmom = mom ;
+            final List<TreeNode> deferred = new ArrayList<TreeNode>() ;
+            mom.suspendJMXRegistration() ;
+            for (int ctr=0; ctr<4; ctr++) {
+                TreeNode node = new TreeNode( "deferred" + ctr ) ;
+                mom.registerAtRoot( node ) ;
+                deferred.add( node ) ;
+            }
+
+            // Registering an MBean from a listener runs on a worker of the
+            // parallel resume, and needs the JMXRegistrationManager lock.
+            final ObjectName trigger = mom.getObjectName( deferred.get( 0 ) ) ;
+            final TreeNode extra = new TreeNode( "extra" ) ;
+            final List<Throwable> errors = Collections.synchronizedList(
+                new ArrayList<Throwable>() ) ;
+            final NotificationListener listener = new NotificationListener() {
+                public void handleNotification( Notification notification,
+                    Object handback ) {
+                    if (notification.getType().equals(
+                        MBeanServerNotification.REGISTRATION_NOTIFICATION )
+                        && ((MBeanServerNotification)notification)
+                            .getMBeanName().equals( trigger )) {
+
+                        try {
+                            fmom.registerAtRoot( extra ) ;
+                        } catch (Throwable thr) {
+                            errors.add( thr ) ;
+                        }
+                    }
+                }
+            } ;
+            mom.getMBeanServer().addNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener, null, null ) ;
+
+            final Thread resumer = new Thread( "resumer" ) {
+                @Override
+                public void run() {
+                    try {
+                        fmom.resumeJMXRegistration() ;
+                    } catch (Throwable thr) {
+                        errors.add( thr ) ;
+                    }
+                }
+            } ;
+            resumer.start() ;
+            joinWithoutDeadlock( 10000, resumer ) ;
+            finished = true ;
+
+            mom.getMBeanServer().removeNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener ) ;
+            assertTrue( "Errors: " + errors, errors.isEmpty() ) ;
+            for (TreeNode node : deferred) {
+                assertTrue( mom.getMBeanServer().isRegistered(
+                    mom.getObjectName( node ) ) ) ;
+            }
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( extra ) ) ) ;
+        } finally {
+            // A deadlocked manager cannot be closed.
+            if (mom != null && finished) {
+                mom.close() ;
+            }
+
+            exec.shutdownNow() ;
+        }
+    }
+
+    public void testRegisterDuringParallelRootParentRegistration()
+        throws Exception {
+        System.out.println(
+            "testRegisterDuringParallelRootParentRegistration" ) ;
+
+        final ObjectName rootParentName = new ObjectName(
+            "test:pp=/Test,type=RootParent,name=parallel" ) ;
+        ManagedObjectManager mom = null ;
+        boolean finished = false ;
+        ExecutorService exec = Executors.newFixedThreadPool( 2 ) ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createFederated(
+                rootParentName ) ;
+            mom.stripPackagePrefix();
+            mom.setJMXRegistrationExecutor( exec ) ;
+            mom.createRoot() ;
+
+            // Nothing is registered until the root parent is.
+            final ManagedObjectManager fmom = mom ;
+            final List<TreeNode> nodes = new ArrayList<TreeNode>() ;
+            for (int ctr=0; ctr<4; ctr++) {
+                TreeNode node = new TreeNode( "node" + ctr ) ;
+                mom.registerAtRoot( node ) ;
+                nodes.add( node ) ;
+            }
+            assertFalse( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( nodes.get( 0 ) ) ) ) ;
+
+            // Registering an MBean from a listener runs on a worker of the
+            // parallel registration, and needs the JMXRegistrationManager
+            // lock.
+            final ObjectName trigger = mom.getObjectName( nodes.get( 0 ) ) ;
+            final TreeNode extra = new TreeNode( "extra" ) ;
+            final List<Throwable> errors = Collections.synchronizedList(
+                new ArrayList<Throwable>() ) ;
+            final NotificationListener listener = new NotificationListener() {
+                public void handleNotification( Notification notification,
+                    Object handback ) {
+                    if (notification.getType().equals(
+                        MBeanServerNotification.REGISTRATION_NOTIFICATION )
+                        && ((MBeanServerNotification)notification)
+                            .getMBeanName().equals( trigger )) {
+
+                        try {
+                            fmom.registerAtRoot( extra ) ;
+                        } catch (Throwable thr) {
+                            errors.add( thr ) ;
+                        }
+                    }
+                }
+            } ;
+            mom.getMBeanServer().addNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener, null, null ) ;
+
+            final Thread registrar = new Thread( "registrar" ) {
+                @Override
+                public void run() {
+                    try {
+                        fmom.getMBeanServer().registerMBean(
+                            new javax.management.timer.Timer(),
+                            rootParentName ) ;
+                    } catch (Throwable thr) {
+                        errors.add( thr ) ;
+                    }
+                }
+            } ;
+            registrar.start() ;
+            joinWithoutDeadlock( 10000, registrar ) ;
+            finished = true ;
+
+            mom.getMBeanServer().removeNotificationListener(
+                MBeanServerDelegate.DELEGATE_NAME, listener ) ;
+            assertTrue( "Errors: " + errors, errors.isEmpty() ) ;
+            for (TreeNode node : nodes) {
+                assertTrue( mom.getMBeanServer().isRegistered(
+                    mom.getObjectName( node ) ) ) ;
+            }
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( extra ) ) ) ;
+        } finally {
+            // A deadlocked manager cannot be closed.
+            if (mom != null && finished) {
+                mom.close() ;
+                if (mom.getMBeanServer().isRegistered( rootParentName )) {
+                    mom.getMBeanServer().unregisterMBean( rootParentName ) ;
+                }
+            }
+
+            exec.shutdownNow() ;
+        }
+    }
+
+    public void testAsyncRegistration() throws Exception {
+        System.out.println( "testAsyncRegistration" ) ;
+
+        final int NUM_CHILDREN = 100 ;
+        AsyncManagedObjectManager mom = null ;
+        ExecutorService exec = Executors.newSingleThreadExecutor() ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandaloneAsync( "test",
+                exec ) ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final TreeNode parent = new TreeNode( "parent" ) ;
+            final Future<GmbalMBean> pfuture = mom.registerAtRootAsync(
+                parent ) ;
+            final List<TreeNode> children = new ArrayList<TreeNode>() ;
+            final List<Future<GmbalMBean>> futures =
+                new ArrayList<Future<GmbalMBean>>() ;
+            for (int ctr=0; ctr<NUM_CHILDREN; ctr++) {
+                TreeNode child = new TreeNode( "child" + ctr ) ;
+                children.add( child ) ;
+                futures.add( mom.registerAsync( parent, child ) ) ;
+
+                // The tree is updated before registerAsync returns.
+                assertNotNull( mom.getObjectName( child ) ) ;
+            }
+
+            try {
+                mom.registerAsync( parent, children.get( 0 ) ) ;
+                fail( "Exception expected" ) ;
+            } catch (IllegalArgumentException exc) {
+                msg( "caught exception " + exc ) ;
+            }
+
+            assertNotNull( pfuture.get() ) ;
+            for (int ctr=0; ctr<NUM_CHILDREN; ctr++) {
+                assertNotNull( futures.get( ctr ).get() ) ;
+                assertTrue( mom.getMBeanServer().isRegistered(
+                    mom.getObjectName( children.get( ctr ) ) ) ) ;
+            }
+
+            // A queued registration followed by a queued unregistration
+            // leaves nothing behind.
+            final TreeNode transientNode = new TreeNode( "transient" ) ;
+            mom.registerAsync( parent, transientNode ) ;
+            final ObjectName transientName = mom.getObjectName( transientNode ) ;
+            mom.unregisterAsync( transientNode ).get() ;
+            assertFalse( mom.getMBeanServer().isRegistered( transientName ) ) ;
+
+            final List<ObjectName> names = new ArrayList<ObjectName>() ;
+            for (TreeNode child : children) {
+                names.add( mom.getObjectName( child ) ) ;
+            }
+
+            Future<Void> ufuture = mom.unregisterAsync( parent ) ;
+            assertNull( mom.getObjectName( parent ) ) ;
+            ufuture.get() ;
+            for (ObjectName oname : names) {
+                assertFalse( mom.getMBeanServer().isRegistered( oname ) ) ;
+            }
+
+            // The synchronous methods still work, and wait for the pipeline.
+            final TreeNode syncNode = new TreeNode( "sync" ) ;
+            mom.registerAtRoot( syncNode ) ;
+            assertTrue( mom.getMBeanServer().isRegistered(
+                mom.getObjectName( syncNode ) ) ) ;
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+
+            exec.shutdown() ;
+        }
+    }
+
+    @ManagedObject
+    public static class MultiAttributeBean {
+        @ManagedAttribute
+        public int getCount() { return 3 ; }
+
+        @ManagedAttribute
+        public String getLabel() { return "label" ; }
+
+        @ManagedAttribute
+        public String getMissing() { return null ; }
+
+        @ManagedAttribute
+        public void setWriteOnly( int value ) { }
+    }
+
+    private static Map<String,Object> toMap( AttributeList alist ) {
+        Map<String,Object> result = new HashMap<String,Object>() ;
+        for (Object obj : alist) {
+            Attribute attr = (Attribute)obj ;
+            result.put( attr.getName(), attr.getValue() ) ;
+        }
+        return result ;
+    }
+
+    public void testGetAttributes() throws Exception {
+        System.out.println( "testGetAttributes" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            GmbalMBean mb = mom.registerAtRoot( new MultiAttributeBean(),
+                "multi" ) ;
+
+            // All attributes, as a monitoring client would ask for them.
+            List<String> all = new ArrayList<String>() ;
+            for (MBeanAttributeInfo info : mb.getMBeanInfo().getAttributes()) {
+                all.add( info.getName() ) ;
+            }
+            Map<String,Object> values = toMap( mb.getAttributes(
+                all.toArray( new String[all.size()] ) ) ) ;
+            assertEquals( 3, values.get( "Count" ) ) ;
+            assertEquals( "label", values.get( "Label" ) ) ;
+            assertFalse( values.containsKey( "Missing" ) ) ;
+            assertFalse( values.containsKey( "WriteOnly" ) ) ;
+
+            // Unknown names are skipped, and order is preserved.
+            String[] names = { "Label", "Unknown", "Count" } ;
+            for (int ctr=0; ctr<2; ctr++) {
+                AttributeList alist = mb.getAttributes( names ) ;
+                assertEquals( 2, alist.size() ) ;
+                assertEquals( "Label", ((Attribute)alist.get(0)).getName() ) ;
+                assertEquals( "Count", ((Attribute)alist.get(1)).getName() ) ;
+            }
+
+            // Changing the caller's array must not affect later calls.
+            names[0] = "Count" ;
+            names[2] = "Label" ;
+            AttributeList alist = mb.getAttributes( names ) ;
+            assertEquals( "Count", ((Attribute)alist.get(0)).getName() ) ;
+            assertEquals( "Label", ((Attribute)alist.get(1)).getName() ) ;
+
+            // Many distinct name arrays still work after the index is full.
+            for (int ctr=0; ctr<100; ctr++) {
+                values = toMap( mb.getAttributes(
+                    new String[] { "Count", "Other" + ctr } ) ) ;
+                assertEquals( 1, values.size() ) ;
+                assertEquals( 3, values.get( "Count" ) ) ;
+            }
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    @ManagedObject
+    public static class PagedBean {
+        private final Map<String,Integer> map =
+            new LinkedHashMap<String,Integer>() ;
+        private final List<String> list = new ArrayList<String>() ;
+
+        public PagedBean() {
+            for (int ctr=0; ctr<50; ctr++) {
+                map.put( "key" + ctr, ctr ) ;
+                list.add( "elem" + ctr ) ;
+            }
+        }
+
+        @ManagedAttribute
+        @Paged( maxPageSize=20 )
+        public Map<String,Integer> getMap() { return map ; }
+
+        // Not published either, since the attribute is not.
+        @ManagedAttribute
+        public void setMap( Map<String,Integer> map ) {
+            this.map.clear() ;
+            this.map.putAll( map ) ;
+        }
+
+        @ManagedAttribute
+        @Paged( attribute=true )
+        public Iterator<String> getList() { return list.iterator() ; }
+    }
+
+    private static final String[] PAGE_SIG = new String[] {
+        Integer.class.getName(), Integer.class.getName() } ;
+
+    public void testPagedAttributes() throws Exception {
+        System.out.println( "testPagedAttributes" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            GmbalMBean mb = mom.registerAtRoot( new PagedBean(), "paged" ) ;
+
+            Set<String> attrs = new HashSet<String>() ;
+            for (MBeanAttributeInfo info : mb.getMBeanInfo().getAttributes()) {
+                attrs.add( info.getName() ) ;
+            }
+            assertFalse( attrs.contains( "Map" ) ) ;
+            assertTrue( attrs.contains( "List" ) ) ;
+
+            assertEquals( 50, mb.invoke( "MapSize", null, null ) ) ;
+            assertEquals( 50, mb.invoke( "ListSize", null, null ) ) ;
+
+            TabularData page = (TabularData)mb.invoke( "MapPage",
+                new Object[] { 10, 5 }, PAGE_SIG ) ;
+            assertEquals( 5, page.size() ) ;
+            for (int ctr=10; ctr<15; ctr++) {
+                assertEquals( ctr, page.get(
+                    new Object[] { "key" + ctr } ).get( "value" ) ) ;
+            }
+
+            // The limit is capped by maxPageSize, and the last page is short.
+            page = (TabularData)mb.invoke( "MapPage",
+                new Object[] { 0, 100 }, PAGE_SIG ) ;
+            assertEquals( 20, page.size() ) ;
+            page = (TabularData)mb.invoke( "MapPage",
+                new Object[] { 45, 10 }, PAGE_SIG ) ;
+            assertEquals( 5, page.size() ) ;
+
+            String[] elems = (String[])mb.invoke( "ListPage",
+                new Object[] { 48, 10 }, PAGE_SIG ) ;
+            assertEquals( Arrays.asList( "elem48", "elem49" ),
+                Arrays.asList( elems ) ) ;
+            assertEquals( 50, ((String[])mb.getAttribute( "List" )).length ) ;
+
+            try {
+                mb.invoke( "ListPage", new Object[] { -1, 10 }, PAGE_SIG ) ;
+                fail( "Expected an exception for a negative offset" ) ;
+            } catch (IllegalArgumentException exc) {
+                // expected
+            }
+
+            final Object[][] badArgs = {
+                { 0 }, { 0, 10, 20 }, { null, 10 }, { 0, "10" } } ;
+            for (Object[] args : badArgs) {
+                try {
+                    mb.invoke( "ListPage", args, PAGE_SIG ) ;
+                    fail( "Expected an exception for arguments "
+                        + Arrays.asList( args ) ) ;
+                } catch (IllegalArgumentException exc) {
+                    // expected
+                }
+            }
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    @ManagedObject
+    public static class CachedBean {
+        private final AtomicInteger calls =
+            new AtomicInteger() ;
+        private volatile int value = 1 ;
+
+        @ManagedAttribute
+        @DescriptorFields( "currencyTimeLimit=0" )
+        public int getValue() {
+            calls.incrementAndGet() ;
+            return value ;
+        }
+
+        @ManagedAttribute
+        public void setValue( int value ) {
+            this.value = value ;
+        }
+
+        @ManagedAttribute
+        @DescriptorFields( "currencyTimeLimit=-1" )
+        public int getUncached() {
+            calls.incrementAndGet() ;
+            return value ;
+        }
+
+        @ManagedAttribute
+        @DescriptorFields( "currencyTimeLimit=0" )
+        public String[] getNames() {
+            return new String[] { "a", "b" } ;
+        }
+    }
+
+    public void testAttributeCache() throws Exception {
+        System.out.println( "testAttributeCache" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            CachedBean cb = new CachedBean() ;
+            GmbalMBean mb = mom.registerAtRoot( cb, "cached" ) ;
+
+            assertEquals( 1, mb.getAttribute( "Value" ) ) ;
+            assertEquals( 1, mb.getAttribute( "Value" ) ) ;
+            assertEquals( 1, toMap( mb.getAttributes(
+                new String[] { "Value" } ) ).get( "Value" ) ) ;
+            assertEquals( 1, cb.calls.get() ) ;
+
+            AttributeCacheStatistics stats =
+                mom.getAttributeCacheStatistics( cb ) ;
+            assertEquals( 2, stats.getHits() ) ;
+            assertEquals( 1, stats.getMisses() ) ;
+
+            // Setting the attribute discards the cached value.  Without
+            // listeners, setAttribute does not read the old value.
+            mb.setAttribute( new Attribute( "Value", 2 ) ) ;
+            assertEquals( 1, cb.calls.get() ) ;
+            assertEquals( 2, mb.getAttribute( "Value" ) ) ;
+            assertEquals( 2, cb.calls.get() ) ;
+
+            // An attribute with a negative currencyTimeLimit is not cached.
+            mb.getAttribute( "Uncached" ) ;
+            mb.getAttribute( "Uncached" ) ;
+            assertEquals( 4, cb.calls.get() ) ;
+
+            // Concurrent readers share one computation.
+            mb.setAttribute( new Attribute( "Value", 3 ) ) ;
+            final GmbalMBean fmb = mb ;
+            ExecutorService exec = Executors.newFixedThreadPool( 4 ) ;
+            try {
+                List<Future<Object>> results = new ArrayList<Future<Object>>() ;
+                for (int ctr=0; ctr<8; ctr++) {
+                    results.add( exec.submit( new Callable<Object>() {
+                        public Object call() throws Exception {
+                            return fmb.getAttribute( "Value" ) ;
+                        }
+                    } ) ) ;
+                }
+                for (Future<Object> result : results) {
+                    assertEquals( 3, result.get() ) ;
+                }
+            } finally {
+                exec.shutdown() ;
+            }
+            assertEquals( 5, cb.calls.get() ) ;
+
+            // Each reader of a cached array gets its own copy.
+            final String[] names = (String[])mb.getAttribute( "Names" ) ;
+            names[0] = "changed" ;
+            final String[] again = (String[])mb.getAttribute( "Names" ) ;
+            assertNotSame( names, again ) ;
+            assertEquals( "a", again[0] ) ;
+
+            assertNull( mom.getAttributeCacheStatistics(
+                new MultiAttributeBean() ) ) ;
+
+            // An MBean without a currencyTimeLimit has no cache.
+            final MultiAttributeBean plain = new MultiAttributeBean() ;
+            mom.registerAtRoot( plain, "plain" ) ;
+            assertNull( mom.getAttributeCacheStatistics( plain ) ) ;
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    @ManagedObject
+    public static class SlowBean {
+        private final AtomicInteger calls = new AtomicInteger() ;
+        private final CountDownLatch entered = new CountDownLatch( 1 ) ;
+        private final CountDownLatch release = new CountDownLatch( 1 ) ;
+
+        // Concurrent reads are only coalesced for an attribute that asks
+        // for it.
+        @ManagedAttribute
+        @DescriptorFields( "coalesceReads=true" )
+        public int getSlow() throws InterruptedException {
+            final int result = calls.incrementAndGet() ;
+            entered.countDown() ;
+            release.await() ;
+            return result ;
+        }
+    }
+
+    public void testCoalescedGetAttribute() throws Exception {
+        System.out.println( "testCoalescedGetAttribute" ) ;
+
+        ManagedObjectManager mom = null ;
+        ExecutorService exec = Executors.newFixedThreadPool( 3 ) ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            final SlowBean sb = new SlowBean() ;
+            final GmbalMBean mb = mom.registerAtRoot( sb, "slow" ) ;
+            Callable<Object> read = new Callable<Object>() {
+                public Object call() throws Exception {
+                    return mb.getAttribute( "Slow" ) ;
+                }
+            } ;
+
+            List<Future<Object>> results = new ArrayList<Future<Object>>() ;
+            results.add( exec.submit( read ) ) ;
+            sb.entered.await() ;
+            results.add( exec.submit( read ) ) ;
+            results.add( exec.submit( read ) ) ;
+
+            // Wait until both later readers have joined the read in progress.
+            while (mom.getAttributeCacheStatistics( sb ).getHits() < 2) {
+                Thread.sleep( 1 ) ;
+            }
+            sb.release.countDown() ;
+
+            for (Future<Object> result : results) {
+                assertEquals( 1, result.get() ) ;
+            }
+            assertEquals( 1, sb.calls.get() ) ;
+
+            // Without a currencyTimeLimit, the value is not kept.
+            assertEquals( 2, mb.getAttribute( "Slow" ) ) ;
+            AttributeCacheStatistics stats =
+                mom.getAttributeCacheStatistics( sb ) ;
+            assertEquals( 2, stats.getHits() ) ;
+            assertEquals( 2, stats.getMisses() ) ;
+        } finally {
+            exec.shutdown() ;
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    @ManagedObject
+    public static class NotifyingBean {
+        private final AtomicInteger reads = new AtomicInteger() ;
+        private volatile int value = 1 ;
+
+        @ManagedAttribute
+        public int getValue() {
+            reads.incrementAndGet() ;
+            return value ;
+        }
+
+        @ManagedAttribute
+        public void setValue( int value ) {
+            this.value = value ;
+        }
+    }
+
+    public void testAttributeChangeNotification() throws Exception {
+        System.out.println( "testAttributeChangeNotification" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            NotifyingBean nb = new NotifyingBean() ;
+            GmbalMBean mb = mom.registerAtRoot( nb, "notifying" ) ;
+
+            // Without listeners, the old value is not read.
+            mb.setAttribute( new Attribute( "Value", 2 ) ) ;
+            AttributeList list = new AttributeList() ;
+            list.add( new Attribute( "Value", 3 ) ) ;
+            mb.setAttributes( list ) ;
+            assertEquals( 0, nb.reads.get() ) ;
+
+            final Thread caller = Thread.currentThread() ;
+            final List<Thread> threads = new ArrayList<Thread>() ;
+            final List<ClassLoader> loaders = new ArrayList<ClassLoader>() ;
+            final List<AttributeChangeNotification> received =
+                new ArrayList<AttributeChangeNotification>() ;
+            final CountDownLatch delivered = new CountDownLatch( 1 ) ;
+            NotificationListener listener = new NotificationListener() {
+                public void handleNotification( Notification notification,
+                    Object handback ) {
+                    threads.add( Thread.currentThread() ) ;
+                    loaders.add(
+                        Thread.currentThread().getContextClassLoader() ) ;
+                    received.add( (AttributeChangeNotification)notification ) ;
+                    delivered.countDown() ;
+                }
+            } ;
+
+            mom.getMBeanServer().addNotificationListener(
+                mom.getObjectName( nb ), listener, null, null ) ;
+            mb.setAttribute( new Attribute( "Value", 4 ) ) ;
+            assertEquals( 1, nb.reads.get() ) ;
+            assertTrue( delivered.await( 10, TimeUnit.SECONDS ) ) ;
+
+            AttributeChangeNotification notification = received.get( 0 ) ;
+            assertEquals( "Value", notification.getAttributeName() ) ;
+            assertEquals( 3, notification.getOldValue() ) ;
+            assertEquals( 4, notification.getNewValue() ) ;
+            assertNotSame( caller, threads.get( 0 ) ) ;
+            // The delivery thread does not keep the ClassLoader of the
+            // thread that started it.
+            assertNotNull( caller.getContextClassLoader() ) ;
+            assertNull( loaders.get( 0 ) ) ;
+
+            mom.getMBeanServer().removeNotificationListener(
+                mom.getObjectName( nb ), listener ) ;
+            mb.setAttribute( new Attribute( "Value", 5 ) ) ;
+            assertEquals( 1, nb.reads.get() ) ;
+
+            // Closing the manager stops its delivery thread.
+            mom.close() ;
+            mom = null ;
+            threads.get( 0 ).join( 10000 ) ;
+            assertFalse( threads.get( 0 ).isAlive() ) ;
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    public void testPrepare() throws Exception {
+        System.out.println( "testPrepare" ) ;
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+
+            try {
+                mom.prepare( CachedBean.class ) ;
+                fail( "prepare succeeded before createRoot" ) ;
+            } catch (IllegalStateException exc) {
+                System.out.println( "Caught expected exception: " + exc ) ;
+            }
+
+            mom.createRoot() ;
+            mom.prepare( CachedBean.class, NotifyingBean.class,
+                MultiAttributeBean.class, PagedBean.class ) ;
+
+            NotifyingBean nb = new NotifyingBean() ;
+            GmbalMBean mb = mom.registerAtRoot( nb, "prepared" ) ;
+            assertEquals( 1, mb.getAttribute( "Value" ) ) ;
+
+            try {
+                mom.prepare( NotifyingBean.class, String.class ) ;
+                fail( "prepare succeeded for a class that is not managed" ) ;
+            } catch (IllegalArgumentException exc) {
+                System.out.println( "Caught expected exception: " + exc ) ;
+            }
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+        }
+    }
+
+    // Return the skeleton that mom has built for cls, or null.  The
+    // skeleton cache is private to ManagedObjectManagerImpl.
+    private static Object getSkeleton( ManagedObjectManager mom,
+        Class<?> cls ) throws Exception {
+
+        final java.lang.reflect.Field field =
+            mom.getClass().getDeclaredField( "skeletonMap" ) ;
+        field.setAccessible( true ) ;
+        final Object map = field.get( mom ) ;
+        final Method get = map.getClass().getDeclaredMethod( "get",
+            Object.class ) ;
+        get.setAccessible( true ) ;
+        return get.invoke( map, TypeEvaluator.getEvaluatedType( cls ) ) ;
+    }
+
+    public void testPrepareIndexed() throws Exception {
+        System.out.println( "testPrepareIndexed" ) ;
+
+        final File dir = File.createTempFile( "gmbal", "index" ) ;
+        assertTrue( dir.delete() ) ;
+        final File index = new File( dir, "META-INF/gmbal/managed-objects" ) ;
+        assertTrue( index.getParentFile().mkdirs() ) ;
+        final Writer writer = new FileWriter( index ) ;
+        try {
+            writer.write( "# test index\n" ) ;
+            writer.write( NotifyingBean.class.getName() + "\n\n" ) ;
+            writer.write( "org.glassfish.gmbal.NoSuchBean\n" ) ;
+        } finally {
+            writer.close() ;
+        }
+
+        ManagedObjectManager mom = null ;
+
+        try {
+            mom = ManagedObjectManagerFactory.createStandalone("test") ;
+            mom.stripPackagePrefix();
+            mom.createRoot() ;
+
+            assertNull( getSkeleton( mom, NotifyingBean.class ) ) ;
+
+            // The missing class is logged and skipped.
+            mom.prepareIndexed( new URLClassLoader(
+                new URL[] { dir.toURI().toURL() },
+                getClass().getClassLoader() ) ) ;
+
+            final Object skel = getSkeleton( mom, NotifyingBean.class ) ;
+            assertNotNull( skel ) ;
+            assertNull( getSkeleton( mom, MultiAttributeBean.class ) ) ;
+
+            GmbalMBean mb = mom.registerAtRoot( new NotifyingBean(),
+                "indexed" ) ;
+            assertEquals( 1, mb.getAttribute( "Value" ) ) ;
+
+            // Registration used the prepared skeleton.
+            assertSame( skel, getSkeleton( mom, NotifyingBean.class ) ) ;
+        } finally {
+            if (mom != null) {
+                mom.close() ;
+            }
+
+            index.delete() ;
+            index.getParentFile().delete() ;
+            index.getParentFile().getParentFile().delete() ;
+            dir.delete() ;
+        }
+    }
 }
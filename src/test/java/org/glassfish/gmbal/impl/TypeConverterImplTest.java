@@ -44,10 +44,26 @@
 
 package org.glassfish.gmbal.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.InvalidKeyException;
+import javax.management.openmbean.KeyAlreadyExistsException;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
 import junit.framework.TestCase;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
 import org.glassfish.gmbal.ManagedObjectManagerFactory;
+import org.glassfish.gmbal.typelib.TypeEvaluator;
 
 /**
  *
@@ -122,4 +138,129 @@ public class TypeConverterImplTest extends TestCase {
             logger.setLevel(Level.INFO ) ;
         }
     }
+
+    public void testManagedDataConversion() throws Exception {
+        final TypeConverterTestData.TestData td =
+            TypeConverterTestData.Data1TestData ;
+        final TypeConverter tc = mom.getTypeConverter(
+            TypeEvaluator.getEvaluatedType( td.data().getClass() ) ) ;
+
+        final CompositeData cd = (CompositeData)tc.toManagedEntity( td.data() ) ;
+        final CompositeData expected = (CompositeData)td.ovalue() ;
+        assertTrue( cd instanceof CompositeDataImpl ) ;
+        assertEquals( expected, cd ) ;
+        assertEquals( cd, expected ) ;
+        assertEquals( expected.hashCode(), cd.hashCode() ) ;
+        assertEquals( expected.values().size(), cd.values().size() ) ;
+        assertEquals( 21, cd.get( "value" ) ) ;
+        assertTrue( cd.containsKey( "list" ) ) ;
+        assertFalse( cd.containsKey( "foo" ) ) ;
+
+        try {
+            cd.get( "foo" ) ;
+            fail( "Expected InvalidKeyException" ) ;
+        } catch (InvalidKeyException exc) {
+            // expected
+        }
+
+        // Remote clients must see a standard CompositeDataSupport
+        final Object copy = roundTrip( cd ) ;
+        assertEquals( CompositeDataSupport.class, copy.getClass() ) ;
+        assertEquals( expected, copy ) ;
+    }
+
+    private static Object roundTrip( Object obj ) throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream() ;
+        final ObjectOutputStream os = new ObjectOutputStream( bos ) ;
+        os.writeObject( obj ) ;
+        os.close() ;
+        return new ObjectInputStream( new ByteArrayInputStream(
+            bos.toByteArray() ) ).readObject() ;
+    }
+
+    @ManagedData
+    public static class MapData {
+        private final Map<String,Integer> map = new HashMap<String,Integer>() ;
+
+        @ManagedAttribute
+        Map<String,Integer> getMap() { return map ; }
+    }
+
+    public void testMapConversion() throws Exception {
+        final MapData md = new MapData() ;
+        for (int ctr=0; ctr<100; ctr++) {
+            md.getMap().put( "key" + ctr, ctr ) ;
+        }
+
+        final TypeConverter tc = mom.getTypeConverter(
+            TypeEvaluator.getEvaluatedType( MapData.class ) ) ;
+        final CompositeData cd = (CompositeData)tc.toManagedEntity( md ) ;
+        final TabularData td = (TabularData)cd.get( "map" ) ;
+        assertTrue( td instanceof TabularDataImpl ) ;
+
+        final TabularDataSupport expected = new TabularDataSupport(
+            td.getTabularType() ) ;
+        for (Map.Entry<String,Integer> entry : md.getMap().entrySet()) {
+            final Map<String,Object> items = new HashMap<String,Object>() ;
+            items.put( "key", entry.getKey() ) ;
+            items.put( "value", entry.getValue() ) ;
+            expected.put( new CompositeDataSupport(
+                td.getTabularType().getRowType(), items ) ) ;
+        }
+
+        assertEquals( expected, td ) ;
+        assertEquals( td, expected ) ;
+        assertEquals( expected.hashCode(), td.hashCode() ) ;
+        assertEquals( 100, td.size() ) ;
+        assertEquals( 42, td.get( new Object[] { "key42" } ).get( "value" ) ) ;
+        assertTrue( td.containsKey( new Object[] { "key7" } ) ) ;
+        assertFalse( td.containsKey( new Object[] { "key100" } ) ) ;
+
+        final CompositeData row = td.remove( new Object[] { "key7" } ) ;
+        assertEquals( 7, row.get( "value" ) ) ;
+        assertEquals( 99, td.size() ) ;
+        td.put( row ) ;
+        assertEquals( expected, td ) ;
+
+        try {
+            td.put( row ) ;
+            fail( "Expected KeyAlreadyExistsException" ) ;
+        } catch (KeyAlreadyExistsException exc) {
+            // expected
+        }
+
+        final Object copy = roundTrip( cd ) ;
+        assertEquals( CompositeDataSupport.class, copy.getClass() ) ;
+        final Object tcopy = ((CompositeData)copy).get( "map" ) ;
+        assertEquals( TabularDataSupport.class, tcopy.getClass() ) ;
+        assertEquals( expected, tcopy ) ;
+    }
+
+    public void testPrimitiveArrayConversion() throws Exception {
+        final long[] data = new long[] { 1, 2, Long.MAX_VALUE } ;
+        final TypeConverter tc = mom.getTypeConverter(
+            TypeEvaluator.getEvaluatedType( long[].class ) ) ;
+        assertFalse( tc.isIdentity() ) ;
+
+        final Object mdata = tc.toManagedEntity( data ) ;
+        assertEquals( Long[].class, mdata.getClass() ) ;
+        assertTrue( Arrays.equals( new Long[] { 1L, 2L, Long.MAX_VALUE },
+            (Long[])mdata ) ) ;
+        assertTrue( Arrays.equals( data, (long[])tc.fromManagedEntity( mdata ) ) ) ;
+        assertEquals( 0, ((Long[])tc.toManagedEntity( null )).length ) ;
+
+        final int[][] data2 = new int[][] { { 1, 2 }, {}, { 3 } } ;
+        final TypeConverter tc2 = mom.getTypeConverter(
+            TypeEvaluator.getEvaluatedType( int[][].class ) ) ;
+        final Object mdata2 = tc2.toManagedEntity( data2 ) ;
+        assertEquals( Integer[][].class, mdata2.getClass() ) ;
+        assertTrue( Arrays.deepEquals( new Integer[][] { { 1, 2 }, {}, { 3 } },
+            (Integer[][])mdata2 ) ) ;
+        assertTrue( Arrays.deepEquals( data2,
+            (int[][])tc2.fromManagedEntity( mdata2 ) ) ) ;
+
+        final TypeConverter tc3 = mom.getTypeConverter(
+            TypeEvaluator.getEvaluatedType( Integer[].class ) ) ;
+        assertTrue( tc3.isIdentity() ) ;
+    }
 }
@@ -39,7 +39,24 @@
  */ 
 package org.glassfish.gmbal.typelib;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 import junit.framework.TestCase;
+import org.glassfish.gmbal.ManagedAttribute;
 
 /**
  * @author ken
@@ -163,4 +180,244 @@ public class MoreTypeEvalTests extends TestCase {
         } catch (IllegalStateException ignored) {
         }
     }
+
+    public static class CacheTarget {
+        public List<String> getNames() { return null ; }
+
+        public Map<String,List<Integer>> getCounts() { return null ; }
+    }
+
+    // Loads its own copy of one class, and delegates everything else.
+    private static class ReloadingClassLoader extends ClassLoader {
+        private final String name ;
+
+        ReloadingClassLoader( String name ) {
+            super( ReloadingClassLoader.class.getClassLoader() ) ;
+            this.name = name ;
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass( String cname,
+            boolean resolve ) throws ClassNotFoundException {
+
+            if (!cname.equals( name )) {
+                return super.loadClass( cname, resolve ) ;
+            }
+
+            Class<?> result = findLoadedClass( cname ) ;
+            if (result == null) {
+                try {
+                    final InputStream is = getParent().getResourceAsStream(
+                        cname.replace( '.', '/' ) + ".class" ) ;
+                    final ByteArrayOutputStream os =
+                        new ByteArrayOutputStream() ;
+                    final byte[] buffer = new byte[4096] ;
+                    int count ;
+                    while ((count = is.read( buffer )) > 0) {
+                        os.write( buffer, 0, count ) ;
+                    }
+                    is.close() ;
+
+                    final byte[] bytes = os.toByteArray() ;
+                    result = defineClass( cname, bytes, 0, bytes.length ) ;
+                } catch (IOException exc) {
+                    throw new ClassNotFoundException( cname, exc ) ;
+                }
+            }
+
+            return result ;
+        }
+    }
+
+    public void testPersistentCache() throws Exception {
+        System.out.println( "testPersistentCache") ;
+        final EvaluatedType original =
+            TypeEvaluator.getEvaluatedType( CacheTarget.class ) ;
+
+        final File file = File.createTempFile( "gmbal", ".types" ) ;
+        try {
+            assertTrue( TypeEvaluator.saveCache( file ) > 0 ) ;
+
+            // A new copy of CacheTarget has not been evaluated, so its
+            // evaluation comes from the cache.
+            final ClassLoader loader = new ReloadingClassLoader(
+                CacheTarget.class.getName() ) ;
+            final Class<?> copy = loader.loadClass(
+                CacheTarget.class.getName() ) ;
+            assertNotSame( CacheTarget.class, copy ) ;
+            assertTrue( TypeEvaluator.loadCache( file, loader ) > 0 ) ;
+
+            final EvaluatedClassDeclaration restored =
+                (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(
+                    copy ) ;
+            assertSame( copy, restored.cls() ) ;
+            assertEquals( original.toString(), restored.toString() ) ;
+            assertEquals( ((EvaluatedClassDeclaration)original).methods().size(),
+                restored.methods().size() ) ;
+            for (EvaluatedMethodDeclaration emd : restored.methods()) {
+                assertSame( copy, emd.method().getDeclaringClass() ) ;
+                if (emd.name().equals( "getCounts" )) {
+                    assertEquals(
+                        "java.util.Map<java.lang.String,java.util.List<java.lang.Integer>>",
+                        emd.returnType().toString() ) ;
+                } else if (emd.name().equals( "getNames" )) {
+                    // Immutable types are read as the same instances.
+                    assertSame( EvaluatedType.ESTRING,
+                        ((EvaluatedClassDeclaration)emd.returnType())
+                            .instantiations().get( 0 ) ) ;
+                }
+            }
+
+            // A file that is not a type cache is ignored.
+            final OutputStream os = new FileOutputStream( file ) ;
+            os.write( new byte[] { 1, 2, 3, 4 } ) ;
+            os.close() ;
+            assertEquals( 0, TypeEvaluator.loadCache( file, loader ) ) ;
+        } finally {
+            file.delete() ;
+        }
+    }
+
+    public void testPlantedCache() throws Exception {
+        System.out.println( "testPlantedCache") ;
+        final File file = File.createTempFile( "gmbal", ".types" ) ;
+        try {
+            // A valid header, followed by an object that is not a type.
+            final DataOutputStream os = new DataOutputStream(
+                new FileOutputStream( file ) ) ;
+            os.writeInt( PersistentTypeCache.MAGIC ) ;
+            os.writeInt( PersistentTypeCache.VERSION ) ;
+            os.writeUTF( System.getProperty( "java.version" ) ) ;
+            os.writeInt( 0 ) ;
+            final ObjectOutputStream oos = new ObjectOutputStream( os ) ;
+            oos.writeObject( new HashMap<String,String>() ) ;
+            oos.close() ;
+
+            try {
+                PersistentTypeCache.read( file,
+                    MoreTypeEvalTests.class.getClassLoader() ) ;
+                fail( "HashMap read from a type cache" ) ;
+            } catch (InvalidClassException exc) {
+                assertEquals( HashMap.class.getName(), exc.classname ) ;
+            }
+
+            assertEquals( 0, TypeEvaluator.loadCache( file,
+                MoreTypeEvalTests.class.getClassLoader() ) ) ;
+        } finally {
+            file.delete() ;
+        }
+    }
+
+    public static class LazyTarget {
+        @ManagedAttribute
+        public int getValue() { return 0 ; }
+
+        public ConcurrentSkipListMap<String,Long> getOther() { return null ; }
+    }
+
+    public void testLazyMembers() {
+        System.out.println( "testLazyMembers") ;
+        TypeEvaluator.setLazyMembers( true ) ;
+        try {
+            final EvaluatedClassDeclaration ecd =
+                (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType(
+                    LazyTarget.class ) ;
+            final int size = TypeEvaluator.evalClassMapSize() ;
+
+            // Only the annotated method is evaluated.
+            final List<EvaluatedMethodDeclaration> annotated =
+                ecd.methods( ManagedAttribute.class ) ;
+            assertEquals( 1, annotated.size() ) ;
+            assertEquals( "getValue", annotated.get( 0 ).name() ) ;
+            assertSame( EvaluatedType.EINT, annotated.get( 0 ).returnType() ) ;
+            assertEquals( size, TypeEvaluator.evalClassMapSize() ) ;
+
+            // Evaluating all methods reuses the evaluated one.
+            final List<EvaluatedMethodDeclaration> all = ecd.methods() ;
+            assertEquals( 2, all.size() ) ;
+            assertTrue( all.contains( annotated.get( 0 ) ) ) ;
+            assertSame( all, ecd.methods() ) ;
+            assertTrue( TypeEvaluator.evalClassMapSize() > size ) ;
+            for (EvaluatedMethodDeclaration emd : all) {
+                if (emd.name().equals( "getOther" )) {
+                    assertEquals(
+                        "java.util.concurrent.ConcurrentSkipListMap<java.lang.String,java.lang.Long>",
+                        emd.returnType().toString() ) ;
+                }
+            }
+        } finally {
+            TypeEvaluator.setLazyMembers( false ) ;
+        }
+    }
+
+    public void testHashCodeAfterFreeze() {
+        System.out.println( "testHashCodeAfterFreeze") ;
+        final EvaluatedClassDeclaration ecd = DeclarationFactory.ecdecl(
+            Modifier.PUBLIC, List.class.getName(), List.class ) ;
+        final int before = ecd.hashCode() ;
+
+        // The hash code of a declaration that is not frozen is not cached.
+        final List<EvaluatedType> args = new ArrayList<EvaluatedType>() ;
+        args.add( EvaluatedType.ESTRING ) ;
+        ecd.instantiations( args ) ;
+        final EvaluatedClassDeclaration listString =
+            (EvaluatedClassDeclaration)getMethodType( CacheTarget.class,
+                "getNames" ) ;
+        assertEquals( listString, ecd ) ;
+        assertEquals( listString.hashCode(), ecd.hashCode() ) ;
+        assertTrue( before != ecd.hashCode() ) ;
+
+        ecd.freeze() ;
+        assertEquals( listString.hashCode(), ecd.hashCode() ) ;
+        assertFalse( ecd.equals( getMethodType( CacheTarget.class,
+            "getCounts" ) ) ) ;
+    }
+
+    private static EvaluatedType getMethodType( Class<?> cls, String name ) {
+        final EvaluatedClassDeclaration ecd =
+            (EvaluatedClassDeclaration)TypeEvaluator.getEvaluatedType( cls ) ;
+        for (EvaluatedMethodDeclaration emd : ecd.methods()) {
+            if (emd.name().equals( name )) {
+                return emd.returnType() ;
+            }
+        }
+
+        return null ;
+    }
+
+    public void testPurge() throws Exception {
+        System.out.println( "testPurge") ;
+        ClassLoader loader = new ReloadingClassLoader(
+            CacheTarget.class.getName() ) ;
+        Class<?> copy = loader.loadClass( CacheTarget.class.getName() ) ;
+        TypeEvaluator.getEvaluatedType( copy ) ;
+
+        // The declarations of Map<String,List<Integer>> and so on belong to
+        // the application ClassLoader, not to the copy.
+        TypeCacheStatistics stats = TypeEvaluator.getCacheStatistics( loader ) ;
+        assertEquals( 1, stats.getEvaluatedClasses() ) ;
+        assertEquals( 1, stats.getDeclarations() ) ;
+        assertTrue( stats.getApproximateRetainedBytes() > 0 ) ;
+        assertTrue( TypeEvaluator.getCacheStatistics( null )
+            .getDeclarations() > 0 ) ;
+
+        assertTrue( TypeEvaluator.purge( loader ) >= 2 ) ;
+        stats = TypeEvaluator.getCacheStatistics( loader ) ;
+        assertEquals( 0, stats.getEvaluatedClasses() ) ;
+        assertEquals( 0, stats.getDeclarations() ) ;
+        assertEquals( 0, stats.getApproximateRetainedBytes() ) ;
+
+        // The caches do not keep an evaluated ClassLoader alive, even
+        // without purge.
+        TypeEvaluator.getEvaluatedType( copy ) ;
+        final WeakReference<ClassLoader> ref =
+            new WeakReference<ClassLoader>( loader ) ;
+        loader = null ;
+        copy = null ;
+        for (int ctr=0; ctr<10 && ref.get() != null; ctr++) {
+            System.gc() ;
+            Thread.sleep( 10 ) ;
+        }
+        assertNull( ref.get() ) ;
+    }
 }